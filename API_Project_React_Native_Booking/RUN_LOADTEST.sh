@@ -0,0 +1,88 @@
+#!/bin/bash
+
+# So sánh throughput / p99 giữa platform thread (JDK 17, mặc định) và profile virtual-threads (JDK 21).
+# Cần: JDK 21, k6, MySQL đã có dữ liệu mẫu (RUN_MIGRATION.sh).
+# Dùng: ./RUN_LOADTEST.sh [VUS] [DURATION]
+# Kết quả ghi vào loadtest/RESULTS.md để commit cùng cấu hình máy đã đo.
+
+VUS="${1:-400}"
+DURATION="${2:-2m}"
+PORT=8080
+BASE_URL="http://localhost:$PORT"
+RESULTS_DIR="build/loadtest"
+# Cùng một pool cho cả hai chế độ, để chỉ còn khác nhau ở mô hình thread
+DB_POOL_SIZE="${DB_POOL_SIZE:-40}"
+
+mkdir -p "$RESULTS_DIR"
+
+for tool in java k6 curl python3; do
+    command -v "$tool" > /dev/null || { echo "ERROR: $tool not found"; exit 1; }
+done
+
+echo "Building with JDK 21..."
+./gradlew -q bootJar -PjavaVersion=21 || { echo "ERROR: Build failed!"; exit 1; }
+JAR=$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -1)
+
+run_mode() {
+    local mode="$1"
+    local profiles="$2"
+
+    echo ""
+    echo "========================================"
+    echo "Mode: $mode (profiles: ${profiles:-default})"
+    echo "========================================"
+    # Read-mix không đi qua cổng thanh toán: tắt hẳn provider cho cả hai chế độ
+    DB_POOL_SIZE="$DB_POOL_SIZE" DB_POOL_MIN_IDLE="$DB_POOL_SIZE" \
+        java -jar "$JAR" --server.port=$PORT --spring.profiles.active="$profiles" \
+        --payment.provider=none --socketio.enabled=false > "$RESULTS_DIR/$mode-app.log" 2>&1 &
+    local pid=$!
+
+    local up=false
+    for i in $(seq 1 90); do
+        if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+            up=true
+            break
+        fi
+        kill -0 $pid 2>/dev/null || break
+        sleep 1
+    done
+    if [ "$up" != true ]; then
+        echo "ERROR: $mode did not start, see $RESULTS_DIR/$mode-app.log"
+        kill $pid 2>/dev/null
+        exit 1
+    fi
+
+    # Warm-up JIT + pool trước khi đo
+    k6 run -q -e BASE_URL="$BASE_URL" -e VUS=50 -e DURATION=30s loadtest/read-mix.js > /dev/null
+    k6 run -e BASE_URL="$BASE_URL" -e VUS="$VUS" -e DURATION="$DURATION" \
+        --summary-export "$RESULTS_DIR/$mode-summary.json" loadtest/read-mix.js
+
+    kill $pid
+    wait $pid 2>/dev/null
+}
+
+run_mode platform perf
+run_mode virtual perf,virtual-threads
+
+echo ""
+echo "========================================"
+echo "Result ($VUS VUs, $DURATION)"
+echo "========================================"
+python3 - "$RESULTS_DIR" "$VUS" "$DURATION" "$DB_POOL_SIZE" "$(java -version 2>&1 | head -1)" <<'PY'
+import datetime, json, os, platform, sys
+results_dir, vus, duration, pool, jdk = sys.argv[1:]
+rows = []
+for mode, profiles in (("platform", "perf"), ("virtual", "perf,virtual-threads")):
+    metrics = json.load(open(f"{results_dir}/{mode}-summary.json"))["metrics"]
+    latency = metrics["http_req_duration"]
+    line = (f"| {mode} | {profiles} | {metrics['http_reqs']['rate']:.1f} | {latency['p(95)']:.1f} "
+            f"| {latency['p(99)']:.1f} | {metrics['http_req_failed']['value'] * 100:.2f}% |")
+    print(line)
+    rows.append(line)
+with open("loadtest/RESULTS.md", "a") as out:
+    out.write(f"\n## {datetime.date.today()} - {vus} VUs, {duration}\n\n")
+    out.write(f"{jdk}, {os.cpu_count()} CPU, {platform.system()} {platform.release()}, Hikari pool {pool}\n\n")
+    out.write("| Mode | Profiles | req/s | p95 (ms) | p99 (ms) | Failed |\n")
+    out.write("|---|---|---|---|---|---|\n")
+    out.write("\n".join(rows) + "\n")
+PY
@@ -0,0 +1,42 @@
+// k6 run -e BASE_URL=http://localhost:8080 -e USER_ID=1 -e VUS=400 loadtest/read-mix.js
+// Tải đọc chủ yếu chờ JDBC: trang phòng, chi tiết phòng/khách sạn, lịch sử thanh toán
+import http from "k6/http";
+import { check } from "k6";
+
+const BASE_URL = __ENV.BASE_URL || "http://localhost:8080";
+const USER_ID = __ENV.USER_ID || "1";
+const MAX_ROOM_ID = Number(__ENV.MAX_ROOM_ID || 20);
+const MAX_HOTEL_ID = Number(__ENV.MAX_HOTEL_ID || 10);
+
+export const options = {
+  scenarios: {
+    read_mix: {
+      executor: "constant-vus",
+      vus: Number(__ENV.VUS || 400),
+      duration: __ENV.DURATION || "2m",
+    },
+  },
+  summaryTrendStats: ["avg", "med", "p(95)", "p(99)", "max"],
+};
+
+function pick(max) {
+  return 1 + Math.floor(Math.random() * max);
+}
+
+export default function () {
+  const roll = Math.random();
+  let res;
+  if (roll < 0.4) {
+    res = http.get(`${BASE_URL}/api/v1/rooms?page=0&size=20`, { tags: { name: "rooms" } });
+  } else if (roll < 0.6) {
+    res = http.get(`${BASE_URL}/api/v1/rooms/${pick(MAX_ROOM_ID)}`, { tags: { name: "room" } });
+  } else if (roll < 0.8) {
+    res = http.get(`${BASE_URL}/api/v1/hotels/${pick(MAX_HOTEL_ID)}`, { tags: { name: "hotel" } });
+  } else {
+    res = http.get(`${BASE_URL}/api/v1/payments/my-payments`, {
+      headers: { "user-id": USER_ID },
+      tags: { name: "payments" },
+    });
+  }
+  check(res, { "status < 500": (r) => r.status < 500 });
+}
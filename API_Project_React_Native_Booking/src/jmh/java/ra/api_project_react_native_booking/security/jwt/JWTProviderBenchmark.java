@@ -0,0 +1,36 @@
+package ra.api_project_react_native_booking.security.jwt;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Ký và xác thực token HS256, chạy trên mỗi request đã đăng nhập
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JWTProviderBenchmark {
+
+    private JWTProvider jwtProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtProvider = new JWTProvider();
+        ReflectionTestUtils.setField(jwtProvider, "jwtSecret", "duong1301naduong1301naduong1301naduong1301na");
+        ReflectionTestUtils.setField(jwtProvider, "jwtExpire", 86_400_000);
+        ReflectionTestUtils.setField(jwtProvider, "jwtRefresh", 604_800_000);
+        jwtProvider.init();
+        token = jwtProvider.generateTokenWithClaims(42L, "user@example.com", "USER", "ACTIVE", "device-1");
+    }
+
+    @Benchmark
+    public String generateTokenWithClaims() {
+        return jwtProvider.generateTokenWithClaims(42L, "user@example.com", "USER", "ACTIVE", "device-1");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtProvider.validateToken(token);
+    }
+}
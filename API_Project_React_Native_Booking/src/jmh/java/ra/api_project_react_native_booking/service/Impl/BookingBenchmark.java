@@ -0,0 +1,105 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.repository.*;
+import ra.api_project_react_native_booking.service.interfaces.PricingService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Mã booking và kiểm tra phòng trống trên bitmap (500 phòng, ~30% số đêm đã có khách)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookingBenchmark {
+
+    private static final int ROOMS = 500;
+
+    private AnnotationConfigApplicationContext context;
+    private BookingServiceImpl bookingService;
+    private RoomAvailabilityServiceImpl availabilityService;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.now();
+        List<Long> roomIds = new ArrayList<>();
+        List<Object[]> ranges = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long roomId = 1; roomId <= ROOMS; roomId++) {
+            roomIds.add(roomId);
+            for (int start = random.nextInt(5); start < 360; start += 10) {
+                ranges.add(new Object[]{roomId, today.plusDays(start), today.plusDays(start + 3)});
+            }
+        }
+
+        BookingRepository bookingRepository = mock(BookingRepository.class, withSettings().stubOnly());
+        RoomRepository roomRepository = mock(RoomRepository.class, withSettings().stubOnly());
+        when(roomRepository.findAvailableRoomIds()).thenReturn(roomIds);
+        when(bookingRepository.findOccupiedRanges(any(), any())).thenReturn(ranges);
+
+        // Dựng qua Spring như ứng dụng thật: BookingServiceImpl thêm dependency mà chưa có bean thì setUp báo lỗi ngay
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "availability.horizon-days", 365,
+                "booking.lock-stripes", 16,
+                "booking.lock-timeout", "1s")));
+        context.registerBean(BookingRepository.class, () -> bookingRepository);
+        context.registerBean(RoomRepository.class, () -> roomRepository);
+        stub(UserRepository.class);
+        stub(RoomNightRepository.class);
+        stub(PricingService.class);
+        stub(EntityManager.class);
+        context.registerBean(TransactionTemplate.class,
+                () -> new TransactionTemplate(mock(PlatformTransactionManager.class, withSettings().stubOnly())));
+        context.registerBean(RoomLockStripes.class);
+        context.registerBean(RoomAvailabilityServiceImpl.class);
+        context.registerBean(BookingServiceImpl.class);
+        context.refresh();
+
+        availabilityService = context.getBean(RoomAvailabilityServiceImpl.class);
+        availabilityService.reload();
+        bookingService = context.getBean(BookingServiceImpl.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateBookingCode() {
+        return bookingService.generateBookingCode();
+    }
+
+    @Benchmark
+    public boolean isRoomBooked() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate checkIn = today.plusDays(random.nextInt(300));
+        return availabilityService.isRoomBooked(1L + random.nextInt(ROOMS), checkIn, checkIn.plusDays(3));
+    }
+
+    @Benchmark
+    public List<Long> getAvailableRoomIds() {
+        LocalDate checkIn = today.plusDays(ThreadLocalRandom.current().nextInt(300));
+        return availabilityService.getAvailableRoomIds(checkIn, checkIn.plusDays(3));
+    }
+
+    private <T> void stub(Class<T> type) {
+        context.registerBean(type, () -> mock(type, withSettings().stubOnly()));
+    }
+}
@@ -0,0 +1,98 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.openjdk.jmh.annotations.*;
+import ra.api_project_react_native_booking.dto.response.HotelResponse;
+import ra.api_project_react_native_booking.dto.response.RoomResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.HotelGeoIndexService;
+import ra.api_project_react_native_booking.service.interfaces.HotelSearchService;
+import ra.api_project_react_native_booking.service.interfaces.RoomAvailabilityService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// Chi phí dựng DTO phòng/khách sạn; repository là stub trả fixture trong bộ nhớ (stubOnly để không ghi lại lời gọi)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConverterBenchmark {
+
+    @Param({"1", "20"})
+    private int pageSize;
+
+    private RoomServiceImpl roomService;
+    private HotelServiceImpl hotelService;
+    private List<Room> rooms;
+    private Hotel hotel;
+
+    @Setup
+    public void setUp() {
+        hotel = Hotel.builder()
+                .id(1L)
+                .name("Khách sạn Biển Xanh")
+                .description("Gần biển Mỹ Khê")
+                .address("12 Võ Nguyên Giáp")
+                .city("Đà Nẵng")
+                .country("Việt Nam")
+                .starRating(4)
+                .latitude(16.0544)
+                .longitude(108.2022)
+                .ratingSum(450L)
+                .reviewCount(100L)
+                .build();
+        RoomType roomType = RoomType.builder().id(1L).name("Deluxe").description("Hướng biển").build();
+
+        rooms = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> amenities = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            rooms.add(Room.builder()
+                    .id(id)
+                    .roomNumber("R" + id)
+                    .hotel(hotel)
+                    .roomType(roomType)
+                    .price(BigDecimal.valueOf(1_200_000))
+                    .capacity(2)
+                    .isAvailable(true)
+                    .ratingSum(40L)
+                    .reviewCount(10L)
+                    .build());
+            for (int i = 0; i < 4; i++) {
+                images.add(new Object[]{id, RoomImage.builder().id(id * 10 + i).imageUrl("https://img/" + id + "/" + i).isPrimary(i == 0).build()});
+            }
+            for (int i = 0; i < 6; i++) {
+                amenities.add(new Object[]{id, Amenity.builder().id((long) i).name("Amenity " + i).build()});
+            }
+        }
+
+        RoomRepository roomRepository = mock(RoomRepository.class, withSettings().stubOnly());
+        when(roomRepository.findImagesByRoomIds(anyList())).thenReturn(images);
+        when(roomRepository.findAmenitiesByRoomIds(anyList())).thenReturn(amenities);
+        roomService = new RoomServiceImpl(roomRepository, mock(RoomAvailabilityService.class, withSettings().stubOnly()));
+        hotelService = new HotelServiceImpl(mock(HotelRepository.class, withSettings().stubOnly()),
+                mock(HotelSearchService.class, withSettings().stubOnly()),
+                mock(HotelGeoIndexService.class, withSettings().stubOnly()));
+    }
+
+    @Benchmark
+    public RoomResponse convertToRoomResponse() {
+        return roomService.convertToRoomResponse(rooms.get(0));
+    }
+
+    @Benchmark
+    public List<RoomResponse> convertToRoomResponses() {
+        return roomService.convertToRoomResponses(rooms);
+    }
+
+    @Benchmark
+    public HotelResponse convertToHotelResponse() {
+        return hotelService.convertToHotelResponse(hotel);
+    }
+}
@@ -0,0 +1,156 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8 luồng cùng trừ tiền một thẻ (H2 trong bộ nhớ, mỗi thao tác một transaction + một dòng payments):
+ * - conditionalUpdate: cách PaymentServiceImpl.payBooking làm, UPDATE ... WHERE balance >= ?
+ * - selectForUpdate: đọc khoá dòng rồi mới ghi
+ * - versionCheck: đọc version rồi UPDATE ... WHERE version = ?, thua thì đọc lại (đếm số lần thử lại)
+ * gradle jmh -PjmhIncludes=PaymentDebitBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class PaymentDebitBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:payment_bench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final long CARD_ID = 1;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        private Connection keepAlive;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            keepAlive = DriverManager.getConnection(URL);
+            try (Statement statement = keepAlive.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS payments");
+                statement.execute("DROP TABLE IF EXISTS payment_cards");
+                statement.execute("CREATE TABLE payment_cards (id BIGINT PRIMARY KEY, balance DECIMAL(18,2) NOT NULL, " +
+                        "version BIGINT NOT NULL)");
+                statement.execute("CREATE TABLE payments (id BIGINT AUTO_INCREMENT PRIMARY KEY, card_id BIGINT NOT NULL, " +
+                        "amount DECIMAL(18,2) NOT NULL)");
+                statement.execute("INSERT INTO payment_cards VALUES (" + CARD_ID + ", 1000000000000, 0)");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            keepAlive.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        private Connection connection;
+        private PreparedStatement conditionalDebit;
+        private PreparedStatement selectForUpdate;
+        private PreparedStatement selectVersion;
+        private PreparedStatement setBalance;
+        private PreparedStatement versionedDebit;
+        private PreparedStatement insertPayment;
+
+        @Setup(Level.Trial)
+        public void setUp(Database database) throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            conditionalDebit = connection.prepareStatement(
+                    "UPDATE payment_cards SET balance = balance - ?, version = version + 1 WHERE id = ? AND balance >= ?");
+            selectForUpdate = connection.prepareStatement("SELECT balance FROM payment_cards WHERE id = ? FOR UPDATE");
+            selectVersion = connection.prepareStatement("SELECT balance, version FROM payment_cards WHERE id = ?");
+            setBalance = connection.prepareStatement("UPDATE payment_cards SET balance = ?, version = version + 1 WHERE id = ?");
+            versionedDebit = connection.prepareStatement(
+                    "UPDATE payment_cards SET balance = ?, version = version + 1 WHERE id = ? AND version = ?");
+            insertPayment = connection.prepareStatement("INSERT INTO payments (card_id, amount) VALUES (?, ?)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        private void insertPayment() throws SQLException {
+            insertPayment.setLong(1, CARD_ID);
+            insertPayment.setBigDecimal(2, AMOUNT);
+            insertPayment.executeUpdate();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Retries {
+        public long retries;
+    }
+
+    @Benchmark
+    public boolean conditionalUpdate(Session session) throws SQLException {
+        session.conditionalDebit.setBigDecimal(1, AMOUNT);
+        session.conditionalDebit.setLong(2, CARD_ID);
+        session.conditionalDebit.setBigDecimal(3, AMOUNT);
+        boolean debited = session.conditionalDebit.executeUpdate() == 1;
+        if (debited) {
+            session.insertPayment();
+        }
+        session.connection.commit();
+        return debited;
+    }
+
+    @Benchmark
+    public boolean selectForUpdate(Session session) throws SQLException {
+        session.selectForUpdate.setLong(1, CARD_ID);
+        BigDecimal balance;
+        try (ResultSet rs = session.selectForUpdate.executeQuery()) {
+            rs.next();
+            balance = rs.getBigDecimal(1);
+        }
+        boolean debited = balance.compareTo(AMOUNT) >= 0;
+        if (debited) {
+            session.setBalance.setBigDecimal(1, balance.subtract(AMOUNT));
+            session.setBalance.setLong(2, CARD_ID);
+            session.setBalance.executeUpdate();
+            session.insertPayment();
+        }
+        session.connection.commit();
+        return debited;
+    }
+
+    @Benchmark
+    public boolean versionCheck(Session session, Retries retries) throws SQLException {
+        while (true) {
+            session.selectVersion.setLong(1, CARD_ID);
+            BigDecimal balance;
+            long version;
+            try (ResultSet rs = session.selectVersion.executeQuery()) {
+                rs.next();
+                balance = rs.getBigDecimal(1);
+                version = rs.getLong(2);
+            }
+            if (balance.compareTo(AMOUNT) < 0) {
+                session.connection.commit();
+                return false;
+            }
+            session.versionedDebit.setBigDecimal(1, balance.subtract(AMOUNT));
+            session.versionedDebit.setLong(2, CARD_ID);
+            session.versionedDebit.setLong(3, version);
+            if (session.versionedDebit.executeUpdate() == 1) {
+                session.insertPayment();
+                session.connection.commit();
+                return true;
+            }
+            session.connection.rollback();
+            retries.retries++;
+        }
+    }
+}
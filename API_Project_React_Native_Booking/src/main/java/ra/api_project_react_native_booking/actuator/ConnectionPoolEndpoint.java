@@ -0,0 +1,97 @@
+package ra.api_project_react_native_booking.actuator;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /actuator/pool: trạng thái pool Hikari (active / idle / pending) và phân bố thời gian lấy kết nối.
+ * Bucket của histogram lấy từ management.metrics.distribution.slo.hikaricp.connections.acquire.
+ */
+@Component
+@Endpoint(id = "pool")
+@RequiredArgsConstructor
+public class ConnectionPoolEndpoint {
+
+    static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public Map<String, Object> pool() {
+        HikariDataSource hikari = unwrap();
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (hikari == null) {
+            body.put("error", "DataSource is not a Hikari pool");
+            return body;
+        }
+
+        body.put("pool", hikari.getPoolName());
+        body.put("maximumPoolSize", hikari.getMaximumPoolSize());
+        body.put("minimumIdle", hikari.getMinimumIdle());
+        body.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+        // null khi pool chưa mở kết nối nào
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool != null) {
+            body.put("active", pool.getActiveConnections());
+            body.put("idle", pool.getIdleConnections());
+            body.put("pending", pool.getThreadsAwaitingConnection());
+            body.put("total", pool.getTotalConnections());
+        }
+
+        Timer acquire = meterRegistry.find(ACQUIRE_TIMER).tag("pool", hikari.getPoolName()).timer();
+        if (acquire != null) {
+            body.put("acquire", acquireLatency(acquire.takeSnapshot()));
+        }
+        return body;
+    }
+
+    private Map<String, Object> acquireLatency(HistogramSnapshot snapshot) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", snapshot.count());
+        latency.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        latency.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+        }
+        latency.put("percentilesMs", percentiles);
+
+        // Số lần lấy kết nối có thời gian <= leMs (cộng dồn)
+        List<Map<String, Object>> histogram = new ArrayList<>();
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("leMs", bucket.bucket(TimeUnit.MILLISECONDS));
+            entry.put("count", (long) bucket.count());
+            histogram.add(entry);
+        }
+        latency.put("histogram", histogram);
+        return latency;
+    }
+
+    private HikariDataSource unwrap() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
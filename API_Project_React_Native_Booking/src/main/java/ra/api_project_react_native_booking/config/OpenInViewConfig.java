@@ -0,0 +1,70 @@
+package ra.api_project_react_native_booking.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Open-in-view giữ EntityManager, và kết nối JDBC đã mở, tới hết request, kể cả phần ghi body async.
+ * Handler trả về StreamingResponseBody (kể cả bọc trong ResponseEntity) có thể ghi vài phút nên bỏ qua
+ * open-in-view, mỗi trang tự mở transaction ngắn. Xét theo handler đã khớp chứ không theo URL,
+ * nên endpoint stream mới hay đổi đường dẫn không phải sửa ở đây.
+ */
+@Configuration
+public class OpenInViewConfig {
+
+    // Thay bean mặc định của Spring Boot (@ConditionalOnMissingBean), vẫn được đăng ký cho mọi đường dẫn
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor() {
+            @Override
+            public void preHandle(WebRequest request) {
+                if (!isStreaming(request)) {
+                    super.preHandle(request);
+                }
+            }
+
+            @Override
+            public void postHandle(WebRequest request, ModelMap model) {
+                if (!isStreaming(request)) {
+                    super.postHandle(request, model);
+                }
+            }
+
+            @Override
+            public void afterCompletion(WebRequest request, Exception ex) {
+                if (!isStreaming(request)) {
+                    super.afterCompletion(request, ex);
+                }
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(WebRequest request) {
+                if (!isStreaming(request)) {
+                    super.afterConcurrentHandlingStarted(request);
+                }
+            }
+        };
+    }
+
+    // Handler mapping gắn handler đã khớp vào request trước khi interceptor chạy
+    static boolean isStreaming(WebRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return false;
+        }
+        ResolvableType returnType = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+        if (ResponseEntity.class.isAssignableFrom(returnType.toClass())) {
+            returnType = returnType.getGeneric(0);
+        }
+        return StreamingResponseBody.class.isAssignableFrom(returnType.toClass());
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 import ra.api_project_react_native_booking.dto.request.ForgotPasswordRequest;
 import ra.api_project_react_native_booking.dto.request.LoginRequest;
 import ra.api_project_react_native_booking.dto.request.RegisterRequest;
+import ra.api_project_react_native_booking.dto.request.ResetPasswordRequest;
 import ra.api_project_react_native_booking.dto.request.VerifyOtpRequest;
 import ra.api_project_react_native_booking.dto.response.APIResponse;
 import ra.api_project_react_native_booking.dto.response.LoginResponse;
@@ -98,48 +99,48 @@ public class AuthController {
         );
     }
 
-//    @PostMapping("/forgot-password")
-//    public ResponseEntity<APIResponse<OtpResponse>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest forgotPasswordRequest) {
-//        OtpResponse otpResponse = userService.forgotPassword(forgotPasswordRequest);
-//        return ResponseEntity.ok(
-//                APIResponse.<OtpResponse>builder()
-//                        .success(otpResponse.isSuccess())
-//                        .message(otpResponse.getMessage())
-//                        .data(otpResponse)
-//                        .status(HttpStatus.OK)
-//                        .timestamp(LocalDateTime.now())
-//                        .build()
-//        );
-//    }
-//
-//    @PostMapping("/verify-otp")
-//    public ResponseEntity<APIResponse<OtpResponse>> verifyOtp(@Valid @RequestBody VerifyOtpRequest verifyOtpRequest) {
-//        OtpResponse otpResponse = userService.verifyOtp(verifyOtpRequest);
-//        return ResponseEntity.ok(
-//                APIResponse.<OtpResponse>builder()
-//                        .success(otpResponse.isSuccess())
-//                        .message(otpResponse.getMessage())
-//                        .data(otpResponse)
-//                        .status(HttpStatus.OK)
-//                        .timestamp(LocalDateTime.now())
-//                        .build()
-//        );
-//    }
-//
-//    @PostMapping("/reset-password")
-//    public ResponseEntity<APIResponse<OtpResponse>> resetPassword(@Valid @RequestBody ResetPasswordRequest resetPasswordRequest) {
-//        OtpResponse otpResponse = userService.resetPassword(resetPasswordRequest);
-//        return ResponseEntity.ok(
-//                APIResponse.<OtpResponse>builder()
-//                        .success(otpResponse.isSuccess())
-//                        .message(otpResponse.getMessage())
-//                        .data(otpResponse)
-//                        .status(HttpStatus.OK)
-//                        .timestamp(LocalDateTime.now())
-//                        .build()
-//        );
-//    }
-//
+    @PostMapping("/forgot-password")
+    public ResponseEntity<APIResponse<OtpResponse>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest forgotPasswordRequest) {
+        OtpResponse otpResponse = userService.forgotPassword(forgotPasswordRequest);
+        return ResponseEntity.ok(
+                APIResponse.<OtpResponse>builder()
+                        .success(otpResponse.isSuccess())
+                        .message(otpResponse.getMessage())
+                        .data(otpResponse)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
+    @PostMapping("/verify-otp")
+    public ResponseEntity<APIResponse<OtpResponse>> verifyOtp(@Valid @RequestBody VerifyOtpRequest verifyOtpRequest) {
+        OtpResponse otpResponse = userService.verifyOtp(verifyOtpRequest);
+        return ResponseEntity.ok(
+                APIResponse.<OtpResponse>builder()
+                        .success(otpResponse.isSuccess())
+                        .message(otpResponse.getMessage())
+                        .data(otpResponse)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
+    @PostMapping("/reset-password")
+    public ResponseEntity<APIResponse<OtpResponse>> resetPassword(@Valid @RequestBody ResetPasswordRequest resetPasswordRequest) {
+        OtpResponse otpResponse = userService.resetPassword(resetPasswordRequest);
+        return ResponseEntity.ok(
+                APIResponse.<OtpResponse>builder()
+                        .success(otpResponse.isSuccess())
+                        .message(otpResponse.getMessage())
+                        .data(otpResponse)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
 //    // API refresh token
 //    @PostMapping("/refresh-token")
 //    public ResponseEntity<APIResponse<LoginResponse>> refreshToken(@RequestHeader("Authorization") String token) {
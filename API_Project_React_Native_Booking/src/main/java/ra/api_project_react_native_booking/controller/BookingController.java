@@ -1,21 +1,42 @@
 package ra.api_project_react_native_booking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ra.api_project_react_native_booking.dto.request.BookingRequest;
 import ra.api_project_react_native_booking.dto.response.APIResponse;
 import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.model.constants.BookingStatus;
 import ra.api_project_react_native_booking.service.interfaces.BookingService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/v1/bookings")
@@ -23,7 +44,14 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class BookingController {
 
+    // Bằng SeekCursor.MAX_PAGE_SIZE: mỗi chunk export là một trang cursor đầy
+    private static final int EXPORT_CHUNK_SIZE = 100;
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${booking.export.timeout:5m}")
+    private Duration exportTimeout = Duration.ofMinutes(5);
 
     @PostMapping
     public ResponseEntity<APIResponse<BookingResponse>> createBooking(
@@ -149,19 +177,58 @@ public class BookingController {
         );
     }
 
+    // Ghi dần mảng data trong cùng envelope APIResponse, không dựng cả danh sách trong bộ nhớ.
+    // Trang đầu đọc trước khi trả 200 nên lỗi lúc này vẫn về GlobalExceptionHandler như mọi endpoint khác
     @GetMapping("/user/{userId}/all")
-    public ResponseEntity<APIResponse<List<BookingResponse>>> getUserBookings(@PathVariable Long userId) {
-        List<BookingResponse> bookings = bookingService.getUserBookings(userId);
+    public ResponseEntity<StreamingResponseBody> getUserBookings(@PathVariable Long userId, HttpServletRequest request) {
+        CursorPage<BookingResponse> firstPage = bookingService.getBookingsByUserCursor(userId, null, EXPORT_CHUNK_SIZE);
+        APIResponse<Void> envelope = APIResponse.<Void>builder()
+                .success(true)
+                .message("All user bookings retrieved successfully")
+                .status(HttpStatus.OK)
+                .timestamp(LocalDateTime.now())
+                .build();
+        ObjectNode envelopeJson = objectMapper.valueToTree(envelope);
+        ObjectWriter writer = bookingWriter();
 
-        return ResponseEntity.ok(
-                APIResponse.<List<BookingResponse>>builder()
-                        .success(true)
-                        .message("All user bookings retrieved successfully")
-                        .data(bookings)
-                        .status(HttpStatus.OK)
-                        .timestamp(LocalDateTime.now())
-                        .build()
-        );
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                for (Map.Entry<String, JsonNode> field : envelopeJson.properties()) {
+                    generator.writeFieldName(field.getKey());
+                    if ("data".equals(field.getKey())) {
+                        generator.writeStartArray();
+                        forEachBooking(userId, firstPage, booking -> writeValue(writer, generator, booking));
+                        generator.writeEndArray();
+                    } else {
+                        generator.writeTree(field.getValue());
+                    }
+                }
+                generator.writeEndObject();
+            }
+        };
+        setExportTimeout(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Export NDJSON: mỗi dòng một booking
+    @GetMapping(value = "/user/{userId}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUserBookings(@PathVariable Long userId, HttpServletRequest request) {
+        CursorPage<BookingResponse> firstPage = bookingService.getBookingsByUserCursor(userId, null, EXPORT_CHUNK_SIZE);
+        ObjectWriter writer = bookingWriter();
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                forEachBooking(userId, firstPage, booking -> writeValue(writer, generator, booking));
+                generator.writeRaw('\n');
+            }
+        };
+        setExportTimeout(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/my-bookings")
@@ -184,16 +251,32 @@ public class BookingController {
         );
     }
 
+    @GetMapping("/my-bookings/cursor")
+    public ResponseEntity<APIResponse<CursorPage<BookingResponse>>> getMyBookingsCursor(
+            @RequestHeader("user-id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<BookingResponse> page = bookingService.getBookingsByUserCursor(userId, cursor, size);
+
+        return ResponseEntity.ok(
+                APIResponse.<CursorPage<BookingResponse>>builder()
+                        .success(true)
+                        .message("My bookings retrieved successfully")
+                        .data(page)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     @GetMapping("/upcoming")
     public ResponseEntity<APIResponse<List<BookingResponse>>> getUpcomingBookings(
-            @RequestHeader("user-id") Long userId) {
+            @RequestHeader("user-id") Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "20") int limit) {
 
-        // Giả sử có service method để lấy upcoming bookings
-        List<BookingResponse> upcomingBookings = bookingService.getUserBookings(userId)
-                .stream()
-                .filter(booking -> booking.getStatus() == BookingStatus.CONFIRMED ||
-                        booking.getStatus() == BookingStatus.PENDING)
-                .toList();
+        List<BookingResponse> upcomingBookings = bookingService.getUpcomingBookings(userId, from, limit);
 
         return ResponseEntity.ok(
                 APIResponse.<List<BookingResponse>>builder()
@@ -205,4 +288,36 @@ public class BookingController {
                         .build()
         );
     }
-}
\ No newline at end of file
+
+    // Đi tiếp theo keyset, mỗi trang một truy vấn ngắn: không kết nối nào bị giữ suốt lượt tải
+    private void forEachBooking(Long userId, CursorPage<BookingResponse> firstPage, Consumer<BookingResponse> consumer) {
+        CursorPage<BookingResponse> page = firstPage;
+        page.getContent().forEach(consumer);
+        while (page.isHasNext()) {
+            page = bookingService.getBookingsByUserCursor(userId, page.getNextCursor(), EXPORT_CHUNK_SIZE);
+            page.getContent().forEach(consumer);
+        }
+    }
+
+    // Timeout async riêng cho export, các request async khác giữ mặc định
+    private void setExportTimeout(HttpServletRequest request) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(exportTimeout.toMillis());
+        }
+    }
+
+    // Không flush sau từng phần tử, để buffer của generator gom ghi
+    private ObjectWriter bookingWriter() {
+        return objectMapper.writerFor(BookingResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private void writeValue(ObjectWriter writer, JsonGenerator generator, BookingResponse booking) {
+        try {
+            writer.writeValue(generator, booking);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
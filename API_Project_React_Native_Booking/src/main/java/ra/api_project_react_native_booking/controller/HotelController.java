@@ -1,6 +1,10 @@
 package ra.api_project_react_native_booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -124,23 +128,43 @@ public class HotelController {
         );
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<APIResponse<Page<HotelResponse>>> getNearbyHotels(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<HotelResponse> hotels = hotelService.getNearbyHotels(lat, lng, radiusKm, pageable);
+
+        return ResponseEntity.ok(
+                APIResponse.<Page<HotelResponse>>builder()
+                        .success(true)
+                        .message("Nearby hotels retrieved successfully")
+                        .data(hotels)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     @GetMapping("/filter")
-    public ResponseEntity<APIResponse<List<HotelResponse>>> filterHotelsByRating(
+    public ResponseEntity<APIResponse<Page<HotelResponse>>> filterHotelsByRating(
             @RequestParam(required = false) Integer minRating,
             @RequestParam(required = false) Integer maxRating,
-            @RequestParam(required = false) String city) {
+            @RequestParam(required = false) String city,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
 
-        List<HotelResponse> filteredHotels = hotelService.getAllHotels()
-                .stream()
-                .filter(hotel ->
-                        (minRating == null || hotel.getStarRating() >= minRating) &&
-                                (maxRating == null || hotel.getStarRating() <= maxRating) &&
-                                (city == null || hotel.getCity().toLowerCase().contains(city.toLowerCase()))
-                )
-                .toList();
+        // size < 1 thì lấy 1 thay vì lỗi; giới hạn trên do service áp
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, size),
+                Sort.by(Sort.Direction.DESC, "starRating").and(Sort.by("id")));
+        Page<HotelResponse> filteredHotels = hotelService.filterHotels(minRating, maxRating, city, pageable);
 
         return ResponseEntity.ok(
-                APIResponse.<List<HotelResponse>>builder()
+                APIResponse.<Page<HotelResponse>>builder()
                         .success(true)
                         .message("Hotels filtered successfully")
                         .data(filteredHotels)
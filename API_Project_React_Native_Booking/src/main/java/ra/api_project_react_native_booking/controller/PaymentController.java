@@ -7,7 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ra.api_project_react_native_booking.dto.request.PaymentRequest;
 import ra.api_project_react_native_booking.dto.response.APIResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.PaymentResponse;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
 import ra.api_project_react_native_booking.service.interfaces.PaymentService;
 
 import java.time.LocalDateTime;
@@ -26,17 +28,20 @@ public class PaymentController {
             @RequestHeader("user-id") Long userId) {
         PaymentResponse payment = paymentService.payBooking(userId, paymentRequest);
 
+        // PENDING: cổng thanh toán đang xử lý, client theo dõi qua /booking/{bookingId}
+        boolean pending = payment.getStatus() == PaymentStatus.PENDING;
+
         String message = payment.getStatus().toString().equals("COMPLETED")
                 ? "Thanh toán thành công"
                 : payment.getMessage() != null ? payment.getMessage() : "Thanh toán thất bại";
 
         HttpStatus status = payment.getStatus().toString().equals("COMPLETED")
                 ? HttpStatus.OK
-                : HttpStatus.BAD_REQUEST;
+                : pending ? HttpStatus.ACCEPTED : HttpStatus.BAD_REQUEST;
 
         return ResponseEntity.status(status).body(
                 APIResponse.<PaymentResponse>builder()
-                        .success(payment.getStatus().toString().equals("COMPLETED"))
+                        .success(payment.getStatus().toString().equals("COMPLETED") || pending)
                         .message(message)
                         .data(payment)
                         .status(status)
@@ -45,6 +50,23 @@ public class PaymentController {
         );
     }
 
+    // Webhook của cổng thanh toán, xác thực bằng HMAC-SHA256 của body trong header X-Provider-Signature
+    @PostMapping("/callback")
+    public ResponseEntity<APIResponse<Integer>> providerCallback(
+            @RequestBody String payload,
+            @RequestHeader(value = "X-Provider-Signature", required = false) String signature) {
+        int settled = paymentService.handleProviderCallback(payload, signature);
+        return ResponseEntity.ok(
+                APIResponse.<Integer>builder()
+                        .success(true)
+                        .message("Callback processed")
+                        .data(settled)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     @GetMapping("/booking/{bookingId}")
     public ResponseEntity<APIResponse<PaymentResponse>> getPaymentByBookingId(@PathVariable Long bookingId) {
         PaymentResponse payment = paymentService.getPaymentByBookingId(bookingId);
@@ -136,6 +158,23 @@ public class PaymentController {
         );
     }
 
+    @GetMapping("/my-payments/cursor")
+    public ResponseEntity<APIResponse<CursorPage<PaymentResponse>>> getMyPaymentsCursor(
+            @RequestHeader("user-id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPage<PaymentResponse> page = paymentService.getMyPaymentsCursor(userId, cursor, size);
+        return ResponseEntity.ok(
+                APIResponse.<CursorPage<PaymentResponse>>builder()
+                        .success(true)
+                        .message("Lấy danh sách thanh toán thành công")
+                        .data(page)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     // Response DTO for test card - tạm thời comment
     // @Getter
     // @Setter
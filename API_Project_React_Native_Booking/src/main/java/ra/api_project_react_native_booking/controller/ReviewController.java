@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ra.api_project_react_native_booking.dto.request.ReviewRequest;
 import ra.api_project_react_native_booking.dto.response.APIResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.ReviewResponse;
 import ra.api_project_react_native_booking.service.interfaces.ReviewService;
 
@@ -81,6 +82,44 @@ public class ReviewController {
         );
     }
 
+    @GetMapping("/room/{roomId}/cursor")
+    public ResponseEntity<APIResponse<CursorPage<ReviewResponse>>> getReviewsByRoomCursor(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<ReviewResponse> page = reviewService.getReviewsByRoomCursor(roomId, cursor, size);
+
+        return ResponseEntity.ok(
+                APIResponse.<CursorPage<ReviewResponse>>builder()
+                        .success(true)
+                        .message("Room reviews retrieved successfully")
+                        .data(page)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
+    @GetMapping("/hotel/{hotelId}/cursor")
+    public ResponseEntity<APIResponse<CursorPage<ReviewResponse>>> getReviewsByHotelCursor(
+            @PathVariable Long hotelId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<ReviewResponse> page = reviewService.getReviewsByHotelCursor(hotelId, cursor, size);
+
+        return ResponseEntity.ok(
+                APIResponse.<CursorPage<ReviewResponse>>builder()
+                        .success(true)
+                        .message("Hotel reviews retrieved successfully")
+                        .data(page)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<APIResponse<Page<ReviewResponse>>> getReviewsByUser(
             @PathVariable Long userId,
@@ -153,14 +192,13 @@ public class ReviewController {
             @Valid @RequestBody ReviewRequest reviewRequest,
             @RequestHeader("user-id") Long userId) {
 
-        // Giả sử có service method để update review
-        // ReviewResponse updatedReview = reviewService.updateReview(reviewId, reviewRequest, userId);
+        ReviewResponse updatedReview = reviewService.updateReview(reviewId, reviewRequest, userId);
 
         return ResponseEntity.ok(
                 APIResponse.<ReviewResponse>builder()
                         .success(true)
-                        .message("Update review - Implementation pending")
-                        .data(null)
+                        .message("Review updated successfully")
+                        .data(updatedReview)
                         .status(HttpStatus.OK)
                         .timestamp(LocalDateTime.now())
                         .build()
@@ -172,8 +210,7 @@ public class ReviewController {
             @PathVariable Long reviewId,
             @RequestHeader("user-id") Long userId) {
 
-        // Giả sử có service method để xóa review
-        // reviewService.deleteReview(reviewId, userId);
+        reviewService.deleteReview(reviewId, userId);
 
         return ResponseEntity.ok(
                 APIResponse.<String>builder()
@@ -13,7 +13,10 @@ import org.springframework.web.bind.annotation.*;
 import ra.api_project_react_native_booking.dto.request.RoomFilterRequest;
 import ra.api_project_react_native_booking.dto.request.RoomSearchRequest;
 import ra.api_project_react_native_booking.dto.response.APIResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+import ra.api_project_react_native_booking.dto.response.PriceQuoteResponse;
 import ra.api_project_react_native_booking.dto.response.RoomResponse;
+import ra.api_project_react_native_booking.service.interfaces.PricingService;
 import ra.api_project_react_native_booking.service.interfaces.RoomService;
 
 import java.time.LocalDate;
@@ -27,6 +30,7 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final PricingService pricingService;
 
     @GetMapping("/search")
     public ResponseEntity<APIResponse<Page<RoomResponse>>> searchRooms(
@@ -107,6 +111,25 @@ public class RoomController {
         );
     }
 
+    // Giá từng đêm và tổng tiền cho kỳ lưu trú, cùng cách tính với lúc tạo booking
+    @GetMapping("/{id}/quote")
+    public ResponseEntity<APIResponse<PriceQuoteResponse>> getQuote(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut) {
+        PriceQuoteResponse quote = pricingService.quote(id, checkIn, checkOut);
+
+        return ResponseEntity.ok(
+                APIResponse.<PriceQuoteResponse>builder()
+                        .success(true)
+                        .message("Price quote calculated successfully")
+                        .data(quote)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     @GetMapping("/available")
     public ResponseEntity<APIResponse<List<RoomResponse>>> getAvailableRooms(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
@@ -184,6 +207,24 @@ public class RoomController {
         );
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<APIResponse<CursorPage<RoomResponse>>> getAllRoomsCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<RoomResponse> page = roomService.getAllRoomsCursor(cursor, size);
+
+        return ResponseEntity.ok(
+                APIResponse.<CursorPage<RoomResponse>>builder()
+                        .success(true)
+                        .message("All rooms retrieved successfully")
+                        .data(page)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+
     @GetMapping("/featured")
     public ResponseEntity<APIResponse<List<RoomResponse>>> getFeaturedRooms() {
         // Giả sử có service method để lấy featured rooms
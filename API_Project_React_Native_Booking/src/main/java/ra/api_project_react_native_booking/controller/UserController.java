@@ -0,0 +1,45 @@
+package ra.api_project_react_native_booking.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import ra.api_project_react_native_booking.dto.request.UserUpdateRequest;
+import ra.api_project_react_native_booking.dto.response.APIResponse;
+import ra.api_project_react_native_booking.dto.response.UserResponse;
+import ra.api_project_react_native_booking.security.principal.CustomUserPrincipal;
+import ra.api_project_react_native_booking.service.interfaces.UserService;
+
+import java.time.LocalDateTime;
+
+// Các thao tác trên tài khoản cần đăng nhập (không nằm dưới /auth/** vốn bỏ qua JWT)
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class UserController {
+
+    private final UserService userService;
+
+    @PutMapping("/{id}")
+    public ResponseEntity<APIResponse<UserResponse>> updateUserProfile(
+            @PathVariable Long id,
+            @Valid @RequestBody UserUpdateRequest updateRequest,
+            @AuthenticationPrincipal CustomUserPrincipal principal) {
+        if (principal == null || !id.equals(principal.getId())) {
+            throw new RuntimeException("Bạn không có quyền sửa thông tin người dùng này");
+        }
+        UserResponse userResponse = userService.updateUserProfile(id, updateRequest);
+        return ResponseEntity.ok(
+                APIResponse.<UserResponse>builder()
+                        .success(true)
+                        .message("User updated successfully")
+                        .data(userResponse)
+                        .status(HttpStatus.OK)
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+    }
+}
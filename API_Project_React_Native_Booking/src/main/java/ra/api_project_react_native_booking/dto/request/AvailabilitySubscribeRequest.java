@@ -0,0 +1,16 @@
+package ra.api_project_react_native_booking.dto.request;
+
+import lombok.*;
+
+// Payload event "subscribe"/"unsubscribe" của namespace /availability, ngày dạng yyyy-MM-dd
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilitySubscribeRequest {
+    private Long hotelId;
+    private Long roomId;
+    private String checkIn;
+    private String checkOut;
+}
@@ -0,0 +1,16 @@
+package ra.api_project_react_native_booking.dto.request;
+
+import lombok.*;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
+
+// Một kết quả giao dịch do cổng thanh toán gửi về
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentCallbackRequest {
+    private String providerRef;
+    private PaymentProvider.Outcome status;
+    private String message;
+}
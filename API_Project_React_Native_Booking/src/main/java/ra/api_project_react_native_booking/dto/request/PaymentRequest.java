@@ -3,13 +3,19 @@ package ra.api_project_react_native_booking.dto.request;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.validator.group.GroupSequenceProvider;
+import org.hibernate.validator.spi.group.DefaultGroupSequenceProvider;
 import ra.api_project_react_native_booking.model.constants.PaymentMethod;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@GroupSequenceProvider(PaymentRequest.MethodGroups.class)
 public class PaymentRequest {
     @NotNull(message = "Booking ID is required")
     private Long bookingId;
@@ -17,15 +23,33 @@ public class PaymentRequest {
     @NotNull(message = "Payment method is required")
     private PaymentMethod paymentMethod;
 
-    @NotBlank(message = "Card number is required")
+    // Bắt buộc với CREDIT_CARD / DEBIT_CARD, bỏ trống với PAYPAL
+    @NotBlank(message = "Card number is required", groups = CardPayment.class)
     private String cardNumber;
 
-    @NotBlank(message = "Card holder name is required")
+    @NotBlank(message = "Card holder name is required", groups = CardPayment.class)
     private String cardHolderName;
 
-    @NotBlank(message = "Expiry date is required")
+    @NotBlank(message = "Expiry date is required", groups = CardPayment.class)
     private String expiryDate;
 
-    @NotBlank(message = "CVV is required")
+    @NotBlank(message = "CVV is required", groups = CardPayment.class)
     private String cvv;
+
+    // Nhóm ràng buộc chỉ áp khi thanh toán bằng thẻ
+    public interface CardPayment {}
+
+    // @Valid kiểm tra nhóm mặc định; thêm nhóm CardPayment theo paymentMethod
+    public static class MethodGroups implements DefaultGroupSequenceProvider<PaymentRequest> {
+        @Override
+        public List<Class<?>> getValidationGroups(PaymentRequest request) {
+            List<Class<?>> groups = new ArrayList<>();
+            groups.add(PaymentRequest.class);
+            if (request != null && (request.getPaymentMethod() == PaymentMethod.CREDIT_CARD
+                    || request.getPaymentMethod() == PaymentMethod.DEBIT_CARD)) {
+                groups.add(CardPayment.class);
+            }
+            return groups;
+        }
+    }
 }
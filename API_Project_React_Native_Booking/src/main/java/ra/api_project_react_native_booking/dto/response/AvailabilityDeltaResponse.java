@@ -0,0 +1,18 @@
+package ra.api_project_react_native_booking.dto.response;
+
+import lombok.*;
+
+// Các đêm [checkIn, checkOut) của phòng vừa bị chiếm (available = false) hoặc vừa được nhả
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode
+public class AvailabilityDeltaResponse {
+    private Long roomId;
+    private Long hotelId;
+    private String checkIn;
+    private String checkOut;
+    private Boolean available;
+}
@@ -0,0 +1,18 @@
+package ra.api_project_react_native_booking.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+// Trang theo cursor (keyset), không có totalElements để khỏi chạy COUNT(*)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+}
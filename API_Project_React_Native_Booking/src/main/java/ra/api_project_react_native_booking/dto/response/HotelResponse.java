@@ -24,5 +24,7 @@ public class HotelResponse {
     private String imageUrl;
     private Double averageRating;
     private Long reviewCount;
+    // Chỉ có giá trị với kết quả tìm quanh vị trí (/hotels/nearby)
+    private Double distanceKm;
     private List<RoomResponse> rooms;
 }
\ No newline at end of file
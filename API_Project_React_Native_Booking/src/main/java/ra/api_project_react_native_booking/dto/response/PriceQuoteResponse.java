@@ -0,0 +1,25 @@
+package ra.api_project_react_native_booking.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceQuoteResponse {
+    private Long roomId;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Integer nights;
+    private List<BigDecimal> nightlyRates; // Giá từng đêm, bắt đầu từ checkInDate
+    private BigDecimal subtotal;
+    private Integer lengthOfStayDiscountPercent;
+    private BigDecimal discountAmount;
+    private BigDecimal totalPrice;
+    private String currency;
+}
@@ -0,0 +1,19 @@
+package ra.api_project_react_native_booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Phát ra sau khi booking được tạo / đổi trạng thái, occupying cho biết booking còn giữ phòng hay đã nhả.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingChangedEvent {
+    private final Long bookingId;
+    private final Long roomId;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private final boolean occupying;
+}
@@ -0,0 +1,16 @@
+package ra.api_project_react_native_booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phát ra khi dữ liệu hiển thị của khách sạn thay đổi (thông tin khách sạn, review...).
+ * Hiện chỉ luồng review phát event này: ứng dụng chưa có API ghi hotels / rooms, dữ liệu đó được sửa
+ * bằng script SQL nên cache catalog hết hạn theo TTL còn inverted index và lưới geo tự làm mới
+ * theo hotel.index.refresh-interval. API ghi khách sạn / phòng thêm sau này cần publish event này.
+ */
+@Getter
+@AllArgsConstructor
+public class HotelChangedEvent {
+    private final Long hotelId;
+}
@@ -0,0 +1,240 @@
+package ra.api_project_react_native_booking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ra.api_project_react_native_booking.dto.response.APIResponse;
+import ra.api_project_react_native_booking.service.interfaces.IdempotencyService;
+import ra.api_project_react_native_booking.service.interfaces.IdempotencyService.Claim;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Xử lý header Idempotency-Key cho các POST trong idempotency.paths (tạo booking, thanh toán):
+ * lần gửi lại cùng key và cùng body nhận lại đúng response lần đầu mà không chạy lại controller.
+ * Request không có header thì đi qua như cũ.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotency-Replayed";
+
+    static final String METRIC = "idempotency.requests";
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final String ANONYMOUS = "anonymous";
+    private static final String USER_ID_HEADER = "user-id";
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<String> paths;
+    private final int maxBodySize;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${idempotency.paths:/api/v1/bookings,/api/v1/payments/pay}") List<String> paths,
+                             @Value("${idempotency.max-body-size:64KB}") DataSize maxBodySize) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.paths = paths;
+        this.maxBodySize = (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 1);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(endpoint(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Scope là id dạng số đã chuẩn hoá: header tuỳ ý không lọt vào cột user_id
+        String scope = scope(request.getHeader(USER_ID_HEADER));
+        if (scope == null) {
+            writeError(response, HttpStatus.BAD_REQUEST, "user-id header must be a number");
+            return;
+        }
+        // Body phải đọc hết vào bộ nhớ để băm nên có giới hạn
+        if (request.getContentLengthLong() > maxBodySize) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, maxBodySize);
+        if (cachedRequest.body == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        String endpoint = endpoint(request);
+
+        Claim claim = idempotencyService.begin(scope, endpoint, key, sha256(cachedRequest.body));
+        meterRegistry.counter(METRIC, "outcome", claim.outcome().name().toLowerCase()).increment();
+        switch (claim.outcome()) {
+            case REPLAY -> replay(response, claim);
+            case IN_PROGRESS -> writeError(response, HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+            case MISMATCH -> writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request body");
+            case STARTED -> process(cachedRequest, response, filterChain, scope, endpoint, key, claim);
+        }
+    }
+
+    private void process(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String scope, String endpoint, String key, Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, cachingResponse);
+            int status = cachingResponse.getStatus();
+            // 5xx, 409, 429 là lỗi tạm thời: không lưu để client gửi lại được xử lý thật
+            if (status < 500 && status != HttpStatus.CONFLICT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                idempotencyService.complete(scope, endpoint, key, claim, status,
+                        new String(cachingResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.abandon(claim);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, Claim claim) throws IOException {
+        response.setStatus(claim.responseStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (claim.responseBody() != null) {
+            response.getWriter().write(claim.responseBody());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(), APIResponse.builder()
+                .success(false)
+                .message(message)
+                .status(status)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    // Không có header thì dùng chung scope ẩn danh; có mà không phải số thì null
+    private static String scope(String userId) {
+        if (userId == null) {
+            return ANONYMOUS;
+        }
+        try {
+            return String.valueOf(Long.parseLong(userId.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Đọc trước body để băm, controller vẫn đọc lại được như bình thường; body null khi vượt maxBodySize
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, int maxBodySize) throws IOException {
+            super(request);
+            // Content-Length có thể thiếu (chunked) nên đọc dư một byte để biết có vượt không
+            byte[] read = request.getInputStream().readNBytes(maxBodySize + 1);
+            this.body = read.length > maxBodySize ? null : read;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Body đã nằm sẵn trong bộ nhớ: báo có dữ liệu rồi đọc xong ngay
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
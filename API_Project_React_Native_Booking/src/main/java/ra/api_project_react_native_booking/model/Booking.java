@@ -11,7 +11,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_bookings_user_status_checkin", columnList = "user_id, status, check_in_date"),
+        @Index(name = "idx_bookings_status_expires", columnList = "status, expires_at")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Booking {
     @Id
@@ -51,6 +55,10 @@ public class Booking {
     @Column(name = "cancellation_reason", length = 500)
     private String cancellationReason;
 
+    // Hạn giữ phòng của booking PENDING chưa thanh toán; null khi booking đã rời PENDING
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
     @ManyToOne
     @JoinColumn(name = "payment_id")
     private Payment payment;
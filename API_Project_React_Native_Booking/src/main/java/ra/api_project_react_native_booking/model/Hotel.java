@@ -10,7 +10,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "hotels")
+@Table(name = "hotels", indexes = {
+        @Index(name = "idx_hotels_city_star", columnList = "city, star_rating"),
+        @Index(name = "idx_hotels_star", columnList = "star_rating")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Hotel {
     @Id
@@ -56,6 +59,13 @@ public class Hotel {
     @OneToMany(mappedBy = "hotel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> reviews = new ArrayList<>();
 
+    // Tổng điểm và số review của khách sạn, do ReviewService cập nhật tăng dần (không ghi qua entity)
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long ratingSum;
+
+    @Column(name = "review_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long reviewCount;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
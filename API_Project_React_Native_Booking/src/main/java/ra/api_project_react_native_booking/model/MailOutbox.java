@@ -0,0 +1,58 @@
+package ra.api_project_react_native_booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import ra.api_project_react_native_booking.model.constants.MailStatus;
+
+import java.time.LocalDateTime;
+
+// Hàng đợi email bền vững: request chỉ ghi vào đây, MailOutboxDispatcher gửi nền
+@Entity
+@Table(name = "mail_outbox",
+        indexes = {
+                @Index(name = "idx_mail_outbox_status_next", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_mail_outbox_claim", columnList = "claim_token")
+        })
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class MailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String recipient;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(nullable = false)
+    private boolean html;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MailStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Lần gửi kế tiếp; khi đang SENDING thì là hạn lease, quá hạn coi như worker đã chết
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
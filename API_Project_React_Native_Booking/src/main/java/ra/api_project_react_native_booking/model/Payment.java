@@ -25,8 +25,9 @@ public class Payment {
     @JoinColumn(name = "booking_id", nullable = false)
     private Booking booking;
 
+    // null với thanh toán qua cổng ngoài (PayPal)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "card_id", nullable = false)
+    @JoinColumn(name = "card_id")
     private PaymentCard card;
 
     @Column(nullable = false, precision = 18, scale = 2)
@@ -45,6 +46,14 @@ public class Payment {
     @Column(length = 255)
     private String message;
 
+    // Số lần gọi cổng thanh toán bị lỗi, quá payment.processor.max-attempts thì FAILED
+    @Column(nullable = false)
+    private int attempts;
+
+    // PENDING: thời điểm được gửi / hỏi lại cổng thanh toán; cũng dùng làm lease khi một worker đang xử lý
+    @Column(name = "next_check_at")
+    private LocalDateTime nextCheckAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -43,6 +43,11 @@ public class PaymentCard {
     @Column(name = "is_default", nullable = false)
     private Boolean isDefault;
 
+    // Số dư chỉ đổi qua PaymentCardRepository.debit, version chặn ghi đè bằng entity cũ
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
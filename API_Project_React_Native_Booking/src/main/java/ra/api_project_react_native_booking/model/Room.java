@@ -11,7 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = @Index(name = "idx_rooms_created", columnList = "created_at, id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Room {
     @Id
@@ -64,6 +64,13 @@ public class Room {
     )
     private List<Amenity> amenities = new ArrayList<>();
 
+    // Tổng điểm và số review của phòng, do ReviewService cập nhật tăng dần (không ghi qua entity)
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long ratingSum;
+
+    @Column(name = "review_count", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long reviewCount;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,29 @@
+package ra.api_project_react_native_booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Mỗi đêm phòng bị chiếm là một dòng, unique (room_id, night_date) chặn bán trùng ở tầng database
+@Entity
+@Table(name = "room_nights",
+        uniqueConstraints = @UniqueConstraint(name = "uk_room_nights_room_night", columnNames = {"room_id", "night_date"}),
+        indexes = @Index(name = "idx_room_nights_booking", columnList = "booking_id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RoomNight {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id", nullable = false)
+    private Booking booking;
+
+    @Column(name = "night_date", nullable = false)
+    private LocalDate nightDate;
+}
@@ -0,0 +1,41 @@
+package ra.api_project_react_native_booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Giá theo mùa / dịp lễ của một phòng cho các đêm [startDate, endDate), thay cho giá gốc và giá giảm
+@Entity
+@Table(name = "room_rate_overrides",
+        indexes = @Index(name = "idx_room_rate_overrides_room_end", columnList = "room_id, end_date"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RoomRateOverride {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // Không tính đêm endDate, giống check-out
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+    @Column(length = 100)
+    private String name; // Tết, hè, ...
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
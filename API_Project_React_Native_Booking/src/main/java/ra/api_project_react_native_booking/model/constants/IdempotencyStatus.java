@@ -0,0 +1,6 @@
+package ra.api_project_react_native_booking.model.constants;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
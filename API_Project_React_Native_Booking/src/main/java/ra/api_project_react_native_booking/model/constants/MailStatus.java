@@ -0,0 +1,8 @@
+package ra.api_project_react_native_booking.model.constants;
+
+public enum MailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -4,6 +4,8 @@ public enum PaymentStatus {
     PENDING,
     COMPLETED,
     FAILED,
+    // Cổng đã trừ tiền nhưng booking không còn chờ thanh toán: chờ hoàn tiền
+    REFUND_REQUIRED,
     REFUNDED,
     CANCELLED
 }
\ No newline at end of file
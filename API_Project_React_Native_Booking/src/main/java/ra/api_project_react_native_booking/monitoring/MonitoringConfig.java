@@ -0,0 +1,23 @@
+package ra.api_project_react_native_booking.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MonitoringConfig {
+
+    @Bean
+    public SqlCountingInspector sqlCountingInspector() {
+        return new SqlCountingInspector();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlCountingCustomizer(SqlCountingInspector sqlCountingInspector) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlCountingInspector);
+            properties.put(AvailableSettings.INTERCEPTOR, sqlCountingInspector);
+        };
+    }
+}
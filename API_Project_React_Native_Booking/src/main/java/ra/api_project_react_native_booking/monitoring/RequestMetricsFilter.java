@@ -0,0 +1,96 @@
+package ra.api_project_react_native_booking.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo mọi request vào /api/**: thời gian xử lý, số câu SQL và số entity nạp, gắn tag theo route pattern
+ * (vd. /api/v1/rooms/{id}) để không nổ số lượng metric. Request chậm hơn ngưỡng được ghi log WARN.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String LATENCY = "api.request.latency";
+    static final String STATEMENTS = "api.request.sql.statements";
+    static final String ENTITIES = "api.request.sql.entities";
+    static final String UNMATCHED = "UNMATCHED";
+
+    private static final String API_PREFIX = "/api/";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowThreshold;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${monitoring.slow-request-threshold:1s}") Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RequestSqlStats.end();
+            record(request, response.getStatus(), stats, elapsed);
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, RequestSqlStats stats, long elapsedNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED;
+        Tags tags = Tags.of("method", request.getMethod(), "uri", route, "status", String.valueOf(status));
+
+        Timer.builder(LATENCY)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100),
+                        Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(STATEMENTS)
+                .tags(tags)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder(ENTITIES)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getEntitiesLoaded());
+
+        if (elapsedNanos >= slowThreshold.toNanos()) {
+            log.warn("Slow request {} {} ({}) -> {} in {} ms: {} SQL statements ({} SELECT), {} entities loaded",
+                    request.getMethod(), request.getRequestURI(), route, status,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    stats.getStatements(), stats.getSelects(), stats.getEntitiesLoaded());
+        }
+    }
+}
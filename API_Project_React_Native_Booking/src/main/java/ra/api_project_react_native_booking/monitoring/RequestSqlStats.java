@@ -0,0 +1,64 @@
+package ra.api_project_react_native_booking.monitoring;
+
+/**
+ * Bộ đếm SQL của request hiện tại, gắn vào thread xử lý request bởi RequestMetricsFilter.
+ * Code chạy ngoài request (scheduler, @Async, StreamingResponseBody) không có bộ đếm và bị bỏ qua.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int selects;
+    private int entitiesLoaded;
+
+    private RequestSqlStats() {
+    }
+
+    static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void onStatement(String sql) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            if (sql.regionMatches(true, skipWhitespace(sql), "select", 0, 6)) {
+                stats.selects++;
+            }
+        }
+    }
+
+    static void onEntityLoaded() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entitiesLoaded++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getSelects() {
+        return selects;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    private static int skipWhitespace(String sql) {
+        int i = 0;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
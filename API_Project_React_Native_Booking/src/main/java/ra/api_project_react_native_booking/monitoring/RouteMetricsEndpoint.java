@@ -0,0 +1,71 @@
+package ra.api_project_react_native_booking.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /actuator/routes: bảng tổng hợp theo route từ các metric của RequestMetricsFilter,
+ * route tốn nhiều thời gian nhất (tổng) đứng đầu.
+ */
+@Component
+@Endpoint(id = "routes")
+@RequiredArgsConstructor
+public class RouteMetricsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public List<Map<String, Object>> routes() {
+        List<Timer> timers = new ArrayList<>(meterRegistry.find(RequestMetricsFilter.LATENCY).timers());
+        timers.sort(Comparator.comparingDouble((Timer timer) -> timer.totalTime(TimeUnit.MILLISECONDS)).reversed());
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : timers) {
+            Meter.Id id = timer.getId();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("method", id.getTag("method"));
+            row.put("uri", id.getTag("uri"));
+            row.put("status", id.getTag("status"));
+
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            row.put("count", snapshot.count());
+            row.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            row.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                row.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+
+            DistributionSummary statements = summary(RequestMetricsFilter.STATEMENTS, id);
+            if (statements != null) {
+                row.put("sqlStatementsMean", statements.mean());
+                row.put("sqlStatementsMax", statements.max());
+            }
+            DistributionSummary entities = summary(RequestMetricsFilter.ENTITIES, id);
+            if (entities != null) {
+                row.put("entitiesLoadedMean", entities.mean());
+                row.put("entitiesLoadedMax", entities.max());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private DistributionSummary summary(String name, Meter.Id timerId) {
+        return meterRegistry.find(name).tags(timerId.getTags()).summary();
+    }
+}
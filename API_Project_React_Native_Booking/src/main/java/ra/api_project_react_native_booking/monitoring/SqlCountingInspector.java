@@ -0,0 +1,24 @@
+package ra.api_project_react_native_booking.monitoring;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Hook của Hibernate: StatementInspector đếm mọi câu SQL được prepare, Interceptor.onLoad đếm entity được nạp
+ * (xấp xỉ số dòng đọc về; query chỉ trả cột scalar không đi qua đây). Không giữ trạng thái, dùng chung cho mọi session.
+ */
+public class SqlCountingInspector implements StatementInspector, Interceptor {
+
+    @Override
+    public String inspect(String sql) {
+        RequestSqlStats.onStatement(sql);
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestSqlStats.onEntityLoaded();
+        return false;
+    }
+}
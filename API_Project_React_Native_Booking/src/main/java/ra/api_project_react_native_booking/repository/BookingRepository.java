@@ -3,13 +3,18 @@ package ra.api_project_react_native_booking.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ra.api_project_react_native_booking.model.Booking;
+import ra.api_project_react_native_booking.model.Payment;
 import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,20 +27,88 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // Tìm booking theo status
     Page<Booking> findByStatus(BookingStatus status, Pageable pageable);
 
+    // Keyset pagination theo (createdAt, id) giảm dần, không cần COUNT(*)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findFirstByUserIdSeek(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND " +
+            "(b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findByUserIdSeekAfter(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable limit);
+
+    // Các kỳ nghỉ sắp tới của user theo ngày nhận phòng (index user_id, status, check_in_date)
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status IN :statuses AND " +
+            "b.checkInDate >= :from ORDER BY b.checkInDate ASC, b.id ASC")
+    List<Booking> findUpcomingByUserId(@Param("userId") Long userId,
+                                       @Param("statuses") Collection<BookingStatus> statuses,
+                                       @Param("from") LocalDate from,
+                                       Pageable limit);
+
     // Tìm booking theo mã booking
     Optional<Booking> findByBookingCode(String bookingCode);
 
     // Tìm booking theo user và status
     Page<Booking> findByUserIdAndStatus(Long userId, BookingStatus status, Pageable pageable);
 
-    // Kiểm tra phòng có available trong khoảng thời gian
+    // Kiểm tra phòng có available trong khoảng thời gian (đêm tính theo [checkIn, checkOut))
     @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE " +
             "b.room.id = :roomId AND " +
-            "b.status IN ('CONFIRMED', 'CHECKED_IN') AND " +
-            "((b.checkInDate BETWEEN :checkIn AND :checkOut) OR " +
-            "(b.checkOutDate BETWEEN :checkIn AND :checkOut) OR " +
-            "(b.checkInDate <= :checkIn AND b.checkOutDate >= :checkOut))")
+            "b.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN') AND " +
+            "b.checkInDate < :checkOut AND b.checkOutDate > :checkIn")
     Boolean isRoomBooked(@Param("roomId") Long roomId,
                          @Param("checkIn") LocalDate checkIn,
                          @Param("checkOut") LocalDate checkOut);
-}
\ No newline at end of file
+
+    // Các khoảng ngày đang giữ phòng, dùng để nạp bitmap availability
+    @Query("SELECT b.room.id, b.checkInDate, b.checkOutDate FROM Booking b WHERE " +
+            "b.status IN :statuses AND b.checkOutDate > :from")
+    List<Object[]> findOccupiedRanges(@Param("statuses") Collection<BookingStatus> statuses,
+                                      @Param("from") LocalDate from);
+
+    @Query("SELECT b.checkInDate, b.checkOutDate FROM Booking b WHERE " +
+            "b.room.id = :roomId AND b.status IN :statuses AND b.checkOutDate > :from")
+    List<Object[]> findOccupiedRangesByRoomId(@Param("roomId") Long roomId,
+                                              @Param("statuses") Collection<BookingStatus> statuses,
+                                              @Param("from") LocalDate from);
+
+    // Gắn payment và đổi trạng thái chỉ khi booking còn ở trạng thái from; 0 nghĩa là request khác đã đổi trước
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to, b.payment = :payment, b.expiresAt = null, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status = :from")
+    int markPaid(@Param("id") Long id,
+                 @Param("payment") Payment payment,
+                 @Param("from") BookingStatus from,
+                 @Param("to") BookingStatus to,
+                 @Param("now") LocalDateTime now);
+
+    // Đổi trạng thái chỉ khi booking còn ở trạng thái from đã đọc trong cùng transaction; 0 nghĩa là request khác đã đổi trước
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to, b.updatedAt = :now WHERE b.id = :id AND b.status = :from")
+    int updateStatus(@Param("id") Long id,
+                     @Param("from") BookingStatus from,
+                     @Param("to") BookingStatus to,
+                     @Param("now") LocalDateTime now);
+
+    // Booking quá hạn giữ phòng (index status, expires_at), bỏ qua booking còn payment đang chờ cổng thanh toán
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.expiresAt <= :now AND NOT EXISTS " +
+            "(SELECT p.id FROM Payment p WHERE p.booking = b AND p.status = :paymentStatus) ORDER BY b.expiresAt ASC")
+    List<Long> findExpiredHoldIds(@Param("status") BookingStatus status,
+                                  @Param("paymentStatus") PaymentStatus paymentStatus,
+                                  @Param("now") LocalDateTime now,
+                                  Pageable limit);
+
+    // Huỷ hold chỉ khi vẫn còn ở trạng thái from và đã quá hạn; 0 nghĩa là booking vừa được thanh toán / đổi trạng thái
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to, b.cancellationReason = :reason, b.expiresAt = null, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status = :from AND b.expiresAt <= :now AND NOT EXISTS " +
+            "(SELECT p.id FROM Payment p WHERE p.booking.id = :id AND p.status = :paymentStatus)")
+    int expireHold(@Param("id") Long id,
+                   @Param("from") BookingStatus from,
+                   @Param("to") BookingStatus to,
+                   @Param("reason") String reason,
+                   @Param("paymentStatus") PaymentStatus paymentStatus,
+                   @Param("now") LocalDateTime now);
+}
@@ -3,12 +3,15 @@ package ra.api_project_react_native_booking.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.projection.RatingAggregate;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
@@ -32,6 +35,16 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
             "LOWER(h.country) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Hotel> searchHotels(@Param("keyword") String keyword);
 
+    // Lọc theo khoảng số sao và tiền tố thành phố, phân trang trong database (index city, star_rating)
+    @Query("SELECT h FROM Hotel h WHERE " +
+            "(:city IS NULL OR h.city LIKE CONCAT(:city, '%')) AND " +
+            "(:minRating IS NULL OR h.starRating >= :minRating) AND " +
+            "(:maxRating IS NULL OR h.starRating <= :maxRating)")
+    Page<Hotel> filterHotels(@Param("city") String city,
+                             @Param("minRating") Integer minRating,
+                             @Param("maxRating") Integer maxRating,
+                             Pageable pageable);
+
     // Tìm khách sạn theo số sao
     Page<Hotel> findByStarRatingGreaterThanEqual(Integer minRating, Pageable pageable);
 
@@ -40,4 +53,22 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
     Page<Hotel> findByCityAndMinRating(@Param("city") String city,
                                        @Param("minRating") Integer minRating,
                                        Pageable pageable);
-}
\ No newline at end of file
+
+    // Cộng dồn tổng điểm / số review khi review thay đổi
+    @Modifying
+    @Query(value = "UPDATE hotels SET rating_sum = rating_sum + :ratingDelta, review_count = review_count + :countDelta " +
+            "WHERE id = :hotelId", nativeQuery = true)
+    int applyRatingDelta(@Param("hotelId") Long hotelId,
+                         @Param("ratingDelta") long ratingDelta,
+                         @Param("countDelta") long countDelta);
+
+    @Query("SELECT h.ratingSum AS ratingSum, h.reviewCount AS reviewCount FROM Hotel h WHERE h.id = :hotelId")
+    Optional<RatingAggregate> findRatingAggregateById(@Param("hotelId") Long hotelId);
+
+    // Tính lại toàn bộ từ bảng reviews (job đối soát)
+    @Modifying
+    @Query(value = "UPDATE hotels t SET " +
+            "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.hotel_id = t.id), " +
+            "review_count = (SELECT COUNT(*) FROM reviews r WHERE r.hotel_id = t.id)", nativeQuery = true)
+    int reconcileRatingAggregates();
+}
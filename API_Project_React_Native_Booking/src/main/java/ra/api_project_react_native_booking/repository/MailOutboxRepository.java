@@ -0,0 +1,58 @@
+package ra.api_project_react_native_booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.api_project_react_native_booking.model.MailOutbox;
+import ra.api_project_react_native_booking.model.constants.MailStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    // Email đến hạn gửi (PENDING) hoặc bị bỏ dở (SENDING quá hạn lease)
+    @Query("SELECT m.id FROM MailOutbox m WHERE m.status IN :statuses AND m.nextAttemptAt <= :now " +
+            "ORDER BY m.nextAttemptAt, m.id")
+    List<Long> findDueIds(@Param("statuses") Collection<MailStatus> statuses,
+                          @Param("now") LocalDateTime now,
+                          Pageable limit);
+
+    // Nhận việc có điều kiện: nhiều instance cùng quét thì mỗi dòng chỉ một bên nhận được
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = ra.api_project_react_native_booking.model.constants.MailStatus.SENDING, " +
+            "m.claimToken = :token, m.nextAttemptAt = :leaseUntil " +
+            "WHERE m.id IN :ids AND m.status IN :statuses AND m.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("statuses") Collection<MailStatus> statuses,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<MailOutbox> findByClaimToken(String claimToken);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = ra.api_project_react_native_booking.model.constants.MailStatus.SENT, " +
+            "m.sentAt = :sentAt, m.claimToken = null, m.lastError = null " +
+            "WHERE m.id IN :ids AND m.claimToken = :token")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("token") String token,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, " +
+            "m.lastError = :error, m.claimToken = null WHERE m.id = :id AND m.claimToken = :token")
+    int markFailed(@Param("id") Long id,
+                   @Param("token") String token,
+                   @Param("status") MailStatus status,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    long countByStatus(MailStatus status);
+}
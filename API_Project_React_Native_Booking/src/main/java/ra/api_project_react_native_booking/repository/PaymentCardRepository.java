@@ -1,10 +1,15 @@
 package ra.api_project_react_native_booking.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ra.api_project_react_native_booking.model.PaymentCard;
 import ra.api_project_react_native_booking.model.User;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +18,17 @@ public interface PaymentCardRepository extends JpaRepository<PaymentCard, Long>
 	List<PaymentCard> findByUserIdOrderByIsDefaultDescIdDesc(Long userId);
 	Optional<PaymentCard> findByIdAndUserId(Long id, Long userId);
 	long countByUserId(Long userId);
-}
 
+	// Trừ tiền nguyên tử, không cần đọc trước: 0 dòng nghĩa là số dư không đủ. Tăng version để
+	// entity PaymentCard đang giữ số dư cũ (vd. updateCard) không ghi đè lên được
+	@Modifying
+	@Query("UPDATE PaymentCard c SET c.balance = c.balance - :amount, c.version = c.version + 1, c.updatedAt = :now " +
+			"WHERE c.id = :id AND c.balance >= :amount")
+	int debit(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
 
+	// Bỏ cờ mặc định của các thẻ khác trong một câu UPDATE, thẻ keepId không bị đụng tới
+	@Modifying
+	@Query("UPDATE PaymentCard c SET c.isDefault = false, c.version = c.version + 1, c.updatedAt = :now " +
+			"WHERE c.user.id = :userId AND c.isDefault = true AND c.id <> :keepId")
+	int unsetDefaultExcept(@Param("userId") Long userId, @Param("keepId") Long keepId, @Param("now") LocalDateTime now);
+}
@@ -1,11 +1,17 @@
 package ra.api_project_react_native_booking.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ra.api_project_react_native_booking.dto.response.PaymentResponse;
 import ra.api_project_react_native_booking.model.Payment;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +29,76 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 		@Param("bookingId") Long bookingId, 
 		@Param("status") ra.api_project_react_native_booking.model.constants.PaymentStatus status
 	);
+
+	// Read model cho lịch sử thanh toán: dựng PaymentResponse ngay trong một câu SELECT, không nạp entity / proxy.
+	// LEFT JOIN thẻ để payment không gắn thẻ vẫn hiện ra
+	String RESPONSE_SELECT = "SELECT new ra.api_project_react_native_booking.dto.response.PaymentResponse(" +
+			"p.id, p.user.id, b.id, b.bookingCode, c.id, c.cardNumber, c.cardBrand, " +
+			"p.amount, p.currency, p.status, p.message, p.createdAt, p.updatedAt) " +
+			"FROM Payment p JOIN p.booking b LEFT JOIN p.card c ";
+
+	@Query(RESPONSE_SELECT + "WHERE p.user.id = :userId ORDER BY p.id DESC")
+	List<PaymentResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+	// Keyset theo id, đi index (user_id, id)
+	@Query(RESPONSE_SELECT + "WHERE p.user.id = :userId ORDER BY p.id DESC")
+	List<PaymentResponse> findFirstResponsesByUserIdSeek(@Param("userId") Long userId, Pageable limit);
+
+	@Query(RESPONSE_SELECT + "WHERE p.user.id = :userId AND p.id < :afterId ORDER BY p.id DESC")
+	List<PaymentResponse> findResponsesByUserIdSeekAfter(@Param("userId") Long userId,
+													 @Param("afterId") Long afterId,
+													 Pageable limit);
+
+	@Query(RESPONSE_SELECT + "WHERE b.id = :bookingId ORDER BY p.id DESC")
+	List<PaymentResponse> findResponsesByBookingId(@Param("bookingId") Long bookingId, Pageable limit);
+
+	Optional<Payment> findFirstByBooking_IdAndStatusOrderByIdDesc(Long bookingId, PaymentStatus status);
+
+	List<Payment> findByProviderRefIn(Collection<String> providerRefs);
+
+	// ===== Pipeline cổng thanh toán (PaymentProcessor) =====
+
+	@Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.nextCheckAt <= :now ORDER BY p.nextCheckAt")
+	List<Long> findDueIds(@Param("status") PaymentStatus status, @Param("now") LocalDateTime now, Pageable limit);
+
+	// Nhận việc bằng cách đẩy nextCheckAt tới leaseUntil; dòng đã bị worker khác nhận thì không khớp điều kiện
+	@Modifying
+	@Query("UPDATE Payment p SET p.nextCheckAt = :leaseUntil WHERE p.id IN :ids AND p.status = :status " +
+			"AND p.nextCheckAt <= :now")
+	int claim(@Param("ids") Collection<Long> ids,
+			  @Param("status") PaymentStatus status,
+			  @Param("now") LocalDateTime now,
+			  @Param("leaseUntil") LocalDateTime leaseUntil);
+
+	@Query("SELECT p FROM Payment p WHERE p.id IN :ids AND p.nextCheckAt = :leaseUntil")
+	List<Payment> findClaimed(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+	// Chốt kết quả đúng một lần dù callback và polling cùng tới
+	@Modifying
+	@Query("UPDATE Payment p SET p.status = :to, p.providerRef = :providerRef, p.message = :message, " +
+			"p.nextCheckAt = null, p.updatedAt = :now WHERE p.id = :id AND p.status = :from")
+	int settle(@Param("id") Long id,
+			   @Param("from") PaymentStatus from,
+			   @Param("to") PaymentStatus to,
+			   @Param("providerRef") String providerRef,
+			   @Param("message") String message,
+			   @Param("now") LocalDateTime now);
+
+	@Modifying
+	@Query("UPDATE Payment p SET p.providerRef = :providerRef, p.nextCheckAt = :nextCheckAt, p.updatedAt = :now " +
+			"WHERE p.id = :id AND p.status = :status")
+	int awaitProvider(@Param("id") Long id,
+					  @Param("status") PaymentStatus status,
+					  @Param("providerRef") String providerRef,
+					  @Param("nextCheckAt") LocalDateTime nextCheckAt,
+					  @Param("now") LocalDateTime now);
+
+	@Modifying
+	@Query("UPDATE Payment p SET p.attempts = p.attempts + 1, p.message = :message, p.nextCheckAt = :nextCheckAt, " +
+			"p.updatedAt = :now WHERE p.id = :id AND p.status = :status")
+	int recordFailure(@Param("id") Long id,
+					  @Param("status") PaymentStatus status,
+					  @Param("message") String message,
+					  @Param("nextCheckAt") LocalDateTime nextCheckAt,
+					  @Param("now") LocalDateTime now);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ra.api_project_react_native_booking.model.Review;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -19,17 +20,32 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     // Tìm review theo khách sạn
     Page<Review> findByHotelId(Long hotelId, Pageable pageable);
 
+    // Keyset pagination theo (createdAt, id) giảm dần, không cần COUNT(*)
+    @Query("SELECT r FROM Review r WHERE r.room.id = :roomId ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findFirstByRoomIdSeek(@Param("roomId") Long roomId, Pageable limit);
+
+    @Query("SELECT r FROM Review r WHERE r.room.id = :roomId AND " +
+            "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findByRoomIdSeekAfter(@Param("roomId") Long roomId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable limit);
+
+    @Query("SELECT r FROM Review r WHERE r.hotel.id = :hotelId ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findFirstByHotelIdSeek(@Param("hotelId") Long hotelId, Pageable limit);
+
+    @Query("SELECT r FROM Review r WHERE r.hotel.id = :hotelId AND " +
+            "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findByHotelIdSeekAfter(@Param("hotelId") Long hotelId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable limit);
+
     // Tìm review theo user
     Page<Review> findByUserId(Long userId, Pageable pageable);
 
-    // Tính rating trung bình của phòng
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.room.id = :roomId")
-    Double findAverageRatingByRoomId(@Param("roomId") Long roomId);
-
-    // Tính rating trung bình của khách sạn
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.hotel.id = :hotelId")
-    Double findAverageRatingByHotelId(@Param("hotelId") Long hotelId);
-
     // Lấy review mới nhất
     List<Review> findTop5ByRoomIdOrderByCreatedAtDesc(Long roomId);
 }
\ No newline at end of file
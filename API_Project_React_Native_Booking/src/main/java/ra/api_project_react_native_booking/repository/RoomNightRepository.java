@@ -0,0 +1,19 @@
+package ra.api_project_react_native_booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.api_project_react_native_booking.model.RoomNight;
+
+@Repository
+public interface RoomNightRepository extends JpaRepository<RoomNight, Long> {
+
+    // Nhả các đêm của booking khi huỷ / trả phòng
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.booking.id = :bookingId")
+    int deleteByBookingId(@Param("bookingId") Long bookingId);
+
+    long countByRoomId(Long roomId);
+}
@@ -0,0 +1,25 @@
+package ra.api_project_react_native_booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.api_project_react_native_booking.model.RoomRateOverride;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RoomRateOverrideRepository extends JpaRepository<RoomRateOverride, Long> {
+
+    // [roomId, startDate, endDate, price] còn hiệu lực từ ngày from; theo id để override tạo sau đè lên override trước
+    @Query("SELECT o.room.id, o.startDate, o.endDate, o.price FROM RoomRateOverride o " +
+            "WHERE o.endDate > :from ORDER BY o.id")
+    List<Object[]> findActiveRates(@Param("from") LocalDate from);
+
+    @Query("SELECT o.room.id, o.startDate, o.endDate, o.price FROM RoomRateOverride o " +
+            "WHERE o.room.id = :roomId AND o.endDate > :from AND o.startDate < :to ORDER BY o.id")
+    List<Object[]> findRatesByRoomId(@Param("roomId") Long roomId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+}
@@ -2,23 +2,44 @@ package ra.api_project_react_native_booking.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ra.api_project_react_native_booking.model.Room;
+import ra.api_project_react_native_booking.repository.projection.RatingAggregate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
+    // roomType là ManyToOne nên fetch join cùng trang mà không ảnh hưởng phân trang
+    @Override
+    @EntityGraph(attributePaths = "roomType")
+    Page<Room> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "roomType")
+    Optional<Room> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "roomType")
+    List<Room> findAllById(Iterable<Long> ids);
+
     // Tìm phòng theo khách sạn
+    @EntityGraph(attributePaths = "roomType")
     Page<Room> findByHotelId(Long hotelId, Pageable pageable);
 
     // Tìm phòng theo trạng thái available
+    @EntityGraph(attributePaths = "roomType")
     Page<Room> findByIsAvailable(Boolean isAvailable, Pageable pageable);
 
     // Tìm phòng theo khoảng giá
@@ -30,17 +51,44 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     // Tìm phòng theo loại phòng
     Page<Room> findByRoomTypeId(Long roomTypeId, Pageable pageable);
 
-    // Tìm phòng available trong khoảng thời gian
+    // Tìm phòng available trong khoảng thời gian (đêm tính theo [checkIn, checkOut))
     @Query("SELECT r FROM Room r WHERE r.id NOT IN " +
             "(SELECT b.room.id FROM Booking b WHERE " +
-            "b.status IN ('CONFIRMED', 'CHECKED_IN') AND " +
-            "((b.checkInDate BETWEEN :checkIn AND :checkOut) OR " +
-            "(b.checkOutDate BETWEEN :checkIn AND :checkOut) OR " +
-            "(b.checkInDate <= :checkIn AND b.checkOutDate >= :checkOut))) " +
-            "AND r.isAvailable = true")
+            "b.status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN') AND " +
+            "b.checkInDate < :checkOut AND b.checkOutDate > :checkIn) " +
+            "AND r.isAvailable = true ORDER BY r.id")
+    @EntityGraph(attributePaths = "roomType")
     List<Room> findAvailableRooms(@Param("checkIn") LocalDate checkIn,
                                   @Param("checkOut") LocalDate checkOut);
 
+    // Keyset pagination theo (createdAt, id) giảm dần, không cần COUNT(*)
+    @Query("SELECT r FROM Room r ORDER BY r.createdAt DESC, r.id DESC")
+    @EntityGraph(attributePaths = "roomType")
+    List<Room> findFirstSeek(Pageable limit);
+
+    @Query("SELECT r FROM Room r WHERE r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    @EntityGraph(attributePaths = "roomType")
+    List<Room> findSeekAfter(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             Pageable limit);
+
+    // Id các phòng đang mở bán, đọc mỗi lần tìm phòng trống để bật / tắt phòng có hiệu lực ngay
+    @Query("SELECT r.id FROM Room r WHERE r.isAvailable = true ORDER BY r.id")
+    List<Long> findAvailableRoomIds();
+
+    // Giữ nguyên thứ tự id thay vì thứ tự không xác định của findAllById
+    @Query("SELECT r FROM Room r WHERE r.id IN :ids ORDER BY r.id")
+    @EntityGraph(attributePaths = "roomType")
+    List<Room> findAllByIdInOrderById(@Param("ids") Collection<Long> ids);
+
+    // [roomId, price, discountPrice] để biên dịch lịch giá
+    @Query("SELECT r.id, r.price, r.discountPrice FROM Room r")
+    List<Object[]> findBaseRates();
+
+    @Query("SELECT r.id, r.price, r.discountPrice FROM Room r WHERE r.id = :id")
+    List<Object[]> findBaseRateById(@Param("id") Long id);
+
     // Tìm kiếm và lọc phòng nâng cao
     @Query("SELECT r FROM Room r WHERE " +
             "(:hotelId IS NULL OR r.hotel.id = :hotelId) AND " +
@@ -49,10 +97,41 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
             "(:maxPrice IS NULL OR r.price <= :maxPrice) AND " +
             "(:minCapacity IS NULL OR r.capacity >= :minCapacity) AND " +
             "r.isAvailable = true")
+    @EntityGraph(attributePaths = "roomType")
     Page<Room> searchRooms(@Param("hotelId") Long hotelId,
                            @Param("roomTypeId") Long roomTypeId,
                            @Param("minPrice") BigDecimal minPrice,
                            @Param("maxPrice") BigDecimal maxPrice,
                            @Param("minCapacity") Integer minCapacity,
                            Pageable pageable);
-}
\ No newline at end of file
+
+    // [roomId, hotelId] cho các phòng cần đẩy thay đổi tình trạng trống
+    @Query("SELECT r.id, r.hotel.id FROM Room r WHERE r.id IN :roomIds")
+    List<Object[]> findHotelIdsByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    // Batch loader: ảnh của cả một trang phòng trong một query
+    @Query("SELECT i.room.id, i FROM RoomImage i WHERE i.room.id IN :roomIds ORDER BY i.id")
+    List<Object[]> findImagesByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    // Batch loader: tiện ích của cả một trang phòng trong một query
+    @Query("SELECT r.id, a FROM Room r JOIN r.amenities a WHERE r.id IN :roomIds ORDER BY a.id")
+    List<Object[]> findAmenitiesByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    // Cộng dồn tổng điểm / số review khi review thay đổi
+    @Modifying
+    @Query(value = "UPDATE rooms SET rating_sum = rating_sum + :ratingDelta, review_count = review_count + :countDelta " +
+            "WHERE id = :roomId", nativeQuery = true)
+    int applyRatingDelta(@Param("roomId") Long roomId,
+                         @Param("ratingDelta") long ratingDelta,
+                         @Param("countDelta") long countDelta);
+
+    @Query("SELECT r.ratingSum AS ratingSum, r.reviewCount AS reviewCount FROM Room r WHERE r.id = :roomId")
+    Optional<RatingAggregate> findRatingAggregateById(@Param("roomId") Long roomId);
+
+    // Tính lại toàn bộ từ bảng reviews (job đối soát)
+    @Modifying
+    @Query(value = "UPDATE rooms t SET " +
+            "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.room_id = t.id), " +
+            "review_count = (SELECT COUNT(*) FROM reviews r WHERE r.room_id = t.id)", nativeQuery = true)
+    int reconcileRatingAggregates();
+}
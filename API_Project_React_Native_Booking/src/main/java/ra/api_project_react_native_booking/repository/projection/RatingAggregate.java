@@ -0,0 +1,14 @@
+package ra.api_project_react_native_booking.repository.projection;
+
+public interface RatingAggregate {
+    Long getRatingSum();
+    Long getReviewCount();
+
+    default Double getAverageRating() {
+        Long count = getReviewCount();
+        if (count == null || count == 0) {
+            return 0.0;
+        }
+        return getRatingSum() / (double) count;
+    }
+}
@@ -1,5 +1,6 @@
 package ra.api_project_react_native_booking.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,9 +10,10 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ra.api_project_react_native_booking.security.principal.CustomUserDetailsService;
+import ra.api_project_react_native_booking.security.principal.PrincipalCache;
 
 import java.io.IOException;
 
@@ -20,7 +22,9 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     @Autowired
     private JWTProvider jwtProvider;
     @Autowired
-    UserDetailsService userDetailsService;
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private PrincipalCache principalCache;
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -55,11 +59,11 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String token = getTokenFromRequest(request);
-        // Chỉ xử lý token nếu có và hợp lệ
-        if (token != null && jwtProvider.validateToken(token)) {
+        // Chỉ xử lý token nếu có và hợp lệ (parse một lần, lấy luôn claims)
+        Claims claims = token != null ? jwtProvider.parseClaims(token) : null;
+        if (claims != null) {
             try {
-                String username = jwtProvider.getUsernameFromToken(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = principalCache.get(claims.getSubject(), userDetailsService::loadUserBySubject);
                 Authentication authen = new UsernamePasswordAuthenticationToken(userDetails, null,
                         userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authen);
@@ -1,6 +1,7 @@
 package ra.api_project_react_native_booking.security.jwt;
 
 import io.jsonwebtoken.*;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -18,6 +19,8 @@ public class JWTProvider {
     private int jwtExpire;
     @Value("${jwt_refresh}")
     private int jwtRefresh;
+    // Parser dựng một lần và dùng lại (thread-safe)
+    private JwtParser jwtParser;
 
     public String generateToken(String username) {
         Date now = new Date();
@@ -51,10 +54,17 @@ public class JWTProvider {
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    @PostConstruct
+    public void init() {
+        jwtParser = Jwts.parserBuilder().setSigningKey(jwtSecret).build();
+    }
+
+    /**
+     * Parse và xác thực token một lần, trả về claims; null nếu token không hợp lệ
+     */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             log.error("JWT token expired!");
         } catch (UnsupportedJwtException e) {
@@ -66,15 +76,20 @@ public class JWTProvider {
         } catch (IllegalArgumentException e) {
             log.error("JWT token argument error!");
         }
-        return false;
+        return null;
+    }
+
+    public boolean validateToken(String token) {
+        return parseClaims(token) != null;
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public String refreshToken(String token, String username) {
-        if (validateToken(token) && getUsernameFromToken(token).equals(username)) {
+        Claims claims = parseClaims(token);
+        if (claims != null && username.equals(claims.getSubject())) {
             Date now = new Date();
             return Jwts.builder()
                     .setSubject(username)
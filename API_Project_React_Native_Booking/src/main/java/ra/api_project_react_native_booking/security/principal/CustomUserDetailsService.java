@@ -20,7 +20,22 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Không tồn tại email: " + email));
 
+        return toPrincipal(user);
+    }
+
+    // Subject của token đăng nhập là userId, token cũ dùng email
+    public UserDetails loadUserBySubject(String subject) throws UsernameNotFoundException {
+        if (subject != null && !subject.isEmpty() && subject.chars().allMatch(Character::isDigit)) {
+            User user = userRepository.findById(Long.valueOf(subject))
+                    .orElseThrow(() -> new UsernameNotFoundException("Không tồn tại user: " + subject));
+            return toPrincipal(user);
+        }
+        return loadUserByUsername(subject);
+    }
+
+    private UserDetails toPrincipal(User user) {
         return CustomUserPrincipal.builder()
+                .id(user.getId())
                 .password(user.getPassword())
                 .fullName(user.getFullName())
                 .email(user.getEmail())
@@ -0,0 +1,38 @@
+package ra.api_project_react_native_booking.security.principal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import ra.api_project_react_native_booking.model.User;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache principal theo subject của JWT để JWTAuthFilter không phải SELECT users mỗi request.
+ * Giới hạn kích thước + TTL; phải gọi invalidate khi user đổi mật khẩu hoặc thông tin cá nhân.
+ */
+@Component
+public class PrincipalCache {
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public UserDetails get(String subject, Function<String, UserDetails> loader) {
+        return cache.get(subject, loader);
+    }
+
+    // Subject có thể là userId (token đăng nhập) hoặc email (token cũ) nên xoá cả hai
+    public void invalidate(User user) {
+        cache.invalidate(String.valueOf(user.getId()));
+        cache.invalidate(user.getEmail());
+    }
+}
@@ -1,32 +1,72 @@
 package ra.api_project_react_native_booking.service.Impl;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ra.api_project_react_native_booking.dto.request.BookingRequest;
 import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+import ra.api_project_react_native_booking.event.BookingChangedEvent;
 import ra.api_project_react_native_booking.model.Booking;
 import ra.api_project_react_native_booking.model.Room;
+import ra.api_project_react_native_booking.model.RoomNight;
 import ra.api_project_react_native_booking.model.User;
 import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
 import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.RoomNightRepository;
 import ra.api_project_react_native_booking.repository.RoomRepository;
 import ra.api_project_react_native_booking.repository.UserRepository;
 import ra.api_project_react_native_booking.service.interfaces.BookingService;
+import ra.api_project_react_native_booking.service.interfaces.PricingService;
+import ra.api_project_react_native_booking.service.interfaces.RoomAvailabilityService;
 
 import java.math.BigDecimal;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    // Booking sắp tới hiển thị ở màn hình chính
+    private static final List<BookingStatus> UPCOMING_STATUSES = List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+    private static final int MAX_UPCOMING_LIMIT = 100;
+    private static final String HOLD_EXPIRED_REASON = "Hết thời gian giữ phòng chờ thanh toán";
+
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
+    private final RoomAvailabilityService roomAvailabilityService;
+    private final RoomNightRepository roomNightRepository;
+    private final RoomLockStripes roomLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PricingService pricingService;
+
+    // Booking PENDING giữ phòng tối đa holdTtl; quá hạn mà chưa thanh toán thì job huỷ và nhả đêm
+    @Value("${booking.hold-ttl:15m}")
+    private Duration holdTtl = Duration.ofMinutes(15);
+
+    @Value("${booking.hold-expiry-batch-size:100}")
+    private int holdExpiryBatchSize = 100;
 
     @Override
     public BookingResponse createBooking(BookingRequest bookingRequest, Long userId) {
@@ -36,14 +76,14 @@ public class BookingServiceImpl implements BookingService {
         Room room = roomRepository.findById(bookingRequest.getRoomId())
                 .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        // Check room availability
-        if (bookingRepository.isRoomBooked(room.getId(), bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate())) {
-            throw new RuntimeException("Room is not available for the selected dates");
+        if (bookingRequest.getCheckInDate() == null || bookingRequest.getCheckOutDate() == null ||
+                !bookingRequest.getCheckOutDate().isAfter(bookingRequest.getCheckInDate())) {
+            throw new RuntimeException("Check-out date must be after check-in date");
         }
 
-        // Calculate total price
-        long nights = ChronoUnit.DAYS.between(bookingRequest.getCheckInDate(), bookingRequest.getCheckOutDate());
-        BigDecimal totalPrice = room.getPrice().multiply(BigDecimal.valueOf(nights));
+        // Giá theo lịch giá của phòng, cùng con số với /rooms/{id}/quote
+        BigDecimal totalPrice = pricingService.quote(room.getId(), bookingRequest.getCheckInDate(),
+                bookingRequest.getCheckOutDate()).getTotalPrice();
 
         Booking booking = Booking.builder()
                 .bookingCode(generateBookingCode())
@@ -54,10 +94,24 @@ public class BookingServiceImpl implements BookingService {
                 .guests(bookingRequest.getGuests())
                 .totalPrice(totalPrice)
                 .status(BookingStatus.PENDING)
+                .expiresAt(LocalDateTime.now().plus(holdTtl))
                 .specialRequests(bookingRequest.getSpecialRequests())
                 .build();
 
-        Booking savedBooking = bookingRepository.save(booking);
+        // Kiểm tra + ghi nằm trong khoá của phòng và commit trước khi nhả khoá
+        Booking savedBooking = roomLockStripes.withRoomLock(room.getId(), () -> {
+            Booking saved = inBookingTransaction(() -> {
+                // Check room availability
+                if (roomAvailabilityService.isRoomBooked(room.getId(), booking.getCheckInDate(), booking.getCheckOutDate())) {
+                    throw new RuntimeException("Room is not available for the selected dates");
+                }
+                Booking created = bookingRepository.save(booking);
+                reserveNights(created);
+                return created;
+            });
+            afterBookingChanged(saved);
+            return saved;
+        });
         return convertToBookingResponse(savedBooking);
     }
 
@@ -89,31 +143,144 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public BookingResponse updateBookingStatus(Long bookingId, BookingStatus status) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
-        booking.setStatus(status);
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = changeStatus(bookingId, status, booking -> { });
         return convertToBookingResponse(updatedBooking);
     }
 
     @Override
     public BookingResponse cancelBooking(Long bookingId, String reason) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
-        booking.setStatus(BookingStatus.CANCELLED);
-        booking.setCancellationReason(reason);
-        Booking cancelledBooking = bookingRepository.save(booking);
+        Booking cancelledBooking = changeStatus(bookingId, BookingStatus.CANCELLED,
+                booking -> booking.setCancellationReason(reason));
         return convertToBookingResponse(cancelledBooking);
     }
 
     @Override
-    public List<BookingResponse> getUserBookings(Long userId) {
-        return bookingRepository.findByUserId(userId, Pageable.unpaged())
+    public List<BookingResponse> getUpcomingBookings(Long userId, LocalDate from, int limit) {
+        LocalDate fromDate = from != null ? from : LocalDate.now();
+        int pageSize = Math.max(1, Math.min(limit, MAX_UPCOMING_LIMIT));
+        return bookingRepository.findUpcomingByUserId(userId, UPCOMING_STATUSES, fromDate, PageRequest.of(0, pageSize))
+                .stream()
                 .map(this::convertToBookingResponse)
-                .getContent();
+                .toList();
+    }
+
+    // Mỗi trang một transaction ngắn; export đi qua từng trang nên không giữ kết nối suốt lượt tải
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookingResponse> getBookingsByUserCursor(Long userId, String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Booking> bookings = after == null
+                ? bookingRepository.findFirstByUserIdSeek(userId, SeekCursor.limit(size))
+                : bookingRepository.findByUserIdSeekAfter(userId, after.createdAt(), after.id(), SeekCursor.limit(size));
+        return SeekCursor.toPage(bookings, size, Booking::getCreatedAt, Booking::getId,
+                page -> page.stream().map(this::convertToBookingResponse).toList());
+    }
+
+    // Huỷ các booking PENDING quá hạn giữ phòng, nhả room_nights và bitmap; trả về số booking đã huỷ
+    @Scheduled(fixedDelayString = "${booking.hold-expiry-interval:60000}",
+            initialDelayString = "${booking.hold-expiry-interval:60000}")
+    @Override
+    public int expireStaleHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (Long bookingId : bookingRepository.findExpiredHoldIds(BookingStatus.PENDING, PaymentStatus.PENDING, now,
+                PageRequest.of(0, Math.max(1, holdExpiryBatchSize)))) {
+            // UPDATE có điều kiện: booking vừa được thanh toán trong lúc quét thì bỏ qua
+            Booking cancelled = transactionTemplate.execute(status -> {
+                if (bookingRepository.expireHold(bookingId, BookingStatus.PENDING, BookingStatus.CANCELLED,
+                        HOLD_EXPIRED_REASON, PaymentStatus.PENDING, now) == 0) {
+                    return null;
+                }
+                roomNightRepository.deleteByBookingId(bookingId);
+                return bookingRepository.findById(bookingId).orElse(null);
+            });
+            if (cancelled != null) {
+                afterBookingChanged(cancelled);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Released {} booking holds that were not paid in time", expired);
+        }
+        return expired;
+    }
+
+    // Đổi trạng thái và đồng bộ room_nights: nhả đêm khi booking thôi giữ phòng, chiếm lại (có khoá) khi giữ phòng trở lại.
+    // Trạng thái cũ được đọc lại trong transaction (sau khi đã giữ khoá phòng) và chốt bằng UPDATE có điều kiện,
+    // nên hai request đổi trạng thái cùng lúc không dựa trên cùng một trạng thái cũ
+    private Booking changeStatus(Long bookingId, BookingStatus status, Consumer<Booking> changes) {
+        Long roomId = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"))
+                .getRoom().getId();
+        boolean occupying = isOccupying(status);
+
+        Supplier<Booking> update = () -> {
+            Booking saved = inBookingTransaction(() -> {
+                Booking booking = bookingRepository.findById(bookingId)
+                        .orElseThrow(() -> new RuntimeException("Booking not found"));
+                BookingStatus previous = booking.getStatus();
+                boolean wasOccupying = isOccupying(previous);
+                if (!wasOccupying && occupying && roomAvailabilityService.isRoomBooked(
+                        roomId, booking.getCheckInDate(), booking.getCheckOutDate())) {
+                    throw new RuntimeException("Room is not available for the selected dates");
+                }
+                if (bookingRepository.updateStatus(bookingId, previous, status, LocalDateTime.now()) == 0) {
+                    throw new RuntimeException("Booking status was changed by another request, please retry");
+                }
+                booking.setStatus(status);
+                if (status != BookingStatus.PENDING) {
+                    booking.setExpiresAt(null);
+                } else if (booking.getExpiresAt() == null) {
+                    booking.setExpiresAt(LocalDateTime.now().plus(holdTtl));
+                }
+                changes.accept(booking);
+                Booking updated = bookingRepository.save(booking);
+                if (wasOccupying && !occupying) {
+                    roomNightRepository.deleteByBookingId(updated.getId());
+                } else if (!wasOccupying && occupying) {
+                    reserveNights(updated);
+                }
+                return updated;
+            });
+            afterBookingChanged(saved);
+            return saved;
+        };
+        // Chiếm đêm cần khoá phòng; trạng thái cũ chỉ biết chắc bên trong transaction nên khoá theo trạng thái đích
+        return occupying ? roomLockStripes.withRoomLock(roomId, update) : update.get();
+    }
+
+    // Cập nhật bitmap rồi báo cho các client đang theo dõi phòng (socket /availability)
+    private void afterBookingChanged(Booking booking) {
+        roomAvailabilityService.onBookingChanged(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(booking.getId(), booking.getRoom().getId(),
+                booking.getCheckInDate(), booking.getCheckOutDate(), isOccupying(booking.getStatus())));
+    }
+
+    private boolean isOccupying(BookingStatus status) {
+        return RoomAvailabilityServiceImpl.OCCUPYING_STATUSES.contains(status);
+    }
+
+    // Mỗi đêm [checkIn, checkOut) một dòng; unique (room_id, night_date) là chốt chặn cuối nếu chạy nhiều instance
+    private void reserveNights(Booking booking) {
+        List<RoomNight> nights = booking.getCheckInDate().datesUntil(booking.getCheckOutDate())
+                .map(night -> RoomNight.builder()
+                        .room(booking.getRoom())
+                        .booking(booking)
+                        .nightDate(night)
+                        .build())
+                .toList();
+        roomNightRepository.saveAll(nights);
+    }
+
+    private Booking inBookingTransaction(Supplier<Booking> action) {
+        try {
+            return transactionTemplate.execute(status -> action.get());
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Room is not available for the selected dates");
+        }
     }
 
-    private String generateBookingCode() {
+    String generateBookingCode() {
         return "BK" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
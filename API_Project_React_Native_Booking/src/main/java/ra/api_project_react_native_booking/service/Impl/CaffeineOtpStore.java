@@ -0,0 +1,106 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ra.api_project_react_native_booking.service.interfaces.OtpStore;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * OtpStore trong bộ nhớ: mỗi entry sống hết cửa sổ đếm (windowEnd) để số lần cấp mã và số lần sai
+ * không bị xoá khi mã hết hạn hay được cấp lại. Các thao tác chạy trong asMap().compute nên nguyên tử theo từng key.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "caffeine", matchIfMissing = true)
+public class CaffeineOtpStore implements OtpStore {
+
+    // hash = null khi mã đã được dùng hoặc chưa có mã còn hiệu lực
+    private record Entry(byte[] hash, Instant issuedAt, Instant expiresAt, int failedAttempts, int issues,
+                         Instant windowEnd) {
+        private boolean codeExpired(Instant now) {
+            return hash == null || !now.isBefore(expiresAt);
+        }
+
+        private boolean windowClosed(Instant now) {
+            return !now.isBefore(windowEnd);
+        }
+    }
+
+    private final Cache<String, Entry> cache;
+
+    public CaffeineOtpStore(@Value("${otp.max-entries:100000}") long maxEntries) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.<String, Entry>writing((key, entry) -> remaining(entry)))
+                .build();
+    }
+
+    @Override
+    public IssueStatus issue(String key, byte[] otpHash, Policy policy) {
+        Instant now = Instant.now();
+        IssueStatus[] result = {IssueStatus.ISSUED};
+        cache.asMap().compute(key, (k, current) -> {
+            if (current == null || current.windowClosed(now)) {
+                return new Entry(otpHash.clone(), now, now.plus(policy.ttl()), 0, 1, now.plus(policy.window()));
+            }
+            if (!current.codeExpired(now) && now.isBefore(current.issuedAt().plus(policy.cooldown()))) {
+                result[0] = IssueStatus.COOLDOWN;
+                return current;
+            }
+            // Đã khoá thì cấp mã mới cũng vô ích: giữ khoá tới hết cửa sổ
+            if (current.issues() >= policy.maxIssues() || current.failedAttempts() >= policy.maxAttempts()) {
+                result[0] = IssueStatus.LIMITED;
+                return current;
+            }
+            return new Entry(otpHash.clone(), now, now.plus(policy.ttl()), current.failedAttempts(),
+                    current.issues() + 1, current.windowEnd());
+        });
+        return result[0];
+    }
+
+    @Override
+    public Verification verify(String key, byte[] otpHash, Policy policy, boolean consume) {
+        Instant now = Instant.now();
+        int maxAttempts = policy.maxAttempts();
+        Verification[] result = new Verification[1];
+        cache.asMap().compute(key, (k, current) -> {
+            if (current == null || current.windowClosed(now)) {
+                result[0] = new Verification(Status.EXPIRED, 0);
+                return null;
+            }
+            if (current.failedAttempts() >= maxAttempts) {
+                result[0] = new Verification(Status.LOCKED, 0);
+                return current;
+            }
+            if (current.codeExpired(now)) {
+                result[0] = new Verification(Status.EXPIRED, maxAttempts - current.failedAttempts());
+                return current;
+            }
+            // So sánh thời gian hằng định, không lộ số byte khớp qua thời gian phản hồi
+            if (MessageDigest.isEqual(current.hash(), otpHash)) {
+                result[0] = new Verification(Status.VALID, maxAttempts - current.failedAttempts());
+                // Dùng mã thành công thì xoá số lần sai, nhưng vẫn giữ số lần cấp trong cửa sổ
+                return consume
+                        ? new Entry(null, current.issuedAt(), current.expiresAt(), 0, current.issues(), current.windowEnd())
+                        : current;
+            }
+            int failed = current.failedAttempts() + 1;
+            result[0] = new Verification(failed >= maxAttempts ? Status.LOCKED : Status.INVALID, maxAttempts - failed);
+            return new Entry(current.hash(), current.issuedAt(), current.expiresAt(), failed, current.issues(),
+                    current.windowEnd());
+        });
+        return result[0];
+    }
+
+    private static Duration remaining(Entry entry) {
+        Instant end = entry.windowEnd().isAfter(entry.expiresAt()) ? entry.windowEnd() : entry.expiresAt();
+        Duration remaining = Duration.between(Instant.now(), end);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
@@ -0,0 +1,33 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cổng mặc định khi chưa cấu hình cổng thật (payment.provider=none): ứng dụng vẫn khởi động, đặt phòng và
+ * thanh toán bằng thẻ chạy bình thường, chỉ thanh toán qua cổng ngoài bị từ chối ngay khi gọi.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.provider", havingValue = "none", matchIfMissing = true)
+public class DisabledPaymentProvider implements PaymentProvider {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public Result submit(String reference, BigDecimal amount, String currency) {
+        throw new IllegalStateException("Payment provider is not configured");
+    }
+
+    @Override
+    public Map<String, Result> fetch(Collection<String> providerRefs) {
+        throw new IllegalStateException("Payment provider is not configured");
+    }
+}
@@ -0,0 +1,37 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ra.api_project_react_native_booking.event.HotelChangedEvent;
+
+/**
+ * Xoá cache catalog khách sạn sau khi transaction ghi đã commit,
+ * tránh trường hợp request khác nạp lại dữ liệu cũ trước khi commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelCatalogCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        Cache byId = cacheManager.getCache(HotelServiceImpl.CACHE_HOTEL_BY_ID);
+        if (byId != null && event.getHotelId() != null) {
+            byId.evict(event.getHotelId());
+        }
+        // Các danh sách đều có thể chứa khách sạn này nên xoá hết
+        for (String name : HotelServiceImpl.CACHE_HOTEL_LISTS) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.debug("Evicted hotel catalog caches for hotel {}", event.getHotelId());
+    }
+}
@@ -0,0 +1,209 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ra.api_project_react_native_booking.event.HotelChangedEvent;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.service.interfaces.HotelGeoIndexService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lưới ô vuông theo độ (mặc định 0.1° ~ 11km) chứa id khách sạn theo toạ độ.
+ * Tìm quanh một điểm chỉ duyệt các ô giao với bounding box của bán kính rồi lọc lại bằng Haversine.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotelGeoIndexServiceImpl implements HotelGeoIndexService {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final HotelRepository hotelRepository;
+
+    @Value("${hotel.geo.cell-degrees:0.1}")
+    private double cellDegrees;
+
+    // cellKey -> id các khách sạn trong ô
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    // hotelId -> {lat, lng}
+    private final Map<Long, double[]> points = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // Chỉ serialize việc ghi index; đọc (findNearby) không cần lock
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void reload() {
+        writeLock.lock();
+        try {
+            cells.clear();
+            points.clear();
+            for (Hotel hotel : hotelRepository.findAll()) {
+                add(hotel);
+            }
+            ready = true;
+            log.info("Indexed {} hotels into {} geo cells", points.size(), cells.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Bắt thay đổi ghi thẳng vào database (script SQL) mà không có HotelChangedEvent, cập nhật từng khách sạn
+    @Scheduled(fixedDelayString = "${hotel.index.refresh-interval:600000}",
+            initialDelayString = "${hotel.index.refresh-interval:600000}")
+    public void refresh() {
+        writeLock.lock();
+        try {
+            Set<Long> hotelIds = new HashSet<>();
+            for (Hotel hotel : hotelRepository.findAll()) {
+                hotelIds.add(hotel.getId());
+                remove(hotel.getId());
+                add(hotel);
+            }
+            for (Long hotelId : List.copyOf(points.keySet())) {
+                if (!hotelIds.contains(hotelId)) {
+                    remove(hotelId);
+                }
+            }
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Chạy nền sau commit, không giữ request thread
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        if (ready && event.getHotelId() != null) {
+            reindex(event.getHotelId());
+        }
+    }
+
+    @Override
+    public void reindex(Long hotelId) {
+        writeLock.lock();
+        try {
+            remove(hotelId);
+            hotelRepository.findById(hotelId).ifPresent(this::add);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<NearbyHotel> findNearby(double latitude, double longitude, double radiusKm) {
+        if (!ready) {
+            reload();
+        }
+
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        // Gần cực hoặc bán kính quá lớn thì lấy cả vòng kinh độ
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lngDelta = cosLat > 1e-6 ? radiusKm / (KM_PER_DEGREE_LAT * cosLat) : 180;
+
+        int columns = columnCount();
+        int minY = row(minLat);
+        int maxY = row(maxLat);
+        int minX;
+        int maxX;
+        if (lngDelta >= 180) {
+            minX = 0;
+            maxX = columns - 1;
+        } else {
+            minX = column(longitude - lngDelta);
+            maxX = column(longitude + lngDelta);
+            // Bounding box vắt qua kinh tuyến 180
+            if (maxX < minX) {
+                maxX += columns;
+            }
+        }
+
+        List<NearbyHotel> result = new ArrayList<>();
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                Set<Long> hotelIds = cells.get(cellKey(Math.floorMod(x, columns), y));
+                if (hotelIds == null) {
+                    continue;
+                }
+                for (Long hotelId : hotelIds) {
+                    double[] point = points.get(hotelId);
+                    if (point == null) {
+                        continue;
+                    }
+                    double distance = haversineKm(latitude, longitude, point[0], point[1]);
+                    if (distance <= radiusKm) {
+                        result.add(new NearbyHotel(hotelId, distance));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(NearbyHotel::distanceKm).thenComparing(NearbyHotel::hotelId));
+        return result;
+    }
+
+    private void add(Hotel hotel) {
+        if (hotel.getLatitude() == null || hotel.getLongitude() == null) {
+            return;
+        }
+        double lat = hotel.getLatitude();
+        double lng = hotel.getLongitude();
+        points.put(hotel.getId(), new double[]{lat, lng});
+        cells.computeIfAbsent(cellKey(column(lng), row(lat)), key -> ConcurrentHashMap.newKeySet()).add(hotel.getId());
+    }
+
+    private void remove(Long hotelId) {
+        double[] point = points.remove(hotelId);
+        if (point == null) {
+            return;
+        }
+        cells.computeIfPresent(cellKey(column(point[1]), row(point[0])), (key, hotelIds) -> {
+            hotelIds.remove(hotelId);
+            return hotelIds.isEmpty() ? null : hotelIds;
+        });
+    }
+
+    private int columnCount() {
+        return (int) Math.ceil(360 / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columnCount());
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((Math.min(latitude, 89.999999) + 90) / cellDegrees);
+    }
+
+    private long cellKey(int column, int row) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,221 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ra.api_project_react_native_booking.event.HotelChangedEvent;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.service.interfaces.HotelSearchService;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm khách sạn theo name/city/address/country/description.
+ * Từ khoá được bỏ dấu tiếng Việt và so khớp theo tiền tố, kết quả xếp theo trọng số field.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotelSearchServiceImpl implements HotelSearchService {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Trọng số theo field, khớp ở tên quan trọng hơn khớp ở mô tả
+    private static final float NAME_WEIGHT = 5f;
+    private static final float CITY_WEIGHT = 3f;
+    private static final float ADDRESS_WEIGHT = 2f;
+    private static final float COUNTRY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    // Khớp tiền tố được tính điểm thấp hơn khớp nguyên từ
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private final HotelRepository hotelRepository;
+
+    // term -> (hotelId -> trọng số)
+    private final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    // hotelId -> các term của khách sạn, dùng khi cần gỡ khỏi index
+    private final Map<Long, Map<String, Float>> documents = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> starRatings = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // Không dùng synchronized vì bên trong có truy vấn JDBC (tránh ghim carrier của virtual thread)
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void reload() {
+        writeLock.lock();
+        try {
+            postings.clear();
+            documents.clear();
+            starRatings.clear();
+            for (Hotel hotel : hotelRepository.findAll()) {
+                add(hotel);
+            }
+            ready = true;
+            log.info("Indexed {} hotels ({} terms)", documents.size(), postings.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Bắt thay đổi ghi thẳng vào database (script SQL) mà không có HotelChangedEvent.
+    // Cập nhật từng khách sạn thay vì clear() như reload() để tìm kiếm không trả rỗng trong lúc làm mới
+    @Scheduled(fixedDelayString = "${hotel.index.refresh-interval:600000}",
+            initialDelayString = "${hotel.index.refresh-interval:600000}")
+    public void refresh() {
+        writeLock.lock();
+        try {
+            Set<Long> hotelIds = new HashSet<>();
+            for (Hotel hotel : hotelRepository.findAll()) {
+                hotelIds.add(hotel.getId());
+                remove(hotel.getId());
+                add(hotel);
+            }
+            for (Long hotelId : List.copyOf(documents.keySet())) {
+                if (!hotelIds.contains(hotelId)) {
+                    remove(hotelId);
+                }
+            }
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Reindex sau commit trên applicationTaskExecutor, request không phải chờ
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelChanged(HotelChangedEvent event) {
+        if (ready && event.getHotelId() != null) {
+            reindex(event.getHotelId());
+        }
+    }
+
+    @Override
+    public void reindex(Long hotelId) {
+        writeLock.lock();
+        try {
+            remove(hotelId);
+            hotelRepository.findById(hotelId).ifPresent(this::add);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public List<Long> search(String keyword) {
+        List<String> queryTerms = tokenize(keyword);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        // Mọi từ trong câu truy vấn đều phải khớp (AND)
+        Map<Long, Float> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Float> termScores = matchPrefix(queryTerm);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Float> finalScores = scores;
+        List<Long> hotelIds = new ArrayList<>(finalScores.keySet());
+        hotelIds.sort(Comparator.<Long, Float>comparing(finalScores::get).reversed()
+                .thenComparing(id -> starRatings.getOrDefault(id, 0), Comparator.reverseOrder())
+                .thenComparing(Comparator.naturalOrder()));
+        return hotelIds;
+    }
+
+    // Với mỗi khách sạn lấy điểm cao nhất trong các term bắt đầu bằng queryTerm
+    private Map<Long, Float> matchPrefix(String queryTerm) {
+        Map<Long, Float> result = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Float>> entry
+                : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            float factor = entry.getKey().equals(queryTerm) ? 1f : PREFIX_FACTOR;
+            entry.getValue().forEach((id, weight) -> result.merge(id, weight * factor, Math::max));
+        }
+        return result;
+    }
+
+    private void add(Hotel hotel) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, hotel.getName(), NAME_WEIGHT);
+        addField(terms, hotel.getCity(), CITY_WEIGHT);
+        addField(terms, hotel.getAddress(), ADDRESS_WEIGHT);
+        addField(terms, hotel.getCountry(), COUNTRY_WEIGHT);
+        addField(terms, hotel.getDescription(), DESCRIPTION_WEIGHT);
+
+        terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(hotel.getId(), weight));
+        documents.put(hotel.getId(), terms);
+        starRatings.put(hotel.getId(), hotel.getStarRating() != null ? hotel.getStarRating() : 0);
+    }
+
+    private void remove(Long hotelId) {
+        Map<String, Float> terms = documents.remove(hotelId);
+        starRatings.remove(hotelId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            postings.computeIfPresent(term, (t, hotels) -> {
+                hotels.remove(hotelId);
+                return hotels.isEmpty() ? null : hotels;
+            });
+        }
+    }
+
+    // Một term xuất hiện ở nhiều field thì cộng dồn trọng số
+    private void addField(Map<String, Float> terms, String value, float weight) {
+        for (String term : tokenize(value)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase();
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
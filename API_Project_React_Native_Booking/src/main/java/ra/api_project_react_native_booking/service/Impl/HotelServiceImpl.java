@@ -1,8 +1,12 @@
 package ra.api_project_react_native_booking.service.Impl;
 
 import lombok.RequiredArgsConstructor;
-import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -10,35 +14,64 @@ import org.springframework.transaction.annotation.Transactional;
 import ra.api_project_react_native_booking.dto.response.HotelResponse;
 import ra.api_project_react_native_booking.model.Hotel;
 import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.service.interfaces.HotelGeoIndexService;
+import ra.api_project_react_native_booking.service.interfaces.HotelSearchService;
 import ra.api_project_react_native_booking.service.interfaces.HotelService;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class HotelServiceImpl implements HotelService {
 
+    // Tên cache catalog, cấu hình size/TTL qua spring.cache.*
+    public static final String CACHE_ALL_HOTELS = "hotels";
+    public static final String CACHE_TOP_HOTELS = "topHotels";
+    public static final String CACHE_HOTELS_BY_CITY = "hotelsByCity";
+    public static final String CACHE_HOTEL_BY_ID = "hotelById";
+    public static final List<String> CACHE_HOTEL_LISTS = List.of(CACHE_ALL_HOTELS, CACHE_TOP_HOTELS, CACHE_HOTELS_BY_CITY);
+
+    private static final int MAX_FILTER_PAGE_SIZE = 100;
+
     private final HotelRepository hotelRepository;
+    private final HotelSearchService hotelSearchService;
+    private final HotelGeoIndexService hotelGeoIndexService;
+
+    @Value("${hotel.nearby.max-radius-km:100}")
+    private double maxNearbyRadiusKm;
 
+    // Gọi getAllHotels qua proxy: gọi thẳng this.getAllHotels() thì @Cacheable không chạy
+    @Lazy
+    @Autowired
+    private HotelService self;
+
+    // Kết quả được cache dùng chung giữa các request nên trả về list bất biến
     @Override
+    @Cacheable(CACHE_ALL_HOTELS)
     public List<HotelResponse> getAllHotels() {
         List<Hotel> hotels = hotelRepository.findAll();
         return hotels.stream()
                 .map(this::convertToHotelResponse)
-                .collect(Collectors.toList());
+                .toList();
     }
 
     @Override
+    @Cacheable(CACHE_TOP_HOTELS)
     public List<HotelResponse> getTop5BestHotels() {
         Pageable pageable = PageRequest.of(0, 5);
         List<Hotel> hotels = hotelRepository.findTop5ByOrderByStarRatingDesc(pageable);
         return hotels.stream()
                 .map(this::convertToHotelResponse)
-                .collect(Collectors.toList());
+                .toList();
     }
 
     @Override
+    @Cacheable(CACHE_HOTEL_BY_ID)
     @Transactional(readOnly = true)
     public HotelResponse getHotelById(Long id) {
         Hotel hotel = hotelRepository.findById(id)
@@ -49,35 +82,96 @@ public class HotelServiceImpl implements HotelService {
     @Override
     public List<HotelResponse> searchHotels(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getAllHotels();
+            return self.getAllHotels();
         }
 
-        // Tìm kiếm theo tên, mô tả, thành phố, địa chỉ
-        List<Hotel> hotels = hotelRepository.searchHotels(keyword.toLowerCase());
+        // Index chưa nạp xong lúc khởi động thì tìm trực tiếp trong database
+        if (!hotelSearchService.isReady()) {
+            return hotelRepository.searchHotels(keyword.toLowerCase()).stream()
+                    .map(this::convertToHotelResponse)
+                    .collect(Collectors.toList());
+        }
 
-        return hotels.stream()
+        // Tìm kiếm theo tên, mô tả, thành phố, địa chỉ qua inverted index, giữ thứ tự xếp hạng
+        List<Long> hotelIds = hotelSearchService.search(keyword);
+        if (hotelIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Hotel> hotels = hotelRepository.findAllById(hotelIds).stream()
+                .collect(Collectors.toMap(Hotel::getId, Function.identity()));
+
+        return hotelIds.stream()
+                .map(hotels::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToHotelResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    // Không có thành phố thì dùng luôn cache của getAllHotels, không lưu thêm bản sao trong hotelsByCity
+    @Cacheable(cacheNames = CACHE_HOTELS_BY_CITY, key = "#city.trim().toLowerCase()",
+            condition = "#city != null && !#city.trim().isEmpty()")
     public List<HotelResponse> getHotelsByCity(String city) {
         if (city == null || city.trim().isEmpty()) {
-            return getAllHotels();
+            return self.getAllHotels();
         }
 
+        // Truy vấn đúng giá trị đã dùng làm cache key, "Đà Nẵng " và "đà nẵng" là cùng một kết quả
+        String normalizedCity = city.trim().toLowerCase();
         Pageable pageable = PageRequest.of(0, 50); // Giới hạn 50 khách sạn
-        Page<Hotel> hotels = hotelRepository.findByCityContainingIgnoreCase(city, pageable);
+        Page<Hotel> hotels = hotelRepository.findByCityContainingIgnoreCase(normalizedCity, pageable);
 
         return hotels.getContent().stream()
                 .map(this::convertToHotelResponse)
-                .collect(Collectors.toList());
+                .toList();
     }
 
-    private HotelResponse convertToHotelResponse(Hotel hotel) {
-        // Force initialize lazy collections để tránh LazyInitializationException
-        Hibernate.initialize(hotel.getReviews());
-        
+    @Override
+    public Page<HotelResponse> getNearbyHotels(double latitude, double longitude, double radiusKm, Pageable pageable) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+        if (radiusKm <= 0 || radiusKm > maxNearbyRadiusKm) {
+            throw new RuntimeException("radiusKm must be between 0 and " + maxNearbyRadiusKm);
+        }
+
+        // Index trả về toàn bộ id trong bán kính đã sắp theo khoảng cách, chỉ load khách sạn của trang hiện tại
+        List<HotelGeoIndexService.NearbyHotel> nearby = hotelGeoIndexService.findNearby(latitude, longitude, radiusKm);
+        int from = (int) Math.min(pageable.getOffset(), nearby.size());
+        int to = Math.min(from + pageable.getPageSize(), nearby.size());
+        List<HotelGeoIndexService.NearbyHotel> slice = nearby.subList(from, to);
+
+        Map<Long, Hotel> hotels = hotelRepository.findAllById(slice.stream().map(HotelGeoIndexService.NearbyHotel::hotelId).toList())
+                .stream()
+                .collect(Collectors.toMap(Hotel::getId, Function.identity()));
+
+        List<HotelResponse> content = new ArrayList<>();
+        for (HotelGeoIndexService.NearbyHotel hit : slice) {
+            Hotel hotel = hotels.get(hit.hotelId());
+            if (hotel != null) {
+                HotelResponse response = convertToHotelResponse(hotel);
+                response.setDistanceKm(Math.round(hit.distanceKm() * 100) / 100.0);
+                content.add(response);
+            }
+        }
+        return new PageImpl<>(content, pageable, nearby.size());
+    }
+
+    @Override
+    public Page<HotelResponse> filterHotels(Integer minRating, Integer maxRating, String city, Pageable pageable) {
+        if (minRating != null && maxRating != null && minRating > maxRating) {
+            throw new RuntimeException("minRating must not be greater than maxRating");
+        }
+        String cityPrefix = city == null || city.isBlank() ? null : city.trim();
+        // Giới hạn size như các endpoint cursor / upcoming, tránh một request kéo cả bảng hotels
+        Pageable capped = pageable.getPageSize() > MAX_FILTER_PAGE_SIZE
+                ? PageRequest.of(pageable.getPageNumber(), MAX_FILTER_PAGE_SIZE, pageable.getSort())
+                : pageable;
+        return hotelRepository.filterHotels(cityPrefix, minRating, maxRating, capped)
+                .map(this::convertToHotelResponse);
+    }
+
+    HotelResponse convertToHotelResponse(Hotel hotel) {
         return HotelResponse.builder()
                 .id(hotel.getId())
                 .name(hotel.getName())
@@ -92,19 +186,16 @@ public class HotelServiceImpl implements HotelService {
                 .contactPhone(hotel.getContactPhone())
                 .imageUrl(hotel.getImageUrl())
                 .averageRating(calculateHotelAverageRating(hotel))
-                .reviewCount(hotel.getReviews() != null ? (long) hotel.getReviews().size() : 0L)
+                .reviewCount(hotel.getReviewCount() != null ? hotel.getReviewCount() : 0L)
                 .rooms(null) // Không include rooms để tránh circular reference và performance issues
                 .build();
     }
 
+    // Tính từ (rating_sum, review_count) đã denormalize, không load reviews
     private Double calculateHotelAverageRating(Hotel hotel) {
-        if (hotel.getReviews() == null || hotel.getReviews().isEmpty()) {
+        if (hotel.getReviewCount() == null || hotel.getReviewCount() == 0) {
             return 0.0;
         }
-
-        return hotel.getReviews().stream()
-                .mapToInt(review -> review.getRating())
-                .average()
-                .orElse(0.0);
+        return hotel.getRatingSum() / (double) hotel.getReviewCount();
     }
 }
\ No newline at end of file
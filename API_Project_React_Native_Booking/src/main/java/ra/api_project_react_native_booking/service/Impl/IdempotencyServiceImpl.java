@@ -0,0 +1,149 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.model.IdempotencyKey;
+import ra.api_project_react_native_booking.model.constants.IdempotencyStatus;
+import ra.api_project_react_native_booking.repository.IdempotencyKeyRepository;
+import ra.api_project_react_native_booking.service.interfaces.IdempotencyService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Kết quả đã hoàn tất được giữ trong Caffeine (giới hạn số entry) trước bảng idempotency_keys, nên lần gửi lại
+ * thường chỉ là một lần tra bộ nhớ. Bảng là nguồn chính: unique (user_id, endpoint, idempotency_key) đảm bảo
+ * hai request đồng thời cùng key chỉ một cái được xử lý, và kết quả còn sau khi khởi động lại.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private record Completed(String requestHash, int responseStatus, String responseBody) {}
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Cache<String, Completed> completed;
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${idempotency.in-progress-timeout:1m}") Duration inProgressTimeout,
+                                  @Value("${idempotency.max-entries:10000}") long maxEntries) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.inProgressTimeout = inProgressTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Claim begin(String scope, String endpoint, String key, String requestHash) {
+        Completed cached = completed.getIfPresent(cacheKey(scope, endpoint, key));
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+        // Lần thứ hai chỉ xảy ra khi vừa xoá một dòng hết hạn / bị bỏ dở
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Optional<IdempotencyKey> existing = idempotencyKeyRepository
+                    .findByUserIdAndEndpointAndIdempotencyKey(scope, endpoint, key);
+            if (existing.isPresent()) {
+                IdempotencyKey record = existing.get();
+                if (!isStale(record)) {
+                    return fromRecord(scope, endpoint, key, record, requestHash);
+                }
+                idempotencyKeyRepository.deleteById(record.getId());
+            }
+            try {
+                IdempotencyKey created = transactionTemplate.execute(status -> idempotencyKeyRepository.saveAndFlush(
+                        IdempotencyKey.builder()
+                                .userId(scope)
+                                .endpoint(endpoint)
+                                .idempotencyKey(key)
+                                .requestHash(requestHash)
+                                .status(IdempotencyStatus.IN_PROGRESS)
+                                .expiresAt(LocalDateTime.now().plus(ttl))
+                                .build()));
+                return new Claim(Outcome.STARTED, created.getId(), requestHash, null, null);
+            } catch (DataIntegrityViolationException e) {
+                // Trùng key thì phải đọc thấy dòng của request khác; vẫn không có sau lần thử cuối
+                // là lỗi khác (giá trị quá dài...), ném ra thay vì trả IN_PROGRESS mãi
+                if (attempt == 1 && idempotencyKeyRepository
+                        .findByUserIdAndEndpointAndIdempotencyKey(scope, endpoint, key).isEmpty()) {
+                    throw e;
+                }
+                // Request khác cùng key vừa chèn trước, đọc lại dòng của nó
+                log.debug("Idempotency key {} for {} was claimed concurrently", key, endpoint);
+            }
+        }
+        return new Claim(Outcome.IN_PROGRESS, null, requestHash, null, null);
+    }
+
+    @Override
+    public void complete(String scope, String endpoint, String key, Claim claim, int responseStatus, String responseBody) {
+        Integer updated = transactionTemplate.execute(status -> idempotencyKeyRepository.complete(
+                claim.recordId(), IdempotencyStatus.COMPLETED, responseStatus, responseBody));
+        // Dòng đã bị dọn (quá in-progress-timeout) thì không cache, tránh lệch với bảng
+        if (updated != null && updated > 0) {
+            completed.put(cacheKey(scope, endpoint, key),
+                    new Completed(claim.requestHash(), responseStatus, responseBody));
+        }
+    }
+
+    @Override
+    public void abandon(Claim claim) {
+        if (claim.recordId() != null) {
+            idempotencyKeyRepository.deleteById(claim.recordId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Claim fromRecord(String scope, String endpoint, String key, IdempotencyKey record, String requestHash) {
+        if (record.getStatus() != IdempotencyStatus.COMPLETED) {
+            return record.getRequestHash().equals(requestHash)
+                    ? new Claim(Outcome.IN_PROGRESS, null, requestHash, null, null)
+                    : new Claim(Outcome.MISMATCH, null, requestHash, null, null);
+        }
+        Completed result = new Completed(record.getRequestHash(), record.getResponseStatus(), record.getResponseBody());
+        completed.put(cacheKey(scope, endpoint, key), result);
+        return replay(result, requestHash);
+    }
+
+    private Claim replay(Completed result, String requestHash) {
+        return result.requestHash().equals(requestHash)
+                ? new Claim(Outcome.REPLAY, null, requestHash, result.responseStatus(), result.responseBody())
+                : new Claim(Outcome.MISMATCH, null, requestHash, null, null);
+    }
+
+    // Hết hạn, hoặc IN_PROGRESS quá lâu (instance xử lý đã chết giữa chừng)
+    private boolean isStale(IdempotencyKey record) {
+        LocalDateTime now = LocalDateTime.now();
+        return record.getExpiresAt().isBefore(now)
+                || (record.getStatus() == IdempotencyStatus.IN_PROGRESS
+                && record.getCreatedAt().plus(inProgressTimeout).isBefore(now));
+    }
+
+    private static String cacheKey(String scope, String endpoint, String key) {
+        return scope + '\n' + endpoint + '\n' + key;
+    }
+}
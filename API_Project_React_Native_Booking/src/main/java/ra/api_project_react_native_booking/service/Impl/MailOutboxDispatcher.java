@@ -0,0 +1,262 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.model.MailOutbox;
+import ra.api_project_react_native_booking.model.constants.MailStatus;
+import ra.api_project_react_native_booking.repository.MailOutboxRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gửi email từ bảng mail_outbox theo lô: mỗi lô nhận việc bằng một claim token rồi gửi qua một kết nối SMTP
+ * (JavaMailSender.send(MimeMessage...)). Lỗi được thử lại với backoff luỹ thừa, quá số lần thì đánh dấu FAILED.
+ * Luồng @Scheduled chỉ giao lô cho worker rồi trả về; còn lô đang gửi thì bỏ qua lượt quét đó.
+ */
+@Component
+@Slf4j
+public class MailOutboxDispatcher {
+
+    private static final List<MailStatus> CLAIMABLE_STATUSES = List.of(MailStatus.PENDING, MailStatus.SENDING);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration lease;
+    private final String from;
+    private final Duration pendingRefresh;
+
+    // Số lô đã giao cho worker mà chưa gửi xong
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Gauge mail.outbox.pending đọc giá trị này; chỉ COUNT lại trong dispatch, tối đa một lần mỗi pendingRefresh
+    private final AtomicLong pendingCount = new AtomicLong();
+    private volatile long nextPendingCountAt;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+                                JavaMailSender mailSender,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${mail.outbox.workers:2}") int workerCount,
+                                @Value("${mail.outbox.batch-size:50}") int batchSize,
+                                @Value("${mail.outbox.max-attempts:6}") int maxAttempts,
+                                @Value("${mail.outbox.backoff-base:30s}") Duration backoffBase,
+                                @Value("${mail.outbox.backoff-max:1h}") Duration backoffMax,
+                                @Value("${mail.outbox.lease:5m}") Duration lease,
+                                @Value("${mail.from:no-reply@booking.local}") String from,
+                                @Value("${mail.outbox.pending-refresh:30s}") Duration pendingRefresh) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+        this.lease = lease;
+        this.from = from;
+        this.pendingRefresh = pendingRefresh;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "mail-outbox-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sentCounter = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("mail.outbox.retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("mail.outbox.failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.outbox.batch").register(meterRegistry);
+        Gauge.builder("mail.outbox.pending", pendingCount, AtomicLong::get).register(meterRegistry);
+    }
+
+    // Trả về số email đã giao cho worker trong lượt quét (gửi xong hay chưa thì xem counter mail.outbox.sent)
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:1000}")
+    public int dispatch() {
+        refreshPendingCount();
+        // Lô trước chưa gửi xong thì không quét: không giao trùng id đang gửi dở, hàng đợi worker không phình ra
+        if (inFlight.get() > 0) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = mailOutboxRepository.findDueIds(CLAIMABLE_STATUSES, now,
+                PageRequest.of(0, batchSize * workerCount));
+        int handedOff = 0;
+        for (int i = 0; i < dueIds.size(); i += batchSize) {
+            List<Long> ids = List.copyOf(dueIds.subList(i, Math.min(i + batchSize, dueIds.size())));
+            inFlight.incrementAndGet();
+            try {
+                workers.execute(() -> {
+                    try {
+                        sendBatch(ids, now);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+                handedOff += ids.size();
+            } catch (RejectedExecutionException e) {
+                inFlight.decrementAndGet();
+                log.debug("Mail outbox workers are shutting down, {} mails are left for the next round", ids.size());
+            }
+        }
+        return handedOff;
+    }
+
+    // Cho test: chờ worker gửi xong mọi lô đã giao
+    boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    void refreshPendingCount() {
+        long now = System.currentTimeMillis();
+        if (now >= nextPendingCountAt) {
+            nextPendingCountAt = now + pendingRefresh.toMillis();
+            pendingCount.set(mailOutboxRepository.countByStatus(MailStatus.PENDING));
+        }
+    }
+
+    private int sendBatch(List<Long> ids, LocalDateTime now) {
+        String token = UUID.randomUUID().toString();
+        Integer claimed = transactionTemplate.execute(status ->
+                mailOutboxRepository.claim(ids, CLAIMABLE_STATUSES, token, now, now.plus(lease)));
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        Map<MimeMessage, MailOutbox> messages = new IdentityHashMap<>();
+        for (MailOutbox mail : mailOutboxRepository.findByClaimToken(token)) {
+            try {
+                messages.put(toMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                // Địa chỉ / nội dung hỏng thì thử lại cũng vô ích
+                fail(mail, token, e, true);
+            }
+        }
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages.keySet(), e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(messages.keySet(), e);
+        } finally {
+            sample.stop(batchTimer);
+        }
+
+        List<Long> sentIds = new ArrayList<>();
+        for (Map.Entry<MimeMessage, MailOutbox> entry : messages.entrySet()) {
+            Exception error = failures.get(entry.getKey());
+            if (error == null) {
+                sentIds.add(entry.getValue().getId());
+            } else {
+                fail(entry.getValue(), token, error, false);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    mailOutboxRepository.markSent(sentIds, token, LocalDateTime.now()));
+            sentCounter.increment(sentIds.size());
+        }
+        return sentIds.size();
+    }
+
+    private MimeMessage toMimeMessage(MailOutbox mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody(), mail.isHtml());
+        return message;
+    }
+
+    private Map<Object, Exception> allFailed(Collection<MimeMessage> messages, Exception error) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.forEach(message -> failures.put(message, error));
+        return failures;
+    }
+
+    private void fail(MailOutbox mail, String token, Exception error, boolean permanent) {
+        int attempts = mail.getAttempts() + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        MailStatus status = giveUp ? MailStatus.FAILED : MailStatus.PENDING;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(giveUp ? Duration.ZERO : backoff(attempts));
+        String message = String.valueOf(error.getMessage());
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+
+        transactionTemplate.executeWithoutResult(tx ->
+                mailOutboxRepository.markFailed(mail.getId(), token, status, attempts, nextAttemptAt, lastError));
+        if (giveUp) {
+            failedCounter.increment();
+            log.warn("Giving up mail {} to {} after {} attempts: {}", mail.getId(), mail.getRecipient(), attempts, lastError);
+        } else {
+            retriedCounter.increment();
+        }
+    }
+
+    // base * 2^(attempts-1), tối đa backoffMax, cộng thêm tới 20% ngẫu nhiên để các lỗi cùng lúc không dồn lại
+    Duration backoff(int attempts) {
+        long baseMillis = backoffBase.toMillis();
+        long maxMillis = backoffMax.toMillis();
+        long delay = attempts - 1 >= Long.numberOfLeadingZeros(Math.max(baseMillis, 1)) - 1
+                ? maxMillis
+                : Math.min(baseMillis << (attempts - 1), maxMillis);
+        long jitter = delay / 5 > 0 ? ThreadLocalRandom.current().nextLong(delay / 5) : 0;
+        return Duration.ofMillis(delay + jitter);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,35 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ra.api_project_react_native_booking.model.MailOutbox;
+import ra.api_project_react_native_booking.model.constants.MailStatus;
+import ra.api_project_react_native_booking.repository.MailOutboxRepository;
+import ra.api_project_react_native_booking.service.interfaces.MailService;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class MailServiceImpl implements MailService {
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String subject, String body, boolean html) {
+        if (to == null || to.isBlank()) {
+            throw new RuntimeException("Mail recipient is required");
+        }
+        mailOutboxRepository.save(MailOutbox.builder()
+                .recipient(to.trim())
+                .subject(subject)
+                .body(body)
+                .html(html)
+                .status(MailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,101 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cổng thanh toán giả chạy trong bộ nhớ để dev / test không cần mạng. Độ trễ, tỉ lệ lỗi mạng, tỉ lệ từ chối và
+ * tỉ lệ giao dịch chờ xử lý (chỉ có kết quả sau settle-after, qua fetch) đều cấu hình được.
+ * Chỉ nạp ở profile dev / test, không bao giờ chạy thay cổng thật ở production.
+ */
+@Component
+@Profile({"dev", "test"})
+@ConditionalOnProperty(name = "payment.provider", havingValue = "mock")
+public class MockPaymentProvider implements PaymentProvider {
+
+    private record Transaction(String providerRef, Outcome finalOutcome, Instant settleAt) {}
+
+    private final Duration latency;
+    private final double failureRate;
+    private final double declineRate;
+    private final double pendingRate;
+    private final Duration settleAfter;
+
+    private final Map<String, Transaction> byReference = new ConcurrentHashMap<>();
+    private final Map<String, Transaction> byProviderRef = new ConcurrentHashMap<>();
+
+    public MockPaymentProvider(@Value("${payment.provider.mock.latency:300ms}") Duration latency,
+                               @Value("${payment.provider.mock.failure-rate:0}") double failureRate,
+                               @Value("${payment.provider.mock.decline-rate:0}") double declineRate,
+                               @Value("${payment.provider.mock.pending-rate:0.2}") double pendingRate,
+                               @Value("${payment.provider.mock.settle-after:5s}") Duration settleAfter) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+        this.pendingRate = pendingRate;
+        this.settleAfter = settleAfter;
+    }
+
+    @Override
+    public Result submit(String reference, BigDecimal amount, String currency) {
+        simulateNetwork();
+        Transaction transaction = byReference.computeIfAbsent(reference, ref -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Outcome outcome = random.nextDouble() < declineRate ? Outcome.DECLINED : Outcome.APPROVED;
+            Instant settleAt = random.nextDouble() < pendingRate ? Instant.now().plus(settleAfter) : Instant.now();
+            Transaction created = new Transaction("MOCK-" + UUID.randomUUID(), outcome, settleAt);
+            byProviderRef.put(created.providerRef(), created);
+            return created;
+        });
+        return toResult(transaction);
+    }
+
+    @Override
+    public Map<String, Result> fetch(Collection<String> providerRefs) {
+        simulateNetwork();
+        Map<String, Result> results = new HashMap<>();
+        for (String providerRef : providerRefs) {
+            Transaction transaction = byProviderRef.get(providerRef);
+            if (transaction != null) {
+                results.put(providerRef, toResult(transaction));
+            }
+        }
+        return results;
+    }
+
+    private Result toResult(Transaction transaction) {
+        if (Instant.now().isBefore(transaction.settleAt())) {
+            return new Result(transaction.providerRef(), Outcome.PENDING, "Giao dịch đang được xử lý");
+        }
+        return transaction.finalOutcome() == Outcome.APPROVED
+                ? new Result(transaction.providerRef(), Outcome.APPROVED, "Thanh toán thành công")
+                : new Result(transaction.providerRef(), Outcome.DECLINED, "Cổng thanh toán từ chối giao dịch");
+    }
+
+    private void simulateNetwork() {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while calling payment provider");
+            }
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Payment provider is unavailable");
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.model.Payment;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
+import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.PaymentRepository;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Xử lý các payment PENDING qua cổng thanh toán ngoài, ngoài luồng request:
+ * - enqueue: payment mới được gửi lên cổng trên pool worker giới hạn (hàng đợi đầy thì để lượt reconcile nhận);
+ * - reconcile (định kỳ): nhận theo lô các payment tới hạn rồi giao cho worker, không chờ: worker gửi những cái
+ *   chưa gửi và hỏi trạng thái những cái đang chờ trong một lời gọi fetch;
+ * - handleCallbacks: cổng báo kết quả về, áp dụng theo lô.
+ * Kết quả được chốt bằng UPDATE có điều kiện status = PENDING nên callback và polling cùng tới cũng chỉ áp dụng một lần.
+ */
+@Component
+@Slf4j
+public class PaymentProcessor {
+
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    private final PaymentRepository paymentRepository;
+    private final BookingRepository bookingRepository;
+    private final PaymentProvider paymentProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    // Số việc đã giao cho worker mà chưa chạy xong
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration pollDelay;
+    private final Duration lease;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final Counter refundRequiredCounter;
+    private final Timer providerTimer;
+
+    public PaymentProcessor(PaymentRepository paymentRepository,
+                            BookingRepository bookingRepository,
+                            PaymentProvider paymentProvider,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${payment.processor.workers:4}") int workerCount,
+                            @Value("${payment.processor.queue-capacity:200}") int queueCapacity,
+                            @Value("${payment.processor.batch-size:50}") int batchSize,
+                            @Value("${payment.processor.max-attempts:5}") int maxAttempts,
+                            @Value("${payment.processor.retry-backoff:10s}") Duration retryBackoff,
+                            @Value("${payment.processor.poll-delay:5s}") Duration pollDelay,
+                            @Value("${payment.processor.lease:1m}") Duration lease) {
+        this.paymentRepository = paymentRepository;
+        this.bookingRepository = bookingRepository;
+        this.paymentProvider = paymentProvider;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.pollDelay = pollDelay;
+        this.lease = lease;
+
+        int threads = Math.max(1, workerCount);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+            Thread thread = new Thread(runnable, "payment-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.completedCounter = Counter.builder("payment.provider.completed").register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.provider.failed").register(meterRegistry);
+        this.retriedCounter = Counter.builder("payment.provider.retried").register(meterRegistry);
+        // Cảnh báo khi > 0: tiền đã trừ mà booking không được xác nhận, cần hoàn tiền
+        this.refundRequiredCounter = Counter.builder("payment.provider.refund-required").register(meterRegistry);
+        this.providerTimer = Timer.builder("payment.provider.call").register(meterRegistry);
+        Gauge.builder("payment.processor.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public boolean isProviderEnabled() {
+        return paymentProvider.isEnabled();
+    }
+
+    // Gọi sau khi transaction tạo payment đã commit
+    public void enqueue(Long paymentId) {
+        if (!paymentProvider.isEnabled()) {
+            return;
+        }
+        dispatch(() -> claim(List.of(paymentId)).forEach(this::submit), "payment " + paymentId);
+    }
+
+    // Trả về số payment đã nhận trong lượt; kết quả được chốt trên worker sau khi hàm trả về
+    @Scheduled(fixedDelayString = "${payment.processor.poll-interval:5000}")
+    public int reconcile() {
+        // Chưa có cổng: payment PENDING giữ nguyên, không bị đánh FAILED vì lỗi cấu hình
+        if (!paymentProvider.isEnabled()) {
+            return 0;
+        }
+        List<Long> dueIds = paymentRepository.findDueIds(PaymentStatus.PENDING, now(), PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        List<Payment> claimed = claim(dueIds);
+        List<Payment> awaiting = new ArrayList<>();
+        for (Payment payment : claimed) {
+            if (payment.getProviderRef() == null) {
+                dispatch(() -> submit(payment), "payment " + payment.getId());
+            } else {
+                awaiting.add(payment);
+            }
+        }
+        if (!awaiting.isEmpty()) {
+            dispatch(() -> poll(awaiting), awaiting.size() + " awaiting payments");
+        }
+        return claimed.size();
+    }
+
+    // Trả về số payment đã được chốt kết quả
+    public int handleCallbacks(List<PaymentProvider.Result> results) {
+        Map<String, PaymentProvider.Result> byRef = new HashMap<>();
+        results.stream()
+                .filter(result -> result.providerRef() != null && result.outcome() != null)
+                .forEach(result -> byRef.put(result.providerRef(), result));
+        if (byRef.isEmpty()) {
+            return 0;
+        }
+        int settled = 0;
+        for (Payment payment : paymentRepository.findByProviderRefIn(byRef.keySet())) {
+            if (payment.getStatus() == PaymentStatus.PENDING && apply(payment, byRef.get(payment.getProviderRef()))) {
+                settled++;
+            }
+        }
+        return settled;
+    }
+
+    private List<Payment> claim(Collection<Long> ids) {
+        LocalDateTime now = now();
+        LocalDateTime leaseUntil = now.plus(lease);
+        Integer claimed = transactionTemplate.execute(status ->
+                paymentRepository.claim(ids, PaymentStatus.PENDING, now, leaseUntil));
+        if (claimed == null || claimed == 0) {
+            return List.of();
+        }
+        return paymentRepository.findClaimed(ids, leaseUntil);
+    }
+
+    // Giao cho worker rồi trả về ngay; hàng đợi đầy thì hết lease lượt reconcile sau nhận lại
+    private void dispatch(Runnable task, String description) {
+        inFlight.incrementAndGet();
+        try {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            log.debug("Payment worker queue is full, {} is left for reconciliation", description);
+        }
+    }
+
+    // Cho test: chờ worker chạy xong mọi việc đã giao
+    boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private void submit(Payment payment) {
+        PaymentProvider.Result result;
+        Timer.Sample sample = Timer.start();
+        try {
+            result = paymentProvider.submit("PAY-" + payment.getId(), payment.getAmount(), payment.getCurrency());
+        } catch (RuntimeException e) {
+            fail(payment, e.getMessage());
+            return;
+        } finally {
+            sample.stop(providerTimer);
+        }
+        apply(payment, result);
+    }
+
+    private void poll(List<Payment> payments) {
+        Map<String, Payment> byRef = new HashMap<>();
+        payments.forEach(payment -> byRef.put(payment.getProviderRef(), payment));
+        Map<String, PaymentProvider.Result> results;
+        Timer.Sample sample = Timer.start();
+        try {
+            results = paymentProvider.fetch(byRef.keySet());
+        } catch (RuntimeException e) {
+            payments.forEach(payment -> fail(payment, e.getMessage()));
+            return;
+        } finally {
+            sample.stop(providerTimer);
+        }
+        byRef.forEach((providerRef, payment) -> {
+            PaymentProvider.Result result = results.get(providerRef);
+            if (result == null) {
+                fail(payment, "Payment provider does not know " + providerRef);
+            } else {
+                apply(payment, result);
+            }
+        });
+    }
+
+    // true khi payment được chốt (COMPLETED / FAILED / REFUND_REQUIRED) bởi lần gọi này
+    private boolean apply(Payment payment, PaymentProvider.Result result) {
+        LocalDateTime now = now();
+        String message = truncate(result.message());
+        PaymentStatus settled = transactionTemplate.execute(status -> switch (result.outcome()) {
+            case PENDING -> {
+                paymentRepository.awaitProvider(payment.getId(), PaymentStatus.PENDING, result.providerRef(),
+                        now.plus(pollDelay), now);
+                yield null;
+            }
+            case DECLINED -> paymentRepository.settle(payment.getId(), PaymentStatus.PENDING, PaymentStatus.FAILED,
+                    result.providerRef(), message, now) == 1 ? PaymentStatus.FAILED : null;
+            case APPROVED -> {
+                if (paymentRepository.settle(payment.getId(), PaymentStatus.PENDING, PaymentStatus.COMPLETED,
+                        result.providerRef(), message, now) == 0) {
+                    yield null;
+                }
+                if (bookingRepository.markPaid(payment.getBooking().getId(), payment, BookingStatus.PENDING,
+                        BookingStatus.CONFIRMED, now) == 0) {
+                    // Booking bị huỷ / đã thanh toán cách khác trong lúc chờ cổng: tiền đã trừ, chờ hoàn tiền
+                    paymentRepository.settle(payment.getId(), PaymentStatus.COMPLETED, PaymentStatus.REFUND_REQUIRED,
+                            result.providerRef(), "Booking không còn chờ thanh toán, cần hoàn tiền", now);
+                    yield PaymentStatus.REFUND_REQUIRED;
+                }
+                yield PaymentStatus.COMPLETED;
+            }
+        });
+        if (settled == null) {
+            return false;
+        }
+        switch (settled) {
+            case COMPLETED -> completedCounter.increment();
+            case REFUND_REQUIRED -> {
+                refundRequiredCounter.increment();
+                log.error("Payment {} was approved by the provider ({}) but booking {} is no longer pending, refund required",
+                        payment.getId(), result.providerRef(), payment.getBooking().getId());
+            }
+            default -> failedCounter.increment();
+        }
+        return true;
+    }
+
+    private void fail(Payment payment, String error) {
+        int attempts = payment.getAttempts() + 1;
+        LocalDateTime now = now();
+        String message = truncate(error);
+        if (attempts >= maxAttempts) {
+            transactionTemplate.executeWithoutResult(status -> paymentRepository.settle(payment.getId(),
+                    PaymentStatus.PENDING, PaymentStatus.FAILED, payment.getProviderRef(),
+                    "Cổng thanh toán không phản hồi", now));
+            failedCounter.increment();
+            log.warn("Giving up payment {} after {} provider errors: {}", payment.getId(), attempts, message);
+            return;
+        }
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.recordFailure(payment.getId(),
+                PaymentStatus.PENDING, message, now.plus(delay), now));
+        retriedCounter.increment();
+    }
+
+    private static String truncate(String message) {
+        String value = String.valueOf(message);
+        return value.length() > MAX_MESSAGE_LENGTH ? value.substring(0, MAX_MESSAGE_LENGTH) : value;
+    }
+
+    // Cắt tới mili giây: leaseUntil được so bằng (=) với giá trị đã lưu trong DB
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,36 +1,80 @@
 package ra.api_project_react_native_booking.service.Impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.dto.request.PaymentCallbackRequest;
 import ra.api_project_react_native_booking.dto.request.PaymentCardRequest;
 import ra.api_project_react_native_booking.dto.request.PaymentRequest;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.PaymentCardResponse;
 import ra.api_project_react_native_booking.dto.response.PaymentResponse;
 import ra.api_project_react_native_booking.model.*;
 import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.PaymentMethod;
 import ra.api_project_react_native_booking.model.constants.PaymentStatus;
 import ra.api_project_react_native_booking.repository.PaymentCardRepository;
 import ra.api_project_react_native_booking.repository.PaymentRepository;
 import ra.api_project_react_native_booking.repository.UserRepository;
 import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
 import ra.api_project_react_native_booking.service.interfaces.PaymentService;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PaymentServiceImpl implements PaymentService {
+	private static final Set<PaymentMethod> CARD_METHODS = Set.of(PaymentMethod.CREDIT_CARD, PaymentMethod.DEBIT_CARD);
+	// Thanh toán qua cổng ngoài, xử lý bất đồng bộ bởi PaymentProcessor
+	private static final Set<PaymentMethod> PROVIDER_METHODS = Set.of(PaymentMethod.PAYPAL);
+	private static final String CURRENCY = "VND";
+
 	private final PaymentCardRepository paymentCardRepository;
 	private final PaymentRepository paymentRepository;
 	private final UserRepository userRepository;
 	private final BookingRepository bookingRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final PaymentProcessor paymentProcessor;
+	private final ObjectMapper objectMapper;
+
+	// Số lần thử lại khi đụng deadlock / hết thời gian chờ khoá dòng thẻ
+	@Value("${payment.debit.max-attempts:3}")
+	private int maxDebitAttempts;
+
+	@Value("${payment.debit.retry-backoff:20ms}")
+	private Duration debitRetryBackoff;
+
+	@Value("${payment.provider.webhook-secret:}")
+	private String webhookSecret;
 
 	@Override
 	public List<PaymentCardResponse> getMyCards(Long userId) {
@@ -67,11 +111,14 @@ public class PaymentServiceImpl implements PaymentService {
 
 		// Nếu là thẻ đầu tiên hoặc set default, thì set làm default
 		if (Boolean.TRUE.equals(card.getIsDefault()) || paymentCardRepository.countByUserId(userId) == 0) {
-			unsetDefaultForAll(userId);
 			card.setIsDefault(true);
 		}
 
-		return toCardResponse(paymentCardRepository.save(card));
+		PaymentCard saved = paymentCardRepository.save(card);
+		if (saved.getIsDefault()) {
+			unsetOtherDefaults(userId, saved.getId());
+		}
+		return toCardResponse(saved);
 	}
 
 	@Override
@@ -92,7 +139,7 @@ public class PaymentServiceImpl implements PaymentService {
 			card.setExpYear(req.getExpYear());
 
 		if (req.getIsDefault() != null && req.getIsDefault()) {
-			unsetDefaultForAll(userId);
+			unsetOtherDefaults(userId, cardId);
 			card.setIsDefault(true);
 		}
 
@@ -112,29 +159,231 @@ public class PaymentServiceImpl implements PaymentService {
 	public PaymentCardResponse setDefaultCard(Long userId, Long cardId) {
 		PaymentCard card = paymentCardRepository.findByIdAndUserId(cardId, userId)
 				.orElseThrow(() -> new RuntimeException("Card not found"));
-		unsetDefaultForAll(userId);
+		unsetOtherDefaults(userId, cardId);
 		card.setIsDefault(true);
 		return toCardResponse(paymentCardRepository.save(card));
 	}
 
+	/**
+	 * Thẻ lưu trong app: trừ số dư ngay, mỗi lần thử là một transaction ngắn (UPDATE có điều kiện cho số dư rồi cho
+	 * booking PENDING -> CONFIRMED, không SELECT ... FOR UPDATE). Cổng ngoài (PayPal): tạo payment PENDING và trả về
+	 * luôn, PaymentProcessor gửi lên cổng ở nền.
+	 */
 	@Override
 	public PaymentResponse payBooking(Long userId, PaymentRequest request) {
-		return null;
+		if (PROVIDER_METHODS.contains(request.getPaymentMethod())) {
+			return startProviderPayment(userId, request.getBookingId());
+		}
+		if (!CARD_METHODS.contains(request.getPaymentMethod())) {
+			throw new RuntimeException("Payment method " + request.getPaymentMethod() + " is not supported");
+		}
+		// Controller đã kiểm tra qua nhóm CardPayment; giữ lại cho các chỗ gọi service trực tiếp
+		if (isBlank(request.getCardNumber()) || isBlank(request.getCardHolderName())
+				|| isBlank(request.getExpiryDate()) || isBlank(request.getCvv())) {
+			throw new RuntimeException("Card number, card holder name, expiry date and CVV are required");
+		}
+		for (int attempt = 1; ; attempt++) {
+			try {
+				PaymentResponse payment = transactionTemplate.execute(status -> debitAndConfirm(userId, request, status));
+				return payment != null ? payment : existingPayment(request.getBookingId());
+			} catch (ConcurrencyFailureException e) {
+				if (attempt >= maxDebitAttempts) {
+					log.warn("Payment for booking {} failed after {} attempts: {}", request.getBookingId(), attempt, e.getMessage());
+					throw new RuntimeException("Payment could not be processed, please try again");
+				}
+				backoff(attempt);
+			}
+		}
+	}
+
+	private PaymentResponse startProviderPayment(Long userId, Long bookingId) {
+		if (!paymentProcessor.isProviderEnabled()) {
+			throw new RuntimeException("Thanh toán qua cổng ngoài chưa được cấu hình, vui lòng dùng thẻ");
+		}
+		PaymentResponse pending = transactionTemplate.execute(status -> {
+			Booking booking = findPayableBooking(userId, bookingId);
+			if (booking.getStatus() != BookingStatus.PENDING) {
+				return null;
+			}
+			// Gửi lại khi lần trước còn đang chờ cổng thì trả về payment đó, không tạo giao dịch thứ hai
+			Payment payment = paymentRepository.findFirstByBooking_IdAndStatusOrderByIdDesc(bookingId, PaymentStatus.PENDING)
+					.orElseGet(() -> paymentRepository.save(Payment.builder()
+							.user(booking.getUser())
+							.booking(booking)
+							.amount(booking.getTotalPrice())
+							.currency(CURRENCY)
+							.status(PaymentStatus.PENDING)
+							.message("Đang chờ cổng thanh toán xử lý")
+							.nextCheckAt(LocalDateTime.now())
+							.build()));
+			return toPaymentResponse(payment);
+		});
+		if (pending == null) {
+			return existingPayment(bookingId);
+		}
+		paymentProcessor.enqueue(pending.getId());
+		return pending;
 	}
 
+	@Override
+	public int handleProviderCallback(String payload, String signature) {
+		// Không có secret thì ai cũng ký được callback: từ chối mọi callback, phần còn lại của ứng dụng vẫn chạy
+		if (webhookSecret == null || webhookSecret.isBlank()) {
+			log.error("Rejected payment callback: payment.provider.webhook-secret (PAYMENT_WEBHOOK_SECRET) is not set");
+			throw new RuntimeException("Bạn không có quyền gửi callback thanh toán (chưa cấu hình webhook secret)");
+		}
+		if (signature == null || !MessageDigest.isEqual(sign(payload).getBytes(StandardCharsets.UTF_8),
+				signature.trim().toLowerCase().getBytes(StandardCharsets.UTF_8))) {
+			throw new RuntimeException("Bạn không có quyền gửi callback thanh toán (chữ ký không hợp lệ)");
+		}
+		List<PaymentCallbackRequest> callbacks;
+		try {
+			JsonNode root = objectMapper.readTree(payload);
+			callbacks = root.isArray()
+					? objectMapper.convertValue(root, new TypeReference<List<PaymentCallbackRequest>>() { })
+					: List.of(objectMapper.treeToValue(root, PaymentCallbackRequest.class));
+		} catch (JsonProcessingException | IllegalArgumentException e) {
+			throw new RuntimeException("Invalid callback payload");
+		}
+		return paymentProcessor.handleCallbacks(callbacks.stream()
+				.map(callback -> new PaymentProvider.Result(callback.getProviderRef(), callback.getStatus(), callback.getMessage()))
+				.toList());
+	}
+
+	// HMAC-SHA256 (hex) của body thô với payment.provider.webhook-secret
+	String sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Booking findPayableBooking(Long userId, Long bookingId) {
+		Booking booking = bookingRepository.findById(bookingId)
+				.orElseThrow(() -> new RuntimeException("Booking not found"));
+		if (!booking.getUser().getId().equals(userId)) {
+			throw new RuntimeException("Bạn không có quyền thanh toán booking này");
+		}
+		return booking;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+
+	// null khi booking không còn chờ thanh toán (đã huỷ, hoặc request khác vừa thanh toán xong)
+	private PaymentResponse debitAndConfirm(Long userId, PaymentRequest request, TransactionStatus status) {
+		Booking booking = findPayableBooking(userId, request.getBookingId());
+		if (booking.getStatus() != BookingStatus.PENDING) {
+			return null;
+		}
+		PaymentCard card = findCard(userId, request);
+		BigDecimal amount = booking.getTotalPrice();
+		if (isExpired(card)) {
+			return toPaymentResponse(savePayment(booking, card, amount, PaymentStatus.FAILED, "Thẻ đã hết hạn"));
+		}
+
+		LocalDateTime now = LocalDateTime.now();
+		if (paymentCardRepository.debit(card.getId(), amount, now) == 0) {
+			return toPaymentResponse(savePayment(booking, card, amount, PaymentStatus.FAILED, "Số dư thẻ không đủ"));
+		}
+		Payment payment = savePayment(booking, card, amount, PaymentStatus.COMPLETED, "Thanh toán thành công");
+		if (bookingRepository.markPaid(booking.getId(), payment, BookingStatus.PENDING, BookingStatus.CONFIRMED, now) == 0) {
+			// Rollback trả lại tiền vừa trừ và bỏ payment vừa tạo
+			status.setRollbackOnly();
+			return null;
+		}
+		return toPaymentResponse(payment);
+	}
+
+	// Gửi lại sau khi đã thanh toán thì trả về giao dịch cũ thay vì trừ tiền lần nữa
+	private PaymentResponse existingPayment(Long bookingId) {
+		return transactionTemplate.execute(status -> paymentRepository
+				.findByBookingIdAndStatus(bookingId, PaymentStatus.COMPLETED)
+				.map(this::toPaymentResponse)
+				.orElseThrow(() -> new RuntimeException("Booking is not awaiting payment")));
+	}
+
+	// Thẻ chỉ lưu 4 số cuối nên khớp theo 4 số cuối + ngày hết hạn (MM/YY hoặc MM/YYYY) + tên chủ thẻ
+	private PaymentCard findCard(Long userId, PaymentRequest request) {
+		String digits = request.getCardNumber().replaceAll("\\D", "");
+		String lastFour = digits.length() >= 4 ? digits.substring(digits.length() - 4) : digits;
+		YearMonth expiry = parseExpiry(request.getExpiryDate());
+		return paymentCardRepository.findByUserIdOrderByIsDefaultDescIdDesc(userId).stream()
+				.filter(card -> card.getCardNumber().endsWith(lastFour))
+				.filter(card -> expiry.equals(YearMonth.of(normalizeYear(card.getExpYear()), card.getExpMonth())))
+				.filter(card -> card.getCardHolderName() != null
+						&& request.getCardHolderName().trim().equalsIgnoreCase(card.getCardHolderName().trim()))
+				.findFirst()
+				.orElseThrow(() -> new RuntimeException("Card not found"));
+	}
+
+	private YearMonth parseExpiry(String expiryDate) {
+		String[] parts = expiryDate.trim().split("/");
+		try {
+			if (parts.length == 2) {
+				return YearMonth.of(normalizeYear(Integer.parseInt(parts[1].trim())), Integer.parseInt(parts[0].trim()));
+			}
+		} catch (RuntimeException ignored) {
+			// rơi xuống lỗi chung bên dưới
+		}
+		throw new RuntimeException("Expiry date must use the MM/YY format");
+	}
+
+	private int normalizeYear(int year) {
+		return year < 100 ? 2000 + year : year;
+	}
+
+	private boolean isExpired(PaymentCard card) {
+		return YearMonth.of(normalizeYear(card.getExpYear()), card.getExpMonth()).isBefore(YearMonth.now());
+	}
+
+	private Payment savePayment(Booking booking, PaymentCard card, BigDecimal amount, PaymentStatus status, String message) {
+		return paymentRepository.save(Payment.builder()
+				.user(booking.getUser())
+				.booking(booking)
+				.card(card)
+				.amount(amount)
+				.currency(CURRENCY)
+				.status(status)
+				.message(message)
+				.build());
+	}
+
+	private void backoff(int attempt) {
+		long base = debitRetryBackoff.toMillis() * attempt;
+		try {
+			Thread.sleep(base + ThreadLocalRandom.current().nextLong(base + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Payment was interrupted");
+		}
+	}
+
+	// Các hàm đọc dưới đây lấy thẳng PaymentResponse từ query, một câu SQL bất kể số payment
 	@Override
 	public List<PaymentResponse> getMyPayments(Long userId) {
-		return paymentRepository.findByUser_IdOrderByIdDesc(userId)
-				.stream().map(this::toPaymentResponse).collect(Collectors.toList());
+		return paymentRepository.findResponsesByUserId(userId);
+	}
+
+	@Override
+	public CursorPage<PaymentResponse> getMyPaymentsCursor(Long userId, String cursor, int size) {
+		Long afterId = SeekCursor.decodeId(cursor);
+		List<PaymentResponse> rows = afterId == null
+				? paymentRepository.findFirstResponsesByUserIdSeek(userId, SeekCursor.limit(size))
+				: paymentRepository.findResponsesByUserIdSeekAfter(userId, afterId, SeekCursor.limit(size));
+		return SeekCursor.toIdPage(rows, size, PaymentResponse::getId);
 	}
 
 	@Override
 	public PaymentResponse getPaymentByBookingId(Long bookingId) {
-		Payment payment = paymentRepository.findByBookingId(bookingId)
+		return paymentRepository.findResponsesByBookingId(bookingId, PageRequest.of(0, 1))
 				.stream()
 				.findFirst()
 				.orElseThrow(() -> new RuntimeException("Payment not found for booking"));
-		return toPaymentResponse(payment);
 	}
 
 	private PaymentCardResponse toCardResponse(PaymentCard c) {
@@ -166,9 +415,9 @@ public class PaymentServiceImpl implements PaymentService {
 				.userId(p.getUser().getId())
 				.bookingId(p.getBooking().getId())
 				.bookingCode(p.getBooking().getBookingCode())
-				.cardId(p.getCard().getId())
-				.cardNumber(p.getCard().getCardNumber()) // Masked
-				.cardBrand(p.getCard().getCardBrand())
+				.cardId(p.getCard() != null ? p.getCard().getId() : null)
+				.cardNumber(p.getCard() != null ? p.getCard().getCardNumber() : null) // Masked
+				.cardBrand(p.getCard() != null ? p.getCard().getCardBrand() : null)
 				.amount(p.getAmount())
 				.currency(p.getCurrency())
 				.status(p.getStatus())
@@ -178,14 +427,9 @@ public class PaymentServiceImpl implements PaymentService {
 				.build();
 	}
 
-	private void unsetDefaultForAll(Long userId) {
-		List<PaymentCard> cards = paymentCardRepository.findByUserIdOrderByIsDefaultDescIdDesc(userId);
-		for (PaymentCard card : cards) {
-			if (Boolean.TRUE.equals(card.getIsDefault())) {
-				card.setIsDefault(false);
-			}
-		}
-		paymentCardRepository.saveAll(cards);
+	// Một câu UPDATE dù user có bao nhiêu thẻ; thẻ đang giữ trong tay được loại trừ nên version của nó không đổi
+	private void unsetOtherDefaults(Long userId, Long keepCardId) {
+		paymentCardRepository.unsetDefaultExcept(userId, keepCardId, LocalDateTime.now());
 	}
 
 	private String maskCardNumber(String cardNumber) {
@@ -0,0 +1,239 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ra.api_project_react_native_booking.dto.response.PriceQuoteResponse;
+import ra.api_project_react_native_booking.repository.RoomRateOverrideRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.PricingService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lịch giá theo đêm của từng phòng, biên dịch sẵn thành mảng long (đơn vị 1/100) cho cửa sổ horizon ngày kể từ hôm nay:
+ * phần tử thứ i là giá đêm baseDay + i, đã gồm giá giảm, giá theo mùa (RoomRateOverride) và phụ thu cuối tuần.
+ * Báo giá là cộng các phần tử của kỳ lưu trú rồi trừ giảm giá ở dài ngày, không truy vấn database;
+ * khoảng ngày nằm ngoài cửa sổ được tính thẳng từ database.
+ */
+@Service
+@Slf4j
+public class PricingServiceImpl implements PricingService {
+
+    private static final String CURRENCY = "VND";
+    // Chặn báo giá cho khoảng ngày vô lý (mỗi đêm một phần tử mảng)
+    private static final int MAX_STAY_NIGHTS = 366;
+
+    private final RoomRepository roomRepository;
+    private final RoomRateOverrideRepository rateOverrideRepository;
+    private final int horizonDays;
+    private final Set<DayOfWeek> weekendNights;
+    private final int weekendSurchargePercent;
+    // Số đêm tối thiểu -> % giảm trên tổng tiền phòng
+    private final NavigableMap<Integer, Integer> lengthOfStayDiscounts;
+
+    // null cho tới khi nạp xong lúc khởi động
+    private volatile Snapshot snapshot;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public PricingServiceImpl(RoomRepository roomRepository,
+                              RoomRateOverrideRepository rateOverrideRepository,
+                              @Value("${pricing.horizon-days:365}") int horizonDays,
+                              @Value("${pricing.weekend-nights:FRIDAY,SATURDAY}") String weekendNights,
+                              @Value("${pricing.weekend-surcharge-percent:0}") int weekendSurchargePercent,
+                              @Value("${pricing.length-of-stay-discounts:}") String lengthOfStayDiscounts) {
+        this.roomRepository = roomRepository;
+        this.rateOverrideRepository = rateOverrideRepository;
+        this.horizonDays = Math.max(1, horizonDays);
+        this.weekendNights = parseDays(weekendNights);
+        this.weekendSurchargePercent = weekendSurchargePercent;
+        this.lengthOfStayDiscounts = parseDiscounts(lengthOfStayDiscounts);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    // Dịch cửa sổ sang ngày mới và nhận giá / override đã sửa trong database
+    @Scheduled(fixedDelayString = "${pricing.reload-interval:600000}", initialDelayString = "${pricing.reload-interval:600000}")
+    @Override
+    public void reload() {
+        writeLock.lock();
+        try {
+            LocalDate baseDay = LocalDate.now();
+            Map<Long, List<Object[]>> overrides = new HashMap<>();
+            for (Object[] row : rateOverrideRepository.findActiveRates(baseDay)) {
+                overrides.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+            }
+            Snapshot next = new Snapshot(baseDay, horizonDays);
+            for (Object[] room : roomRepository.findBaseRates()) {
+                Long roomId = (Long) room[0];
+                next.rates.put(roomId, compile((BigDecimal) room[1], (BigDecimal) room[2],
+                        overrides.getOrDefault(roomId, List.of()), baseDay, horizonDays));
+            }
+            snapshot = next;
+            log.info("Compiled rate calendars for {} rooms from {} ({} days)", next.rates.size(), baseDay, horizonDays);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public PriceQuoteResponse quote(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+        long days = ChronoUnit.DAYS.between(checkIn, checkOut);
+        if (days > MAX_STAY_NIGHTS) {
+            throw new RuntimeException("Stay is too long");
+        }
+        int nights = (int) days;
+
+        long[] rates;
+        int offset;
+        Snapshot current = snapshot;
+        if (current != null && current.covers(checkIn, checkOut)) {
+            rates = current.rates.get(roomId);
+            if (rates == null) {
+                // Phòng thêm sau lần nạp gần nhất
+                rates = compileFromDatabase(roomId, current.baseDay, current.horizonDays);
+                current.rates.putIfAbsent(roomId, rates);
+            }
+            offset = (int) ChronoUnit.DAYS.between(current.baseDay, checkIn);
+        } else {
+            rates = compileFromDatabase(roomId, checkIn, nights);
+            offset = 0;
+        }
+
+        long subtotal = 0;
+        List<BigDecimal> nightlyRates = new ArrayList<>(nights);
+        for (int i = offset; i < offset + nights; i++) {
+            subtotal += rates[i];
+            nightlyRates.add(fromMinor(rates[i]));
+        }
+        Map.Entry<Integer, Integer> rule = lengthOfStayDiscounts.floorEntry(nights);
+        int discountPercent = rule != null ? rule.getValue() : 0;
+        long discount = percentOf(subtotal, discountPercent);
+
+        return PriceQuoteResponse.builder()
+                .roomId(roomId)
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .nights(nights)
+                .nightlyRates(nightlyRates)
+                .subtotal(fromMinor(subtotal))
+                .lengthOfStayDiscountPercent(discountPercent)
+                .discountAmount(fromMinor(discount))
+                .totalPrice(fromMinor(subtotal - discount))
+                .currency(CURRENCY)
+                .build();
+    }
+
+    private long[] compileFromDatabase(Long roomId, LocalDate from, int days) {
+        Object[] room = roomRepository.findBaseRateById(roomId).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+        List<Object[]> overrides = rateOverrideRepository.findRatesByRoomId(roomId, from, from.plusDays(days));
+        return compile((BigDecimal) room[1], (BigDecimal) room[2], overrides, from, days);
+    }
+
+    // overrides: [roomId, startDate, endDate, price] theo thứ tự id, override sau đè override trước
+    private long[] compile(BigDecimal price, BigDecimal discountPrice, List<Object[]> overrides, LocalDate from, int days) {
+        BigDecimal base = discountPrice != null && discountPrice.signum() > 0 && discountPrice.compareTo(price) < 0
+                ? discountPrice
+                : price;
+        long[] rates = new long[days];
+        Arrays.fill(rates, toMinor(base));
+        for (Object[] override : overrides) {
+            int start = clamp(ChronoUnit.DAYS.between(from, (LocalDate) override[1]), days);
+            int end = clamp(ChronoUnit.DAYS.between(from, (LocalDate) override[2]), days);
+            if (start < end) {
+                Arrays.fill(rates, start, end, toMinor((BigDecimal) override[3]));
+            }
+        }
+        if (weekendSurchargePercent != 0) {
+            for (int i = 0; i < days; i++) {
+                if (weekendNights.contains(from.plusDays(i).getDayOfWeek())) {
+                    rates[i] += percentOf(rates[i], weekendSurchargePercent);
+                }
+            }
+        }
+        return rates;
+    }
+
+    private static int clamp(long index, int days) {
+        return (int) Math.max(0, Math.min(index, days));
+    }
+
+    // Làm tròn half-up tới đơn vị 1/100
+    private static long percentOf(long amount, int percent) {
+        return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(percent))
+                .divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal fromMinor(long amount) {
+        return BigDecimal.valueOf(amount, 2);
+    }
+
+    private static Set<DayOfWeek> parseDays(String value) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : value.split(",")) {
+            if (!day.isBlank()) {
+                days.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            }
+        }
+        return days;
+    }
+
+    // "7:10,28:20" = từ 7 đêm giảm 10%, từ 28 đêm giảm 20%
+    private static NavigableMap<Integer, Integer> parseDiscounts(String value) {
+        NavigableMap<Integer, Integer> discounts = new TreeMap<>();
+        for (String rule : value.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid length-of-stay discount rule: " + rule);
+            }
+            int percent = Integer.parseInt(parts[1].trim());
+            if (percent < 0 || percent > 100) {
+                throw new IllegalArgumentException("Invalid length-of-stay discount rule: " + rule);
+            }
+            discounts.put(Integer.parseInt(parts[0].trim()), percent);
+        }
+        return discounts;
+    }
+
+    private static final class Snapshot {
+        private final LocalDate baseDay;
+        private final int horizonDays;
+        // Mảng trong map không bị sửa sau khi publish
+        private final Map<Long, long[]> rates = new ConcurrentHashMap<>();
+
+        private Snapshot(LocalDate baseDay, int horizonDays) {
+            this.baseDay = baseDay;
+            this.horizonDays = horizonDays;
+        }
+
+        private boolean covers(LocalDate checkIn, LocalDate checkOut) {
+            return !checkIn.isBefore(baseDay) && !checkOut.isAfter(baseDay.plusDays(horizonDays));
+        }
+    }
+}
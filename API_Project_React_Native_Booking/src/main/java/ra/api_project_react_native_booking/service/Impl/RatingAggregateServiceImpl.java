@@ -0,0 +1,61 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ra.api_project_react_native_booking.model.Review;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.RatingAggregateService;
+
+/**
+ * Duy trì (rating_sum, review_count) trên hotels/rooms để không phải load toàn bộ reviews khi tính trung bình.
+ * Các hàm on* phải được gọi trong cùng transaction với thao tác ghi review.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregateServiceImpl implements RatingAggregateService {
+
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+
+    @Override
+    public void onReviewAdded(Review review) {
+        applyDelta(review, review.getRating(), 1);
+    }
+
+    @Override
+    public void onReviewUpdated(Review review, int previousRating) {
+        applyDelta(review, review.getRating() - previousRating, 0);
+    }
+
+    @Override
+    public void onReviewDeleted(Review review) {
+        applyDelta(review, -review.getRating(), -1);
+    }
+
+    // Đối soát định kỳ, đồng thời khởi tạo giá trị cho dữ liệu cũ khi mới thêm cột
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${rating.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    @Override
+    public void reconcile() {
+        int hotels = hotelRepository.reconcileRatingAggregates();
+        int rooms = roomRepository.reconcileRatingAggregates();
+        log.info("Reconciled rating aggregates for {} hotels and {} rooms", hotels, rooms);
+    }
+
+    private void applyDelta(Review review, long ratingDelta, long countDelta) {
+        if (review.getHotel() != null) {
+            hotelRepository.applyRatingDelta(review.getHotel().getId(), ratingDelta, countDelta);
+        }
+        if (review.getRoom() != null) {
+            roomRepository.applyRatingDelta(review.getRoom().getId(), ratingDelta, countDelta);
+        }
+    }
+}
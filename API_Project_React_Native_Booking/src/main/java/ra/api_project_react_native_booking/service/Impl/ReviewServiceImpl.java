@@ -1,25 +1,40 @@
 package ra.api_project_react_native_booking.service.Impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ra.api_project_react_native_booking.dto.request.ReviewRequest;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.ReviewResponse;
+import ra.api_project_react_native_booking.event.HotelChangedEvent;
 import ra.api_project_react_native_booking.model.Review;
 import ra.api_project_react_native_booking.model.User;
+import ra.api_project_react_native_booking.repository.HotelRepository;
 import ra.api_project_react_native_booking.repository.ReviewRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
 import ra.api_project_react_native_booking.repository.UserRepository;
+import ra.api_project_react_native_booking.repository.projection.RatingAggregate;
+import ra.api_project_react_native_booking.service.interfaces.RatingAggregateService;
 import ra.api_project_react_native_booking.service.interfaces.ReviewService;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class ReviewServiceImpl implements ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional
     public ReviewResponse addReview(ReviewRequest reviewRequest, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -31,17 +46,45 @@ public class ReviewServiceImpl implements ReviewService {
                 .build();
 
         if (reviewRequest.getHotelId() != null) {
-            // Set hotel logic
+            review.setHotel(hotelRepository.findById(reviewRequest.getHotelId())
+                    .orElseThrow(() -> new RuntimeException("Hotel not found")));
         }
 
         if (reviewRequest.getRoomId() != null) {
-            // Set room logic
+            review.setRoom(roomRepository.findById(reviewRequest.getRoomId())
+                    .orElseThrow(() -> new RuntimeException("Room not found")));
         }
 
         Review savedReview = reviewRepository.save(review);
+        ratingAggregateService.onReviewAdded(savedReview);
+        publishHotelChanged(savedReview);
         return convertToReviewResponse(savedReview);
     }
 
+    @Override
+    @Transactional
+    public ReviewResponse updateReview(Long reviewId, ReviewRequest reviewRequest, Long userId) {
+        Review review = findOwnedReview(reviewId, userId);
+        int previousRating = review.getRating();
+
+        review.setRating(reviewRequest.getRating());
+        review.setComment(reviewRequest.getComment());
+
+        Review updatedReview = reviewRepository.save(review);
+        ratingAggregateService.onReviewUpdated(updatedReview, previousRating);
+        publishHotelChanged(updatedReview);
+        return convertToReviewResponse(updatedReview);
+    }
+
+    @Override
+    @Transactional
+    public void deleteReview(Long reviewId, Long userId) {
+        Review review = findOwnedReview(reviewId, userId);
+        ratingAggregateService.onReviewDeleted(review);
+        reviewRepository.delete(review);
+        publishHotelChanged(review);
+    }
+
     @Override
     public Page<ReviewResponse> getReviewsByRoom(Long roomId, Pageable pageable) {
         Page<Review> reviews = reviewRepository.findByRoomId(roomId, pageable);
@@ -54,6 +97,24 @@ public class ReviewServiceImpl implements ReviewService {
         return reviews.map(this::convertToReviewResponse);
     }
 
+    @Override
+    public CursorPage<ReviewResponse> getReviewsByRoomCursor(Long roomId, String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Review> reviews = after == null
+                ? reviewRepository.findFirstByRoomIdSeek(roomId, SeekCursor.limit(size))
+                : reviewRepository.findByRoomIdSeekAfter(roomId, after.createdAt(), after.id(), SeekCursor.limit(size));
+        return toCursorPage(reviews, size);
+    }
+
+    @Override
+    public CursorPage<ReviewResponse> getReviewsByHotelCursor(Long hotelId, String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Review> reviews = after == null
+                ? reviewRepository.findFirstByHotelIdSeek(hotelId, SeekCursor.limit(size))
+                : reviewRepository.findByHotelIdSeekAfter(hotelId, after.createdAt(), after.id(), SeekCursor.limit(size));
+        return toCursorPage(reviews, size);
+    }
+
     @Override
     public Page<ReviewResponse> getReviewsByUser(Long userId, Pageable pageable) {
         Page<Review> reviews = reviewRepository.findByUserId(userId, pageable);
@@ -62,12 +123,37 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     public Double getAverageRatingByRoom(Long roomId) {
-        return reviewRepository.findAverageRatingByRoomId(roomId);
+        return roomRepository.findRatingAggregateById(roomId)
+                .map(RatingAggregate::getAverageRating)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
     }
 
     @Override
     public Double getAverageRatingByHotel(Long hotelId) {
-        return reviewRepository.findAverageRatingByHotelId(hotelId);
+        return hotelRepository.findRatingAggregateById(hotelId)
+                .map(RatingAggregate::getAverageRating)
+                .orElseThrow(() -> new RuntimeException("Hotel not found"));
+    }
+
+    // Rating trung bình hiển thị trong catalog khách sạn, cần xoá cache sau khi commit
+    private void publishHotelChanged(Review review) {
+        if (review.getHotel() != null) {
+            eventPublisher.publishEvent(new HotelChangedEvent(review.getHotel().getId()));
+        }
+    }
+
+    private CursorPage<ReviewResponse> toCursorPage(List<Review> reviews, int size) {
+        return SeekCursor.toPage(reviews, size, Review::getCreatedAt, Review::getId,
+                page -> page.stream().map(this::convertToReviewResponse).toList());
+    }
+
+    private Review findOwnedReview(Long reviewId, Long userId) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Review not found"));
+        if (!review.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Bạn không có quyền thao tác với review này");
+        }
+        return review;
     }
 
     private ReviewResponse convertToReviewResponse(Review review) {
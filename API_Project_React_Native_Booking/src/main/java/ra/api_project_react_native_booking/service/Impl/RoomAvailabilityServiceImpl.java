@@ -0,0 +1,196 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ra.api_project_react_native_booking.model.Booking;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.RoomAvailabilityService;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Giữ bitmap số đêm đã bị chiếm của từng phòng trong một cửa sổ trượt (mặc định 365 ngày),
+ * bit thứ i tương ứng với đêm baseDay + i. Khoảng ngày nằm ngoài cửa sổ sẽ fallback về database.
+ * Bitmap chỉ giữ lịch chiếm phòng; phòng nào đang mở bán (isAvailable) luôn đọc trực tiếp từ database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
+
+    // Các trạng thái booking đang giữ phòng (PENDING cũng giữ để không bán trùng trong lúc chờ thanh toán)
+    public static final List<BookingStatus> OCCUPYING_STATUSES = List.of(
+            BookingStatus.PENDING,
+            BookingStatus.CONFIRMED,
+            BookingStatus.CHECKED_IN
+    );
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+
+    @Value("${availability.horizon-days:365}")
+    private int horizonDays;
+
+    // null cho tới khi nạp xong lúc khởi động
+    private volatile Snapshot snapshot;
+    // Lock thay cho synchronized: giữ monitor trong lúc chờ JDBC sẽ ghim carrier thread khi chạy virtual thread (Java 21)
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    // Dịch cửa sổ sang ngày mới
+    @Scheduled(cron = "${availability.reload-cron:0 5 0 * * *}")
+    @Override
+    public void reload() {
+        reload(LocalDate.now());
+    }
+
+    void reload(LocalDate baseDay) {
+        writeLock.lock();
+        try {
+            Snapshot next = new Snapshot(baseDay, horizonDays);
+            for (Object[] row : bookingRepository.findOccupiedRanges(OCCUPYING_STATUSES, baseDay)) {
+                BitSet bits = next.nights.computeIfAbsent((Long) row[0], id -> new BitSet(horizonDays));
+                next.setRange(bits, (LocalDate) row[1], (LocalDate) row[2]);
+            }
+            snapshot = next;
+            log.info("Loaded availability bitmap for {} rooms from {} ({} days)", next.nights.size(), baseDay, horizonDays);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean covers(LocalDate checkIn, LocalDate checkOut) {
+        return usableSnapshot(checkIn, checkOut) != null;
+    }
+
+    @Override
+    public boolean isRoomBooked(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        validateRange(checkIn, checkOut);
+        Snapshot current = usableSnapshot(checkIn, checkOut);
+        if (current == null) {
+            return bookingRepository.isRoomBooked(roomId, checkIn, checkOut);
+        }
+        return current.isOccupied(roomId, checkIn, checkOut);
+    }
+
+    // Thứ tự theo id phòng; phòng mới thêm sau lần nạp chưa có bitmap nên được coi là trống
+    @Override
+    public List<Long> getAvailableRoomIds(LocalDate checkIn, LocalDate checkOut) {
+        validateRange(checkIn, checkOut);
+        Snapshot current = usableSnapshot(checkIn, checkOut);
+        if (current == null) {
+            throw new IllegalStateException("Date range is outside the availability window");
+        }
+        List<Long> roomIds = new ArrayList<>();
+        for (Long roomId : roomRepository.findAvailableRoomIds()) {
+            if (!current.isOccupied(roomId, checkIn, checkOut)) {
+                roomIds.add(roomId);
+            }
+        }
+        return roomIds;
+    }
+
+    @Override
+    public void onBookingChanged(Booking booking) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Long roomId = booking.getRoom().getId();
+            if (OCCUPYING_STATUSES.contains(booking.getStatus())) {
+                // Chiếm thêm đêm: set bit trên bản sao, không cần database
+                BitSet bits = copyOf(current.nights.get(roomId));
+                current.setRange(bits, booking.getCheckInDate(), booking.getCheckOutDate());
+                current.nights.put(roomId, bits);
+            } else {
+                // Nhả đêm: các booking khác có thể chồng lên cùng đêm nên nạp lại phòng này
+                BitSet bits = new BitSet(current.horizonDays);
+                for (Object[] row : bookingRepository.findOccupiedRangesByRoomId(roomId, OCCUPYING_STATUSES, current.baseDay)) {
+                    current.setRange(bits, (LocalDate) row[0], (LocalDate) row[1]);
+                }
+                current.nights.put(roomId, bits);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Từ nửa đêm tới lần reload kế tiếp, cửa sổ vẫn bắt đầu từ hôm qua: hỏi database cho tới khi dịch xong
+    private Snapshot usableSnapshot(LocalDate checkIn, LocalDate checkOut) {
+        Snapshot current = snapshot;
+        if (current == null || current.baseDay.isBefore(LocalDate.now()) || !current.covers(checkIn, checkOut)) {
+            return null;
+        }
+        return current;
+    }
+
+    private void validateRange(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+    }
+
+    private BitSet copyOf(BitSet bits) {
+        return bits != null ? (BitSet) bits.clone() : new BitSet();
+    }
+
+    private static final class Snapshot {
+        private final LocalDate baseDay;
+        private final int horizonDays;
+        // BitSet trong map không bị sửa sau khi publish, mỗi lần cập nhật thay bằng bản sao mới
+        private final Map<Long, BitSet> nights = new ConcurrentHashMap<>();
+
+        private Snapshot(LocalDate baseDay, int horizonDays) {
+            this.baseDay = baseDay;
+            this.horizonDays = horizonDays;
+        }
+
+        private int indexOf(LocalDate date) {
+            long index = ChronoUnit.DAYS.between(baseDay, date);
+            return (int) Math.max(0, Math.min(index, horizonDays));
+        }
+
+        private boolean covers(LocalDate checkIn, LocalDate checkOut) {
+            return !checkIn.isBefore(baseDay) && !checkOut.isAfter(baseDay.plusDays(horizonDays));
+        }
+
+        private void setRange(BitSet bits, LocalDate checkIn, LocalDate checkOut) {
+            int from = indexOf(checkIn);
+            int to = indexOf(checkOut);
+            if (from < to) {
+                bits.set(from, to);
+            }
+        }
+
+        // Đêm được tính theo nửa khoảng [checkIn, checkOut)
+        private boolean isOccupied(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+            BitSet bits = nights.get(roomId);
+            if (bits == null) {
+                return false;
+            }
+            int next = bits.nextSetBit(indexOf(checkIn));
+            return next >= 0 && next < indexOf(checkOut);
+        }
+    }
+}
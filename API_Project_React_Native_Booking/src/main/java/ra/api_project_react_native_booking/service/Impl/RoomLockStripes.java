@@ -0,0 +1,48 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Khoá theo phòng bằng lock striping: roomId mod số stripe, nên các phòng có id liên tiếp
+ * (trong phạm vi số stripe) không bao giờ tranh chung một khoá.
+ */
+@Component
+public class RoomLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final Duration timeout;
+
+    public RoomLockStripes(@Value("${booking.lock-stripes:1024}") int stripeCount,
+                           @Value("${booking.lock-timeout:5s}") Duration timeout) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeout = timeout;
+    }
+
+    public <T> T withRoomLock(Long roomId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(roomId, stripes.length)];
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Booking interrupted, please try again");
+        }
+        if (!acquired) {
+            throw new RuntimeException("Room is busy, please try again");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
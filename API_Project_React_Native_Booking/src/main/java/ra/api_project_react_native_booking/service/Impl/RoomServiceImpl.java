@@ -2,22 +2,29 @@ package ra.api_project_react_native_booking.service.Impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ra.api_project_react_native_booking.dto.request.RoomFilterRequest;
 import ra.api_project_react_native_booking.dto.request.RoomSearchRequest;
 import ra.api_project_react_native_booking.dto.response.AmenityResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.RoomImageResponse;
 import ra.api_project_react_native_booking.dto.response.RoomResponse;
 import ra.api_project_react_native_booking.dto.response.RoomTypeResponse;
+import ra.api_project_react_native_booking.model.Amenity;
 import ra.api_project_react_native_booking.model.Room;
+import ra.api_project_react_native_booking.model.RoomImage;
 import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.RoomAvailabilityService;
 import ra.api_project_react_native_booking.service.interfaces.RoomService;
-import org.hibernate.Hibernate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +32,7 @@ import java.util.stream.Collectors;
 public class RoomServiceImpl implements RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomAvailabilityService roomAvailabilityService;
 
     @Override
     public Page<RoomResponse> searchRooms(RoomSearchRequest searchRequest, Pageable pageable) {
@@ -36,14 +44,14 @@ public class RoomServiceImpl implements RoomService {
                 searchRequest.getMinCapacity(),
                 pageable
         );
-        return rooms.map(this::convertToRoomResponse);
+        return toRoomResponsePage(rooms);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<RoomResponse> getRoomsByHotel(Long hotelId, Pageable pageable) {
         Page<Room> rooms = roomRepository.findByHotelId(hotelId, pageable);
-        return rooms.map(this::convertToRoomResponse);
+        return toRoomResponsePage(rooms);
     }
 
     @Override
@@ -55,10 +63,11 @@ public class RoomServiceImpl implements RoomService {
 
     @Override
     public List<RoomResponse> getAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
-        List<Room> rooms = roomRepository.findAvailableRooms(checkIn, checkOut);
-        return rooms.stream()
-                .map(this::convertToRoomResponse)
-                .collect(Collectors.toList());
+        // Trả lời từ bitmap trong bộ nhớ, chỉ fallback về query NOT IN khi ngoài cửa sổ
+        List<Room> rooms = roomAvailabilityService.covers(checkIn, checkOut)
+                ? roomRepository.findAllByIdInOrderById(roomAvailabilityService.getAvailableRoomIds(checkIn, checkOut))
+                : roomRepository.findAvailableRooms(checkIn, checkOut);
+        return convertToRoomResponses(rooms);
     }
 
     @Override
@@ -71,76 +80,104 @@ public class RoomServiceImpl implements RoomService {
                 filterRequest.getMinCapacity(),
                 pageable
         );
-        return rooms.map(this::convertToRoomResponse);
+        return toRoomResponsePage(rooms);
     }
 
     @Override
     public Page<RoomResponse> getRoomsByStatus(Boolean isAvailable, Pageable pageable) {
         Page<Room> rooms = roomRepository.findByIsAvailable(isAvailable, pageable);
-        return rooms.map(this::convertToRoomResponse);
+        return toRoomResponsePage(rooms);
     }
 
     @Override
     public Page<RoomResponse> getAllRooms(Pageable pageable) {
         Page<Room> rooms = roomRepository.findAll(pageable);
-        return rooms.map(this::convertToRoomResponse);
+        return toRoomResponsePage(rooms);
     }
 
-    private RoomResponse convertToRoomResponse(Room room) {
-        // Force initialize lazy collections để tránh LazyInitializationException
-        Hibernate.initialize(room.getImages());
-        Hibernate.initialize(room.getAmenities());
-        Hibernate.initialize(room.getReviews());
-        Hibernate.initialize(room.getRoomType());
-        
-        // Convert RoomType to DTO
-        RoomTypeResponse roomTypeResponse = null;
-        if (room.getRoomType() != null) {
-            roomTypeResponse = RoomTypeResponse.builder()
-                    .id(room.getRoomType().getId())
-                    .name(room.getRoomType().getName())
-                    .description(room.getRoomType().getDescription())
-                    .build();
+    @Override
+    public CursorPage<RoomResponse> getAllRoomsCursor(String cursor, int size) {
+        SeekCursor after = SeekCursor.decode(cursor);
+        List<Room> rooms = after == null
+                ? roomRepository.findFirstSeek(SeekCursor.limit(size))
+                : roomRepository.findSeekAfter(after.createdAt(), after.id(), SeekCursor.limit(size));
+        return SeekCursor.toPage(rooms, size, Room::getCreatedAt, Room::getId, this::convertToRoomResponses);
+    }
+
+    private Page<RoomResponse> toRoomResponsePage(Page<Room> rooms) {
+        return new PageImpl<>(convertToRoomResponses(rooms.getContent()), rooms.getPageable(), rooms.getTotalElements());
+    }
+
+    RoomResponse convertToRoomResponse(Room room) {
+        return convertToRoomResponses(List.of(room)).get(0);
+    }
+
+    // Dựng DTO cho cả danh sách với số query cố định: ảnh, tiện ích mỗi loại một query
+    // (roomType đã được fetch cùng query lấy phòng qua @EntityGraph)
+    List<RoomResponse> convertToRoomResponses(List<Room> rooms) {
+        if (rooms.isEmpty()) {
+            return List.of();
         }
-        
-        return RoomResponse.builder()
-                .id(room.getId())
-                .roomNumber(room.getRoomNumber())
-                .hotel(null) // Không include hotel để tránh circular reference
-                .roomType(roomTypeResponse)
-                .price(room.getPrice())
-                .discountPrice(room.getDiscountPrice())
-                .capacity(room.getCapacity())
-                .roomSize(room.getRoomSize())
-                .isAvailable(room.getIsAvailable())
-                .description(room.getDescription())
-                .averageRating(calculateRoomAverageRating(room))
-                .images(room.getImages() != null ? room.getImages().stream()
-                        .map(image -> RoomImageResponse.builder()
-                                .id(image.getId())
-                                .imageUrl(image.getImageUrl())
-                                .isPrimary(image.getIsPrimary())
-                                .build())
-                        .collect(Collectors.toList()) : List.of())
-                .amenities(room.getAmenities() != null ? room.getAmenities().stream()
-                        .map(amenity -> AmenityResponse.builder()
-                                .id(amenity.getId())
-                                .name(amenity.getName())
-                                .icon(amenity.getIcon())
-                                .description(amenity.getDescription())
-                                .build())
-                        .collect(Collectors.toList()) : List.of())
-                .reviewCount(room.getReviews() != null ? (long) room.getReviews().size() : 0L)
-                .build();
+        List<Long> roomIds = rooms.stream().map(Room::getId).collect(Collectors.toList());
+
+        Map<Long, List<RoomImageResponse>> imagesByRoom = new HashMap<>();
+        for (Object[] row : roomRepository.findImagesByRoomIds(roomIds)) {
+            RoomImage image = (RoomImage) row[1];
+            imagesByRoom.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(RoomImageResponse.builder()
+                            .id(image.getId())
+                            .imageUrl(image.getImageUrl())
+                            .isPrimary(image.getIsPrimary())
+                            .build());
+        }
+
+        Map<Long, List<AmenityResponse>> amenitiesByRoom = new HashMap<>();
+        for (Object[] row : roomRepository.findAmenitiesByRoomIds(roomIds)) {
+            Amenity amenity = (Amenity) row[1];
+            amenitiesByRoom.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(AmenityResponse.builder()
+                            .id(amenity.getId())
+                            .name(amenity.getName())
+                            .icon(amenity.getIcon())
+                            .description(amenity.getDescription())
+                            .build());
+        }
+
+        return rooms.stream().map(room -> {
+            // Convert RoomType to DTO
+            RoomTypeResponse roomTypeResponse = null;
+            if (room.getRoomType() != null) {
+                roomTypeResponse = RoomTypeResponse.builder()
+                        .id(room.getRoomType().getId())
+                        .name(room.getRoomType().getName())
+                        .description(room.getRoomType().getDescription())
+                        .build();
+            }
+
+            return RoomResponse.builder()
+                    .id(room.getId())
+                    .roomNumber(room.getRoomNumber())
+                    .hotel(null) // Không include hotel để tránh circular reference
+                    .roomType(roomTypeResponse)
+                    .price(room.getPrice())
+                    .discountPrice(room.getDiscountPrice())
+                    .capacity(room.getCapacity())
+                    .roomSize(room.getRoomSize())
+                    .isAvailable(room.getIsAvailable())
+                    .description(room.getDescription())
+                    .averageRating(calculateRoomAverageRating(room))
+                    .images(imagesByRoom.getOrDefault(room.getId(), List.of()))
+                    .amenities(amenitiesByRoom.getOrDefault(room.getId(), List.of()))
+                    .reviewCount(room.getReviewCount() != null ? room.getReviewCount() : 0L)
+                    .build();
+        }).collect(Collectors.toList());
     }
-    
+
+    // Tính từ (rating_sum, review_count) đã denormalize, không load reviews
     private Double calculateRoomAverageRating(Room room) {
-        if (room.getReviews() == null || room.getReviews().isEmpty()) {
+        if (room.getReviewCount() == null || room.getReviewCount() == 0) {
             return 0.0;
         }
-        return room.getReviews().stream()
-                .mapToInt(review -> review.getRating())
-                .average()
-                .orElse(0.0);
+        return room.getRatingSum() / (double) room.getReviewCount();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Vị trí (createdAt, id) của dòng cuối trang trước, client chỉ thấy chuỗi base64 không cần hiểu nội dung.
+ * Các query seek sắp xếp theo createdAt DESC, id DESC.
+ */
+public record SeekCursor(LocalDateTime createdAt, Long id) {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null/rỗng là trang đầu
+    public static SeekCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    // Lấy dư một dòng để biết còn trang sau hay không
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, clamp(size) + 1);
+    }
+
+    public static <E, T> CursorPage<T> toPage(List<E> rows, int size,
+                                              Function<E, LocalDateTime> createdAt,
+                                              Function<E, Long> id,
+                                              Function<List<E>, List<T>> mapper) {
+        int pageSize = clamp(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<E> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            E last = page.get(page.size() - 1);
+            nextCursor = new SeekCursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        return CursorPage.<T>builder()
+                .content(mapper.apply(page))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .build();
+    }
+
+    // Biến thể chỉ theo id cho các query sắp xếp id DESC (id tăng cùng thứ tự tạo)
+    public static String encodeId(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public static <T> CursorPage<T> toIdPage(List<T> rows, int size, Function<T, Long> id) {
+        int pageSize = clamp(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<T> page = hasNext ? rows.subList(0, pageSize) : rows;
+        return CursorPage.<T>builder()
+                .content(page)
+                .nextCursor(hasNext ? encodeId(id.apply(page.get(page.size() - 1))) : null)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .build();
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -1,19 +1,34 @@
 package ra.api_project_react_native_booking.service.Impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ra.api_project_react_native_booking.dto.request.ForgotPasswordRequest;
 import ra.api_project_react_native_booking.dto.request.LoginRequest;
 import ra.api_project_react_native_booking.dto.request.RegisterRequest;
+import ra.api_project_react_native_booking.dto.request.ResetPasswordRequest;
 import ra.api_project_react_native_booking.dto.request.UserUpdateRequest;
+import ra.api_project_react_native_booking.dto.request.VerifyOtpRequest;
 import ra.api_project_react_native_booking.dto.response.LoginResponse;
+import ra.api_project_react_native_booking.dto.response.OtpResponse;
 import ra.api_project_react_native_booking.dto.response.UserResponse;
 import ra.api_project_react_native_booking.model.User;
 import ra.api_project_react_native_booking.model.constants.GenderName;
 import ra.api_project_react_native_booking.repository.UserRepository;
 import ra.api_project_react_native_booking.security.jwt.JWTProvider;
+import ra.api_project_react_native_booking.security.principal.PrincipalCache;
+import ra.api_project_react_native_booking.service.interfaces.MailService;
+import ra.api_project_react_native_booking.service.interfaces.OtpStore;
 import ra.api_project_react_native_booking.service.interfaces.UserService;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Optional;
 
 @Service
@@ -23,10 +38,61 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JWTProvider jwtProvider;
+    private final PrincipalCache principalCache;
+    private final OtpStore otpStore;
+    private final MailService mailService;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${otp.length:6}")
+    private int otpLength;
+
+    @Value("${otp.ttl:5m}")
+    private Duration otpTtl;
+
+    @Value("${otp.resend-cooldown:60s}")
+    private Duration otpResendCooldown;
+
+    @Value("${otp.max-attempts:5}")
+    private int otpMaxAttempts;
+
+    @Value("${otp.max-issues-per-window:5}")
+    private int otpMaxIssues;
+
+    @Value("${otp.window:24h}")
+    private Duration otpWindow;
+
+    @Value("${otp.secret:${jwt_secret}}")
+    private String otpSecret;
 
     @Override
     public UserResponse updateUserProfile(Long userId, UserUpdateRequest updateRequest) {
-        return null;
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (!user.getEmail().equalsIgnoreCase(updateRequest.getEmail()) &&
+                userRepository.existsByEmail(updateRequest.getEmail())) {
+            throw new RuntimeException("Email đã tồn tại");
+        }
+
+        if (updateRequest.getPhoneNumber() != null &&
+                !updateRequest.getPhoneNumber().equals(user.getPhoneNumber()) &&
+                userRepository.existsByPhoneNumber(updateRequest.getPhoneNumber())) {
+            throw new RuntimeException("Số điện thoại đã tồn tại");
+        }
+
+        // Xoá principal đã cache theo email cũ trước khi đổi
+        principalCache.invalidate(user);
+
+        user.setFullName(updateRequest.getFullName());
+        user.setEmail(updateRequest.getEmail());
+        user.setPhoneNumber(updateRequest.getPhoneNumber());
+        user.setBirthday(updateRequest.getBirthday());
+        user.setGender(updateRequest.getGender());
+
+        User savedUser = userRepository.save(user);
+        principalCache.invalidate(savedUser);
+        return convertToUserResponse(savedUser);
     }
 
     @Override
@@ -102,6 +168,107 @@ public class UserServiceImpl implements UserService {
         return userRepository.existsByEmail(email);
     }
 
+    // Luôn trả cùng một phản hồi dù contact có tồn tại, đang cooldown hay hết lượt, để không dò được tài khoản
+    @Override
+    @Transactional
+    public OtpResponse forgotPassword(ForgotPasswordRequest forgotPasswordRequest) {
+        String contact = forgotPasswordRequest.getContact().trim();
+        findByContact(contact).ifPresent(user -> {
+            String otp = generateOtp();
+            String key = otpKey(user);
+            // OTP gửi về email của tài khoản (chưa có nhà cung cấp SMS)
+            if (otpStore.issue(key, hashOtp(key, otp), otpPolicy()) == OtpStore.IssueStatus.ISSUED) {
+                mailService.enqueue(user.getEmail(), "Mã OTP đặt lại mật khẩu",
+                        "Mã OTP của bạn là " + otp + ". Mã có hiệu lực trong " + otpTtl.toMinutes() + " phút.", false);
+            }
+        });
+        return otpResponse(true, "Nếu tài khoản tồn tại, mã OTP đã được gửi tới email đăng ký", contact, otpTtl.toSeconds());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OtpResponse verifyOtp(VerifyOtpRequest verifyOtpRequest) {
+        String contact = verifyOtpRequest.getContact().trim();
+        OtpStore.Verification verification = checkOtp(findByContact(contact), verifyOtpRequest.getOtp(), false);
+        boolean valid = verification.status() == OtpStore.Status.VALID;
+        return otpResponse(valid, valid ? "OTP xác thực thành công" : otpFailureMessage(verification), contact, null);
+    }
+
+    @Override
+    @Transactional
+    public OtpResponse resetPassword(ResetPasswordRequest resetPasswordRequest) {
+        String contact = resetPasswordRequest.getContact().trim();
+        Optional<User> user = findByContact(contact);
+        // Dùng hẳn mã ở bước này để một OTP không đặt lại mật khẩu được hai lần
+        OtpStore.Verification verification = checkOtp(user, resetPasswordRequest.getOtp(), true);
+        if (verification.status() != OtpStore.Status.VALID) {
+            return otpResponse(false, otpFailureMessage(verification), contact, null);
+        }
+
+        User account = user.get();
+        account.setPassword(passwordEncoder.encode(resetPasswordRequest.getNewPassword()));
+        User savedUser = userRepository.save(account);
+        principalCache.invalidate(savedUser);
+        return otpResponse(true, "Đặt lại mật khẩu thành công", contact, null);
+    }
+
+    private Optional<User> findByContact(String contact) {
+        return contact.contains("@") ? userRepository.findByEmail(contact) : userRepository.findByPhoneNumber(contact);
+    }
+
+    // Contact không tồn tại được trả như mã hết hạn, giống hệt tài khoản chưa yêu cầu OTP
+    private OtpStore.Verification checkOtp(Optional<User> user, String otp, boolean consume) {
+        if (user.isEmpty()) {
+            return new OtpStore.Verification(OtpStore.Status.EXPIRED, 0);
+        }
+        String key = otpKey(user.get());
+        return otpStore.verify(key, hashOtp(key, otp.trim()), otpPolicy(), consume);
+    }
+
+    private OtpStore.Policy otpPolicy() {
+        return new OtpStore.Policy(otpTtl, otpResendCooldown, otpMaxAttempts, otpMaxIssues, otpWindow);
+    }
+
+    // Mã sai và mã hết hạn dùng chung thông báo để không lộ contact nào đang có OTP
+    private String otpFailureMessage(OtpStore.Verification verification) {
+        return verification.status() == OtpStore.Status.LOCKED
+                ? "Nhập sai OTP quá nhiều lần, vui lòng thử lại sau"
+                : "OTP không đúng hoặc đã hết hạn";
+    }
+
+    private String generateOtp() {
+        StringBuilder otp = new StringBuilder(otpLength);
+        for (int i = 0; i < otpLength; i++) {
+            otp.append(secureRandom.nextInt(10));
+        }
+        return otp.toString();
+    }
+
+    private String otpKey(User user) {
+        return "user:" + user.getId();
+    }
+
+    // Chỉ lưu HMAC của mã, gắn với key để mã của người này không khớp sang người khác
+    private byte[] hashOtp(String key, String otp) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(otpSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal((key + ":" + otp).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private OtpResponse otpResponse(boolean success, String message, String contact, Long expiresIn) {
+        return OtpResponse.builder()
+                .success(success)
+                .message(message)
+                .contact(contact)
+                .contactType(contact.contains("@") ? "email" : "phone")
+                .expiresIn(expiresIn)
+                .build();
+    }
+
     private UserResponse convertToUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
@@ -4,8 +4,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ra.api_project_react_native_booking.dto.request.BookingRequest;
 import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.model.constants.BookingStatus;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface BookingService {
@@ -16,5 +18,7 @@ public interface BookingService {
     Page<BookingResponse> getBookingsByStatus(BookingStatus status, Pageable pageable);
     BookingResponse updateBookingStatus(Long bookingId, BookingStatus status);
     BookingResponse cancelBooking(Long bookingId, String reason);
-    List<BookingResponse> getUserBookings(Long userId);
+    List<BookingResponse> getUpcomingBookings(Long userId, LocalDate from, int limit);
+    CursorPage<BookingResponse> getBookingsByUserCursor(Long userId, String cursor, int size);
+    int expireStaleHolds();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import java.util.List;
+
+public interface HotelGeoIndexService {
+    // Kết quả tìm quanh một điểm, đã sắp xếp theo khoảng cách tăng dần
+    record NearbyHotel(Long hotelId, double distanceKm) {
+    }
+
+    List<NearbyHotel> findNearby(double latitude, double longitude, double radiusKm);
+    void reindex(Long hotelId);
+    void reload();
+}
@@ -0,0 +1,10 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import java.util.List;
+
+public interface HotelSearchService {
+    boolean isReady();
+    List<Long> search(String keyword);
+    void reindex(Long hotelId);
+    void reload();
+}
@@ -1,5 +1,7 @@
 package ra.api_project_react_native_booking.service.interfaces;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import ra.api_project_react_native_booking.dto.response.HotelResponse;
 
 import java.util.List;
@@ -10,4 +12,6 @@ public interface HotelService {
     HotelResponse getHotelById(Long id);
     List<HotelResponse> searchHotels(String keyword);
     List<HotelResponse> getHotelsByCity(String city);
+    Page<HotelResponse> getNearbyHotels(double latitude, double longitude, double radiusKm, Pageable pageable);
+    Page<HotelResponse> filterHotels(Integer minRating, Integer maxRating, String city, Pageable pageable);
 }
\ No newline at end of file
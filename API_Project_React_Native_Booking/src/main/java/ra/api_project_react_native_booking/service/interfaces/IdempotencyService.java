@@ -0,0 +1,28 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+/**
+ * Chống xử lý trùng các request POST gửi lại với cùng header Idempotency-Key.
+ * Scope là người gửi (header user-id), endpoint là đường dẫn request; cùng key ở scope / endpoint khác là key khác.
+ */
+public interface IdempotencyService {
+
+    enum Outcome {
+        // Key mới, người gọi xử lý request rồi gọi complete / abandon
+        STARTED,
+        // Đã có kết quả, trả lại response đã lưu
+        REPLAY,
+        // Lần gửi trước chưa xong
+        IN_PROGRESS,
+        // Key đã dùng cho một body khác
+        MISMATCH
+    }
+
+    record Claim(Outcome outcome, Long recordId, String requestHash, Integer responseStatus, String responseBody) {}
+
+    Claim begin(String scope, String endpoint, String key, String requestHash);
+
+    void complete(String scope, String endpoint, String key, Claim claim, int responseStatus, String responseBody);
+
+    // Xử lý lỗi (5xx, exception): xoá key để lần gửi lại được chạy thật
+    void abandon(Claim claim);
+}
@@ -0,0 +1,6 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+public interface MailService {
+    // Chỉ ghi vào outbox (chung transaction với caller nếu có), việc gửi do MailOutboxDispatcher đảm nhận
+    void enqueue(String to, String subject, String body, boolean html);
+}
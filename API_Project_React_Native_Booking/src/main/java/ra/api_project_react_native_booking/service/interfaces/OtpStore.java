@@ -0,0 +1,26 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import java.time.Duration;
+
+/**
+ * Nơi giữ OTP đang chờ xác thực, key theo user (không theo email/số điện thoại người gọi nhập).
+ * Mặc định là Caffeine trong bộ nhớ (otp.store=caffeine); chạy nhiều node thì cung cấp bean khác
+ * (vd. Redis) với cùng các thao tác nguyên tử này.
+ */
+public interface OtpStore {
+
+    enum Status { VALID, INVALID, LOCKED, EXPIRED }
+
+    enum IssueStatus { ISSUED, COOLDOWN, LIMITED }
+
+    record Verification(Status status, int attemptsLeft) {}
+
+    // Số lần cấp mã và số lần sai được đếm trong cả cửa sổ window, không reset khi cấp mã mới
+    record Policy(Duration ttl, Duration cooldown, int maxAttempts, int maxIssues, Duration window) {}
+
+    // Lưu mã mới thay mã cũ; COOLDOWN nếu mã trước vừa được cấp, LIMITED nếu hết lượt cấp hoặc đang bị khoá
+    IssueStatus issue(String key, byte[] otpHash, Policy policy);
+
+    // So khớp và đếm lần sai trong một thao tác; consume = true thì huỷ mã khi khớp
+    Verification verify(String key, byte[] otpHash, Policy policy, boolean consume);
+}
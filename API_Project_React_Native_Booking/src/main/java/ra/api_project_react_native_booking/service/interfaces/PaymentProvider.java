@@ -0,0 +1,28 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cổng thanh toán ngoài (PayPal...). Các lời gọi chậm nên chỉ chạy trên worker của PaymentProcessor,
+ * không bao giờ trên luồng request. payment.provider chọn cổng: mặc định none (DisabledPaymentProvider, tắt),
+ * mock (MockPaymentProvider, chỉ ở profile dev / test).
+ */
+public interface PaymentProvider {
+
+    enum Outcome { APPROVED, DECLINED, PENDING }
+
+    record Result(String providerRef, Outcome outcome, String message) {}
+
+    // false: chưa cấu hình cổng, không nhận thanh toán mới và không đối soát
+    default boolean isEnabled() {
+        return true;
+    }
+
+    // reference là mã nội bộ của payment, gửi lại cùng reference không tạo giao dịch thứ hai
+    Result submit(String reference, BigDecimal amount, String currency);
+
+    // Trạng thái hiện tại của nhiều giao dịch trong một lần gọi; ref không biết thì không có trong kết quả
+    Map<String, Result> fetch(Collection<String> providerRefs);
+}
@@ -2,6 +2,7 @@ package ra.api_project_react_native_booking.service.interfaces;
 
 import ra.api_project_react_native_booking.dto.request.PaymentCardRequest;
 import ra.api_project_react_native_booking.dto.request.PaymentRequest;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.PaymentCardResponse;
 import ra.api_project_react_native_booking.dto.response.PaymentResponse;
 
@@ -18,6 +19,9 @@ public interface PaymentService {
     // Payment methods
     PaymentResponse payBooking(Long userId, PaymentRequest request);
     List<PaymentResponse> getMyPayments(Long userId);
+    CursorPage<PaymentResponse> getMyPaymentsCursor(Long userId, String cursor, int size);
     PaymentResponse getPaymentByBookingId(Long bookingId);
+    // Kết quả do cổng thanh toán gửi về (một hoặc nhiều giao dịch), trả về số payment được chốt
+    int handleProviderCallback(String payload, String signature);
     // PaymentResponse refundPayment(Long paymentId); // Tạm thời chưa implement
 }
@@ -0,0 +1,10 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import ra.api_project_react_native_booking.dto.response.PriceQuoteResponse;
+
+import java.time.LocalDate;
+
+public interface PricingService {
+    PriceQuoteResponse quote(Long roomId, LocalDate checkIn, LocalDate checkOut);
+    void reload();
+}
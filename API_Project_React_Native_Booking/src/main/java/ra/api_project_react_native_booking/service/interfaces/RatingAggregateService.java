@@ -0,0 +1,10 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import ra.api_project_react_native_booking.model.Review;
+
+public interface RatingAggregateService {
+    void onReviewAdded(Review review);
+    void onReviewUpdated(Review review, int previousRating);
+    void onReviewDeleted(Review review);
+    void reconcile();
+}
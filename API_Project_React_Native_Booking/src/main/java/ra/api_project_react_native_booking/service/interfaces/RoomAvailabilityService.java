@@ -0,0 +1,14 @@
+package ra.api_project_react_native_booking.service.interfaces;
+
+import ra.api_project_react_native_booking.model.Booking;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RoomAvailabilityService {
+    boolean isRoomBooked(Long roomId, LocalDate checkIn, LocalDate checkOut);
+    List<Long> getAvailableRoomIds(LocalDate checkIn, LocalDate checkOut);
+    boolean covers(LocalDate checkIn, LocalDate checkOut);
+    void onBookingChanged(Booking booking);
+    void reload();
+}
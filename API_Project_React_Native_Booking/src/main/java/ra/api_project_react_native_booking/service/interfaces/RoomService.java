@@ -4,6 +4,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ra.api_project_react_native_booking.dto.request.RoomFilterRequest;
 import ra.api_project_react_native_booking.dto.request.RoomSearchRequest;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
 import ra.api_project_react_native_booking.dto.response.RoomResponse;
 
 import java.time.LocalDate;
@@ -17,4 +18,5 @@ public interface RoomService {
     Page<RoomResponse> filterRooms(RoomFilterRequest filterRequest, Pageable pageable);
     Page<RoomResponse> getRoomsByStatus(Boolean isAvailable, Pageable pageable);
     Page<RoomResponse> getAllRooms(Pageable pageable);
+    CursorPage<RoomResponse> getAllRoomsCursor(String cursor, int size);
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package ra.api_project_react_native_booking.service.interfaces;
 
+import ra.api_project_react_native_booking.dto.request.ForgotPasswordRequest;
 import ra.api_project_react_native_booking.dto.request.LoginRequest;
 import ra.api_project_react_native_booking.dto.request.RegisterRequest;
+import ra.api_project_react_native_booking.dto.request.ResetPasswordRequest;
 import ra.api_project_react_native_booking.dto.request.UserUpdateRequest;
+import ra.api_project_react_native_booking.dto.request.VerifyOtpRequest;
 import ra.api_project_react_native_booking.dto.response.LoginResponse;
+import ra.api_project_react_native_booking.dto.response.OtpResponse;
 import ra.api_project_react_native_booking.dto.response.UserResponse;
 
 public interface UserService {
@@ -13,4 +17,7 @@ public interface UserService {
     UserResponse getUserById(Long id);
     UserResponse getUserByEmail(String email);
     boolean existsByEmail(String email);
+    OtpResponse forgotPassword(ForgotPasswordRequest forgotPasswordRequest);
+    OtpResponse verifyOtp(VerifyOtpRequest verifyOtpRequest);
+    OtpResponse resetPassword(ResetPasswordRequest resetPasswordRequest);
 }
\ No newline at end of file
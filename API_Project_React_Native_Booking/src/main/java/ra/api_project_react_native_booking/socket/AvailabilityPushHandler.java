@@ -0,0 +1,234 @@
+package ra.api_project_react_native_booking.socket;
+
+import com.corundumstudio.socketio.AckRequest;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.SocketIONamespace;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ra.api_project_react_native_booking.dto.request.AvailabilitySubscribeRequest;
+import ra.api_project_react_native_booking.dto.response.AvailabilityDeltaResponse;
+import ra.api_project_react_native_booking.event.BookingChangedEvent;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.RoomAvailabilityService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Đẩy thay đổi tình trạng trống của phòng tới client trên namespace /availability.
+ * Thay đổi booking được gom lại và gửi theo lô mỗi chu kỳ flush, mỗi client nhận tối đa một event "availability".
+ */
+@Component
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityPushHandler {
+
+    public static final String EVENT_SUBSCRIBE = "subscribe";
+    public static final String EVENT_UNSUBSCRIBE = "unsubscribe";
+    public static final String EVENT_AVAILABILITY = "availability";
+
+    private static final int MAX_SUBSCRIPTIONS_PER_CLIENT = 20;
+    private static final int MAX_SUBSCRIPTION_DAYS = 366;
+
+    private final SocketIONamespace availabilityNamespace;
+    private final RoomRepository roomRepository;
+    private final RoomAvailabilityService roomAvailabilityService;
+
+    private final Queue<BookingChangedEvent> pending = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerListeners() {
+        availabilityNamespace.addEventListener(EVENT_SUBSCRIBE, AvailabilitySubscribeRequest.class, this::subscribe);
+        availabilityNamespace.addEventListener(EVENT_UNSUBSCRIBE, AvailabilitySubscribeRequest.class, this::unsubscribe);
+        availabilityNamespace.addDisconnectListener(client -> subscriptions.remove(client.getSessionId()));
+    }
+
+    void subscribe(SocketIOClient client, AvailabilitySubscribeRequest request, AckRequest ack) {
+        Subscription subscription;
+        try {
+            subscription = Subscription.from(request);
+        } catch (RuntimeException e) {
+            reply(ack, false, e.getMessage());
+            return;
+        }
+        List<Subscription> current = subscriptions.computeIfAbsent(client.getSessionId(), id -> new CopyOnWriteArrayList<>());
+        if (current.size() >= MAX_SUBSCRIPTIONS_PER_CLIENT) {
+            reply(ack, false, "Too many subscriptions");
+            return;
+        }
+        if (!current.contains(subscription)) {
+            current.add(subscription);
+        }
+        client.joinRoom(subscription.roomKey());
+        reply(ack, true, "Subscribed");
+    }
+
+    void unsubscribe(SocketIOClient client, AvailabilitySubscribeRequest request, AckRequest ack) {
+        List<Subscription> current = subscriptions.get(client.getSessionId());
+        if (current != null) {
+            try {
+                Subscription subscription = Subscription.from(request);
+                current.remove(subscription);
+                // Chỉ rời socket room khi không còn đăng ký nào cùng phòng / khách sạn
+                if (current.stream().noneMatch(s -> s.roomKey().equals(subscription.roomKey()))) {
+                    client.leaveRoom(subscription.roomKey());
+                }
+            } catch (RuntimeException e) {
+                reply(ack, false, e.getMessage());
+                return;
+            }
+        }
+        reply(ack, true, "Unsubscribed");
+    }
+
+    // Chỉ xếp hàng, việc gửi để dành cho lần flush kế tiếp
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!subscriptions.isEmpty()) {
+            pending.add(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${socketio.availability.flush-interval:500}")
+    public void flush() {
+        // Gom các đêm bị ảnh hưởng theo phòng, nhiều booking chồng nhau chỉ tính một lần
+        Map<Long, TreeSet<LocalDate>> touchedNights = new HashMap<>();
+        BookingChangedEvent event;
+        while ((event = pending.poll()) != null) {
+            event.getCheckInDate().datesUntil(event.getCheckOutDate())
+                    .forEach(touchedNights.computeIfAbsent(event.getRoomId(), id -> new TreeSet<>())::add);
+        }
+        if (touchedNights.isEmpty() || subscriptions.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> hotelIds = new HashMap<>();
+        for (Object[] row : roomRepository.findHotelIdsByRoomIds(touchedNights.keySet())) {
+            hotelIds.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<UUID, SocketIOClient> clients = new HashMap<>();
+        Map<UUID, List<AvailabilityDeltaResponse>> batches = new HashMap<>();
+        touchedNights.forEach((roomId, nights) -> {
+            Long hotelId = hotelIds.get(roomId);
+            List<AvailabilityDeltaResponse> deltas = toDeltas(roomId, hotelId, nights);
+            for (SocketIOClient client : clientsFor(roomId, hotelId)) {
+                List<Subscription> current = subscriptions.get(client.getSessionId());
+                if (current == null) {
+                    continue;
+                }
+                for (AvailabilityDeltaResponse delta : deltas) {
+                    LocalDate from = LocalDate.parse(delta.getCheckIn());
+                    LocalDate to = LocalDate.parse(delta.getCheckOut());
+                    if (current.stream().anyMatch(s -> s.matches(roomId, hotelId, from, to))) {
+                        clients.putIfAbsent(client.getSessionId(), client);
+                        batches.computeIfAbsent(client.getSessionId(), id -> new ArrayList<>()).add(delta);
+                    }
+                }
+            }
+        });
+        batches.forEach((sessionId, deltas) -> clients.get(sessionId).sendEvent(EVENT_AVAILABILITY, deltas));
+        log.debug("Pushed availability changes of {} rooms to {} clients", touchedNights.size(), batches.size());
+    }
+
+    // Đọc trạng thái hiện tại từ bitmap thay vì tin vào event: huỷ một booking chưa chắc làm đêm đó trống
+    private List<AvailabilityDeltaResponse> toDeltas(Long roomId, Long hotelId, TreeSet<LocalDate> nights) {
+        List<AvailabilityDeltaResponse> deltas = new ArrayList<>();
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        boolean runAvailable = false;
+        for (LocalDate night : nights) {
+            boolean available = !roomAvailabilityService.isRoomBooked(roomId, night, night.plusDays(1));
+            if (runStart != null && night.equals(runEnd) && available == runAvailable) {
+                runEnd = night.plusDays(1);
+                continue;
+            }
+            if (runStart != null) {
+                deltas.add(delta(roomId, hotelId, runStart, runEnd, runAvailable));
+            }
+            runStart = night;
+            runEnd = night.plusDays(1);
+            runAvailable = available;
+        }
+        if (runStart != null) {
+            deltas.add(delta(roomId, hotelId, runStart, runEnd, runAvailable));
+        }
+        return deltas;
+    }
+
+    private AvailabilityDeltaResponse delta(Long roomId, Long hotelId, LocalDate checkIn, LocalDate checkOut, boolean available) {
+        return AvailabilityDeltaResponse.builder()
+                .roomId(roomId)
+                .hotelId(hotelId)
+                .checkIn(checkIn.toString())
+                .checkOut(checkOut.toString())
+                .available(available)
+                .build();
+    }
+
+    private Collection<SocketIOClient> clientsFor(Long roomId, Long hotelId) {
+        Map<UUID, SocketIOClient> clients = new HashMap<>();
+        availabilityNamespace.getRoomOperations(Subscription.roomKey(null, roomId)).getClients()
+                .forEach(client -> clients.put(client.getSessionId(), client));
+        if (hotelId != null) {
+            availabilityNamespace.getRoomOperations(Subscription.roomKey(hotelId, null)).getClients()
+                    .forEach(client -> clients.put(client.getSessionId(), client));
+        }
+        return clients.values();
+    }
+
+    private void reply(AckRequest ack, boolean success, String message) {
+        if (ack != null && ack.isAckRequested()) {
+            ack.sendAckData(Map.of("success", success, "message", message));
+        }
+    }
+
+    record Subscription(Long hotelId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+
+        static Subscription from(AvailabilitySubscribeRequest request) {
+            if (request == null || (request.getRoomId() == null) == (request.getHotelId() == null)) {
+                throw new RuntimeException("Exactly one of roomId or hotelId is required");
+            }
+            LocalDate checkIn;
+            LocalDate checkOut;
+            try {
+                checkIn = LocalDate.parse(request.getCheckIn());
+                checkOut = LocalDate.parse(request.getCheckOut());
+            } catch (DateTimeParseException | NullPointerException e) {
+                throw new RuntimeException("Dates must use the yyyy-MM-dd format");
+            }
+            if (!checkOut.isAfter(checkIn)) {
+                throw new RuntimeException("Check-out date must be after check-in date");
+            }
+            if (ChronoUnit.DAYS.between(checkIn, checkOut) > MAX_SUBSCRIPTION_DAYS) {
+                throw new RuntimeException("Date range is too long");
+            }
+            return new Subscription(request.getHotelId(), request.getRoomId(), checkIn, checkOut);
+        }
+
+        static String roomKey(Long hotelId, Long roomId) {
+            return roomId != null ? "room:" + roomId : "hotel:" + hotelId;
+        }
+
+        String roomKey() {
+            return roomKey(hotelId, roomId);
+        }
+
+        boolean matches(Long deltaRoomId, Long deltaHotelId, LocalDate from, LocalDate to) {
+            boolean target = roomId != null ? roomId.equals(deltaRoomId) : hotelId.equals(deltaHotelId);
+            return target && from.isBefore(checkOut) && to.isAfter(checkIn);
+        }
+    }
+}
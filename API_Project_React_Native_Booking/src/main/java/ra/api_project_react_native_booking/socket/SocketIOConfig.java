@@ -0,0 +1,55 @@
+package ra.api_project_react_native_booking.socket;
+
+import com.corundumstudio.socketio.AuthorizationListener;
+import com.corundumstudio.socketio.SocketIONamespace;
+import com.corundumstudio.socketio.SocketIOServer;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "socketio.enabled", havingValue = "true")
+public class SocketIOConfig {
+
+    public static final String AVAILABILITY_NAMESPACE = "/availability";
+
+    @Value("${socketio.host:0.0.0.0}")
+    private String host;
+
+    @Value("${socketio.port:9092}")
+    private int port;
+
+    @Value("${cors.allowed-origin-patterns:*}")
+    private String[] allowedOriginPatterns;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SocketIOServer socketIOServer() {
+        com.corundumstudio.socketio.Configuration config = new com.corundumstudio.socketio.Configuration();
+        config.setHostname(host);
+        config.setPort(port);
+        // Không đặt origin cố định: netty-socketio trả lại Origin của request, origin lạ đã bị chặn lúc handshake
+        config.setAuthorizationListener(originCheck(Arrays.asList(allowedOriginPatterns)));
+        return new SocketIOServer(config);
+    }
+
+    // Cùng quy tắc với CORS của REST (SpringSecurity); app mobile không gửi Origin nên luôn được kết nối
+    static AuthorizationListener originCheck(List<String> allowedOriginPatterns) {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOriginPatterns(allowedOriginPatterns);
+        return handshake -> {
+            String origin = handshake.getHttpHeaders().get(HttpHeaderNames.ORIGIN);
+            return origin == null || cors.checkOrigin(origin) != null;
+        };
+    }
+
+    @Bean
+    public SocketIONamespace availabilityNamespace(SocketIOServer socketIOServer) {
+        return socketIOServer.addNamespace(AVAILABILITY_NAMESPACE);
+    }
+}
@@ -2,12 +2,36 @@
 -- Date: 2025-01-XX
 -- Description: Add image_url column to hotels table and avatar_url column to users table
 -- Database: MySQL
+-- Chạy lại nhiều lần được: MySQL không có ADD COLUMN / CREATE INDEX IF NOT EXISTS
+-- nên cột và index mới đi qua hai thủ tục kiểm tra information_schema trước (xoá ở cuối file)
+DROP PROCEDURE IF EXISTS add_column_if_missing;
+DROP PROCEDURE IF EXISTS add_index_if_missing;
+DELIMITER //
+CREATE PROCEDURE add_column_if_missing(IN tbl VARCHAR(64), IN col VARCHAR(64), IN definition VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = tbl AND COLUMN_NAME = col) THEN
+        SET @ddl = CONCAT('ALTER TABLE `', tbl, '` ADD COLUMN `', col, '` ', definition);
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+CREATE PROCEDURE add_index_if_missing(IN tbl VARCHAR(64), IN idx VARCHAR(64), IN cols VARCHAR(255))
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = tbl AND INDEX_NAME = idx) THEN
+        SET @ddl = CONCAT('CREATE INDEX `', idx, '` ON `', tbl, '`(', cols, ')');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
 -- Add image_url column to hotels table (MySQL syntax)
-ALTER TABLE hotels
-ADD COLUMN image_url VARCHAR(500) NULL;
+CALL add_column_if_missing('hotels', 'image_url', 'VARCHAR(500) NULL');
 -- Add avatar_url column to users table (MySQL syntax)
-ALTER TABLE users
-ADD COLUMN avatar_url VARCHAR(500) NULL;
+CALL add_column_if_missing('users', 'avatar_url', 'VARCHAR(500) NULL');
 -- Update existing hotels with sample image URLs (you can change these to your actual image URLs)
 UPDATE hotels
 SET image_url = 'https://images.unsplash.com/photo-1566073771259-6a8506099945?w=800'
@@ -65,8 +89,8 @@ CREATE TABLE IF NOT EXISTS payment_cards (
     CONSTRAINT fk_payment_cards_user FOREIGN KEY (user_id) REFERENCES users(id)
 );
 -- Indexes
-CREATE INDEX IF NOT EXISTS idx_payment_cards_user ON payment_cards(user_id);
-CREATE INDEX IF NOT EXISTS idx_payment_cards_default ON payment_cards(user_id, is_default);
+CALL add_index_if_missing('payment_cards', 'idx_payment_cards_user', 'user_id');
+CALL add_index_if_missing('payment_cards', 'idx_payment_cards_default', 'user_id, is_default');
 -- Create table: payments (transactions)
 CREATE TABLE IF NOT EXISTS payments (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -86,6 +110,137 @@ CREATE TABLE IF NOT EXISTS payments (
     CONSTRAINT fk_payments_card FOREIGN KEY (card_id) REFERENCES payment_cards(id),
     CONSTRAINT fk_payments_booking FOREIGN KEY (booking_id) REFERENCES bookings(id)
 );
-CREATE INDEX IF NOT EXISTS idx_payments_user ON payments(user_id);
-CREATE INDEX IF NOT EXISTS idx_payments_booking ON payments(booking_id);
-CREATE INDEX IF NOT EXISTS idx_payments_card ON payments(card_id);
\ No newline at end of file
+CALL add_index_if_missing('payments', 'idx_payments_user', 'user_id');
+CALL add_index_if_missing('payments', 'idx_payments_booking', 'booking_id');
+CALL add_index_if_missing('payments', 'idx_payments_card', 'card_id');
+-- ===============================
+-- Tổng điểm / số review lưu sẵn trên hotels, rooms
+-- ===============================
+CALL add_column_if_missing('hotels', 'rating_sum', 'BIGINT NOT NULL DEFAULT 0');
+CALL add_column_if_missing('hotels', 'review_count', 'BIGINT NOT NULL DEFAULT 0');
+CALL add_column_if_missing('rooms', 'rating_sum', 'BIGINT NOT NULL DEFAULT 0');
+CALL add_column_if_missing('rooms', 'review_count', 'BIGINT NOT NULL DEFAULT 0');
+-- Tính lần đầu từ reviews (ứng dụng đối soát lại lúc khởi động và hằng đêm)
+UPDATE hotels h
+SET rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.hotel_id = h.id),
+    review_count = (SELECT COUNT(*) FROM reviews r WHERE r.hotel_id = h.id);
+UPDATE rooms t
+SET rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.room_id = t.id),
+    review_count = (SELECT COUNT(*) FROM reviews r WHERE r.room_id = t.id);
+-- ===============================
+-- Lọc khách sạn (/api/v1/hotels/filter)
+-- ===============================
+CALL add_index_if_missing('hotels', 'idx_hotels_city_star', 'city, star_rating');
+CALL add_index_if_missing('hotels', 'idx_hotels_star', 'star_rating');
+-- ===============================
+-- Room nights (chống bán trùng phòng)
+-- ===============================
+CREATE TABLE IF NOT EXISTS room_nights (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    room_id BIGINT NOT NULL,
+    booking_id BIGINT NOT NULL,
+    night_date DATE NOT NULL,
+    CONSTRAINT uk_room_nights_room_night UNIQUE (room_id, night_date),
+    CONSTRAINT fk_room_nights_room FOREIGN KEY (room_id) REFERENCES rooms(id),
+    CONSTRAINT fk_room_nights_booking FOREIGN KEY (booking_id) REFERENCES bookings(id)
+);
+CALL add_index_if_missing('room_nights', 'idx_room_nights_booking', 'booking_id');
+-- Backfill từ các booking đang giữ phòng (INSERT IGNORE bỏ qua các đêm đã bị bán trùng trước đây)
+INSERT IGNORE INTO room_nights (room_id, booking_id, night_date)
+WITH RECURSIVE nights AS (
+    SELECT id AS booking_id, room_id, check_in_date AS night_date, check_out_date
+    FROM bookings
+    WHERE status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN')
+        AND check_out_date > CURDATE()
+    UNION ALL
+    SELECT booking_id, room_id, night_date + INTERVAL 1 DAY, check_out_date
+    FROM nights
+    WHERE night_date + INTERVAL 1 DAY < check_out_date
+)
+SELECT room_id, booking_id, night_date FROM nights;
+-- ===============================
+-- Phân trang keyset theo (createdAt, id)
+-- ===============================
+CALL add_index_if_missing('bookings', 'idx_bookings_user_created', 'user_id, created_at, id');
+CALL add_index_if_missing('reviews', 'idx_reviews_room_created', 'room_id, created_at, id');
+CALL add_index_if_missing('reviews', 'idx_reviews_hotel_created', 'hotel_id, created_at, id');
+CALL add_index_if_missing('rooms', 'idx_rooms_created', 'created_at, id');
+-- ===============================
+-- Booking sắp tới (/api/v1/bookings/upcoming)
+-- ===============================
+CALL add_index_if_missing('bookings', 'idx_bookings_user_status_checkin', 'user_id, status, check_in_date');
+-- ===============================
+-- Hàng đợi email gửi nền (outbox)
+-- ===============================
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    html BIT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claim_token VARCHAR(36),
+    last_error VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6)
+);
+CALL add_index_if_missing('mail_outbox', 'idx_mail_outbox_status_next', 'status, next_attempt_at');
+CALL add_index_if_missing('mail_outbox', 'idx_mail_outbox_claim', 'claim_token');
+-- ===============================
+-- Idempotency-Key cho POST tạo booking / thanh toán
+-- ===============================
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id VARCHAR(50) NOT NULL,
+    endpoint VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INT,
+    response_body TEXT,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_idempotency_scope_key UNIQUE (user_id, endpoint, idempotency_key)
+);
+CALL add_index_if_missing('idempotency_keys', 'idx_idempotency_expires', 'expires_at');
+-- ===============================
+-- Optimistic locking cho payment_cards (số dư trừ bằng UPDATE có điều kiện)
+-- ===============================
+CALL add_column_if_missing('payment_cards', 'version', 'BIGINT NOT NULL DEFAULT 0');
+-- ===============================
+-- Lịch sử thanh toán (/api/v1/payments/my-payments, keyset theo id)
+-- ===============================
+CALL add_index_if_missing('payments', 'idx_payments_user_id', 'user_id, id');
+-- ===============================
+-- Thanh toán qua cổng ngoài: payment PENDING không có thẻ, worker đối soát theo next_check_at
+-- ===============================
+ALTER TABLE payments MODIFY card_id BIGINT NULL;
+CALL add_column_if_missing('payments', 'attempts', 'INT NOT NULL DEFAULT 0');
+CALL add_column_if_missing('payments', 'next_check_at', 'DATETIME(6)');
+CALL add_index_if_missing('payments', 'idx_payments_status_next_check', 'status, next_check_at');
+CALL add_index_if_missing('payments', 'idx_payments_provider_ref', 'provider_ref');
+-- ===============================
+-- Giá theo mùa / dịp lễ của phòng (PricingService), các đêm [start_date, end_date)
+-- ===============================
+CREATE TABLE IF NOT EXISTS room_rate_overrides (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    room_id BIGINT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    price DECIMAL(38, 2) NOT NULL,
+    name VARCHAR(100),
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_room_rate_overrides_room FOREIGN KEY (room_id) REFERENCES rooms(id)
+);
+CALL add_index_if_missing('room_rate_overrides', 'idx_room_rate_overrides_room_end', 'room_id, end_date');
+-- ===============================
+-- Hạn giữ phòng của booking PENDING: job huỷ booking quá hạn chưa thanh toán và nhả đêm
+-- ===============================
+CALL add_column_if_missing('bookings', 'expires_at', 'DATETIME(6)');
+-- Chỉ điền cho booking chưa có hạn để chạy lại không kéo dài hạn giữ phòng
+UPDATE bookings SET expires_at = DATE_ADD(created_at, INTERVAL 15 MINUTE) WHERE status = 'PENDING' AND expires_at IS NULL;
+CALL add_index_if_missing('bookings', 'idx_bookings_status_expires', 'status, expires_at');
+DROP PROCEDURE add_column_if_missing;
+DROP PROCEDURE add_index_if_missing;
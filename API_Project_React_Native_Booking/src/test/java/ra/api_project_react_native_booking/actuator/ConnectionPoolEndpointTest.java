@@ -0,0 +1,79 @@
+package ra.api_project_react_native_booking.actuator;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolEndpointTest {
+
+    private HikariDataSource dataSource;
+    private ConnectionPoolEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Tương đương management.metrics.distribution.* trong application.properties
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals(ConnectionPoolEndpoint.ACQUIRE_TIMER)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.99)
+                        .serviceLevelObjectives(Duration.ofMillis(1).toNanos(), Duration.ofMillis(100).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:pool_endpoint;DB_CLOSE_DELAY=-1");
+        config.setPoolName("test-pool");
+        config.setMaximumPoolSize(3);
+        config.setMinimumIdle(3);
+        config.setMetricRegistry(meterRegistry);
+        dataSource = new HikariDataSource(config);
+        endpoint = new ConnectionPoolEndpoint(dataSource, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsPoolStateAndAcquireHistogram() throws Exception {
+        try (Connection ignored = dataSource.getConnection()) {
+            Map<String, Object> body = endpoint.pool();
+
+            assertEquals("test-pool", body.get("pool"));
+            assertEquals(3, body.get("maximumPoolSize"));
+            assertEquals(1, body.get("active"));
+            assertEquals(0, body.get("pending"));
+
+            Map<String, Object> acquire = (Map<String, Object>) body.get("acquire");
+            assertEquals(1L, acquire.get("count"));
+            assertTrue(((Map<String, Double>) acquire.get("percentilesMs")).containsKey("p99"));
+            List<Map<String, Object>> histogram = (List<Map<String, Object>>) acquire.get("histogram");
+            assertEquals(List.of(1.0, 100.0), histogram.stream().map(bucket -> bucket.get("leMs")).toList());
+            // Bucket cộng dồn: lần lấy kết nối duy nhất nằm trong bucket 100ms
+            assertEquals(1L, histogram.get(1).get("count"));
+        }
+        assertEquals(0, endpoint.pool().get("active"));
+    }
+}
@@ -0,0 +1,59 @@
+package ra.api_project_react_native_booking.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ra.api_project_react_native_booking.controller.BookingController;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenInViewConfigTest {
+
+    @Test
+    void bookingStreamEndpointsSkipOpenInView() throws Exception {
+        assertTrue(OpenInViewConfig.isStreaming(request(BookingController.class
+                .getMethod("getUserBookings", Long.class, HttpServletRequest.class))));
+        assertTrue(OpenInViewConfig.isStreaming(request(BookingController.class
+                .getMethod("exportUserBookings", Long.class, HttpServletRequest.class))));
+        assertFalse(OpenInViewConfig.isStreaming(request(BookingController.class
+                .getMethod("getBookingByCode", String.class))));
+    }
+
+    @Test
+    void decidedByTheHandlerReturnType() throws Exception {
+        assertTrue(OpenInViewConfig.isStreaming(request(Handlers.class.getMethod("raw"))));
+        assertFalse(OpenInViewConfig.isStreaming(request(Handlers.class.getMethod("wildcard"))));
+        assertFalse(OpenInViewConfig.isStreaming(request(Handlers.class.getMethod("text"))));
+        // Không có handler (404, tài nguyên tĩnh): giữ open-in-view như mặc định
+        assertFalse(OpenInViewConfig.isStreaming(new ServletWebRequest(new MockHttpServletRequest())));
+    }
+
+    private static ServletWebRequest request(Method method) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new HandlerMethod(new Object(), method));
+        return new ServletWebRequest(request);
+    }
+
+    @SuppressWarnings("unused")
+    static class Handlers {
+        public StreamingResponseBody raw() {
+            return null;
+        }
+
+        public ResponseEntity<?> wildcard() {
+            return null;
+        }
+
+        public ResponseEntity<String> text() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ra.api_project_react_native_booking.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+import ra.api_project_react_native_booking.idempotency.IdempotencyFilter;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.monitoring.RequestMetricsFilter;
+import ra.api_project_react_native_booking.security.jwt.JWTAuthFilter;
+import ra.api_project_react_native_booking.service.interfaces.BookingService;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Hợp đồng của các endpoint stream: envelope APIResponse / NDJSON, đọc theo từng trang cursor
+@WebMvcTest(controllers = BookingController.class,
+        properties = "booking.export.timeout=2m",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {IdempotencyFilter.class, RequestMetricsFilter.class, JWTAuthFilter.class}))
+@AutoConfigureMockMvc(addFilters = false)
+class BookingControllerTest {
+
+    private static final long USER_ID = 7L;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private BookingService bookingService;
+
+    @Test
+    void allBookingsAreStreamedInsideTheEnvelope() throws Exception {
+        twoPages();
+
+        MvcResult started = mockMvc.perform(get("/api/v1/bookings/user/{userId}/all", USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Timeout riêng của export, không phải mặc định của spring.mvc.async
+        assertEquals(120_000L, started.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("All user bookings retrieved successfully"))
+                .andExpect(jsonPath("$.status").value("OK"))
+                .andExpect(jsonPath("$.timestamp").value(notNullValue()))
+                .andExpect(jsonPath("$.data", hasSize(3)))
+                .andExpect(jsonPath("$.data[*].bookingCode", contains("BK1", "BK2", "BK3")))
+                .andExpect(jsonPath("$.data[0].status").value("CONFIRMED"));
+
+        verify(bookingService).getBookingsByUserCursor(USER_ID, null, 100);
+        verify(bookingService).getBookingsByUserCursor(USER_ID, "next", 100);
+    }
+
+    @Test
+    void exportWritesOneBookingPerLine() throws Exception {
+        twoPages();
+
+        MvcResult started = mockMvc.perform(get("/api/v1/bookings/user/{userId}/export", USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("BK1", objectMapper.readTree(lines[0]).get("bookingCode").asText());
+        assertEquals("BK3", objectMapper.readTree(lines[2]).get("bookingCode").asText());
+        assertEquals('\n', body.charAt(body.length() - 1));
+    }
+
+    @Test
+    void emptyHistoryIsAnEmptyArray() throws Exception {
+        when(bookingService.getBookingsByUserCursor(USER_ID, null, 100)).thenReturn(page(List.of(), null));
+
+        MvcResult started = mockMvc.perform(get("/api/v1/bookings/user/{userId}/all", USER_ID)).andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(0)));
+        verify(bookingService, times(1)).getBookingsByUserCursor(any(), any(), anyInt());
+    }
+
+    @Test
+    void firstPageFailureIsAnErrorResponseNotATruncatedStream() throws Exception {
+        when(bookingService.getBookingsByUserCursor(eq(USER_ID), isNull(), anyInt()))
+                .thenThrow(new RuntimeException("Database unavailable"));
+
+        mockMvc.perform(get("/api/v1/bookings/user/{userId}/all", USER_ID))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Database unavailable"));
+        mockMvc.perform(get("/api/v1/bookings/user/{userId}/export", USER_ID))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    private void twoPages() {
+        when(bookingService.getBookingsByUserCursor(USER_ID, null, 100))
+                .thenReturn(page(List.of(booking(1), booking(2)), "next"));
+        when(bookingService.getBookingsByUserCursor(USER_ID, "next", 100))
+                .thenReturn(page(List.of(booking(3)), null));
+    }
+
+    private static CursorPage<BookingResponse> page(List<BookingResponse> content, String nextCursor) {
+        return CursorPage.<BookingResponse>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .size(100)
+                .build();
+    }
+
+    private static BookingResponse booking(long id) {
+        return BookingResponse.builder()
+                .id(id)
+                .bookingCode("BK" + id)
+                .status(BookingStatus.CONFIRMED)
+                .build();
+    }
+}
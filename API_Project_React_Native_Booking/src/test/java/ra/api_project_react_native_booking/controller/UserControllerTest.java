@@ -0,0 +1,105 @@
+package ra.api_project_react_native_booking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ra.api_project_react_native_booking.dto.response.UserResponse;
+import ra.api_project_react_native_booking.idempotency.IdempotencyFilter;
+import ra.api_project_react_native_booking.monitoring.RequestMetricsFilter;
+import ra.api_project_react_native_booking.security.config.SpringSecurity;
+import ra.api_project_react_native_booking.security.jwt.JWTAuthFilter;
+import ra.api_project_react_native_booking.security.jwt.JWTProvider;
+import ra.api_project_react_native_booking.security.principal.CustomUserDetailsService;
+import ra.api_project_react_native_booking.security.principal.CustomUserPrincipal;
+import ra.api_project_react_native_booking.security.principal.PrincipalCache;
+import ra.api_project_react_native_booking.service.interfaces.UserService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Chuỗi filter bảo mật thật (JWTAuthFilter + SpringSecurity), chỉ service là mock
+@WebMvcTest(controllers = {UserController.class, AuthController.class},
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {IdempotencyFilter.class, RequestMetricsFilter.class}))
+@Import({SpringSecurity.class, JWTAuthFilter.class, JWTProvider.class, PrincipalCache.class})
+class UserControllerTest {
+
+    private static final String BODY = """
+            {"fullName": "Guest", "email": "guest@example.com", "phoneNumber": "0900000000",
+             "birthday": "1995-05-05", "gender": "OTHER"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JWTProvider jwtProvider;
+
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void rejectsRequestWithoutToken() throws Exception {
+        mockMvc.perform(update(7L)).andExpect(status().isForbidden());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void rejectsTokenOfAnotherUser() throws Exception {
+        when(userDetailsService.loadUserBySubject("8")).thenReturn(principal(8L));
+
+        mockMvc.perform(update(7L).header("Authorization", "Bearer " + token(8L)))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void updatesOwnProfile() throws Exception {
+        when(userDetailsService.loadUserBySubject("7")).thenReturn(principal(7L));
+        when(userService.updateUserProfile(eq(7L), any()))
+                .thenReturn(UserResponse.builder().id(7L).email("guest@example.com").build());
+
+        mockMvc.perform(update(7L).header("Authorization", "Bearer " + token(7L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(7));
+
+        verify(userService).updateUserProfile(eq(7L), any());
+    }
+
+    @Test
+    void oldPublicRouteIsGone() throws Exception {
+        mockMvc.perform(put("/api/v1/auth/user/7").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().is4xxClientError());
+
+        verifyNoInteractions(userService);
+    }
+
+    private MockHttpServletRequestBuilder update(Long id) {
+        return put("/api/v1/users/" + id).contentType(MediaType.APPLICATION_JSON).content(BODY);
+    }
+
+    private String token(Long userId) {
+        return jwtProvider.generateTokenWithClaims(userId, null, "USER", "ACTIVE", null);
+    }
+
+    private static CustomUserPrincipal principal(Long id) {
+        return CustomUserPrincipal.builder().id(id).email("user" + id + "@example.com").build();
+    }
+}
@@ -0,0 +1,59 @@
+package ra.api_project_react_native_booking.dto.request;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import ra.api_project_react_native_booking.model.constants.PaymentMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentRequestTest {
+
+    private static final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+    private static final Validator validator = factory.getValidator();
+
+    @AfterAll
+    static void close() {
+        factory.close();
+    }
+
+    @Test
+    void cardPaymentRequiresAllCardFields() {
+        PaymentRequest request = PaymentRequest.builder()
+                .bookingId(1L)
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .cardNumber("4111111111111111")
+                .cardHolderName(" ")
+                .build();
+
+        assertEquals(Set.of("cardHolderName", "expiryDate", "cvv"), violatedFields(request));
+    }
+
+    @Test
+    void paypalNeedsNoCardFields() {
+        PaymentRequest request = PaymentRequest.builder()
+                .bookingId(1L)
+                .paymentMethod(PaymentMethod.PAYPAL)
+                .build();
+
+        assertTrue(violatedFields(request).isEmpty());
+    }
+
+    @Test
+    void missingMethodOnlyReportsDefaultGroup() {
+        assertEquals(Set.of("bookingId", "paymentMethod"), violatedFields(new PaymentRequest()));
+    }
+
+    private static Set<String> violatedFields(PaymentRequest request) {
+        return validator.validate(request).stream()
+                .map(ConstraintViolation::getPropertyPath)
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,294 @@
+package ra.api_project_react_native_booking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import ra.api_project_react_native_booking.model.constants.IdempotencyStatus;
+import ra.api_project_react_native_booking.repository.IdempotencyKeyRepository;
+import ra.api_project_react_native_booking.service.Impl.IdempotencyServiceImpl;
+import ra.api_project_react_native_booking.service.interfaces.IdempotencyService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Bảng idempotency_keys phải được commit thật: service ghi trong transaction riêng
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyFilterTest {
+
+    private static final String BOOKINGS = "/api/v1/bookings";
+    private static final String BODY = "{\"roomId\":1,\"checkInDate\":\"2026-01-10\",\"checkOutDate\":\"2026-01-12\",\"guests\":2}";
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger handled = new AtomicInteger();
+    private IdempotencyServiceImpl idempotencyService;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = service();
+        filter = filter(idempotencyService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void retryWithSameKeyReplaysFirstResponse() throws Exception {
+        MockHttpServletResponse first = send(filter, "key-1", BODY, 201);
+        MockHttpServletResponse retry = send(filter, "key-1", BODY, 201);
+
+        assertEquals(1, handled.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(IdempotencyStatus.COMPLETED, idempotencyKeyRepository.findAll().get(0).getStatus());
+        assertEquals(1.0, meterRegistry.counter(IdempotencyFilter.METRIC, "outcome", "replay").count());
+    }
+
+    @Test
+    void replaysFromDatabaseAfterRestart() throws Exception {
+        MockHttpServletResponse first = send(filter, "key-1", BODY, 201);
+
+        // Service mới = cache rỗng, kết quả phải đọc lại từ bảng
+        MockHttpServletResponse retry = send(filter(service()), "key-1", BODY, 201);
+
+        assertEquals(1, handled.get());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() throws Exception {
+        send(filter, "key-1", BODY, 201);
+        MockHttpServletResponse other = send(filter, "key-1", BODY.replace("\"guests\":2", "\"guests\":3"), 201);
+
+        assertEquals(1, handled.get());
+        assertEquals(422, other.getStatus());
+        assertTrue(other.getContentAsString().contains("\"success\":false"));
+    }
+
+    @Test
+    void keyIsScopedPerUser() throws Exception {
+        send(filter, "key-1", BODY, 201);
+        MockHttpServletRequest request = request("key-1", BODY);
+        request.removeHeader("user-id");
+        request.addHeader("user-id", "8");
+        filter.doFilter(request, new MockHttpServletResponse(), chain(201));
+
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    void concurrentRetryWhileFirstIsRunningGetsConflict() throws Exception {
+        MockHttpServletResponse[] retry = new MockHttpServletResponse[1];
+        FilterChain slowChain = (req, res) -> {
+            handled.incrementAndGet();
+            // Lần gửi lại tới khi lần đầu chưa xong
+            retry[0] = send(filter, "key-1", BODY, 201);
+            res.getWriter().write("{\"success\":true}");
+        };
+        filter.doFilter(request("key-1", BODY), new MockHttpServletResponse(), slowChain);
+
+        assertEquals(409, retry[0].getStatus());
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void serverErrorsAreNotStored() throws Exception {
+        send(filter, "key-1", BODY, 500);
+        assertEquals(0, idempotencyKeyRepository.count());
+
+        MockHttpServletResponse retry = send(filter, "key-1", BODY, 201);
+
+        assertEquals(2, handled.get());
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void requestsWithoutKeyOrOnOtherPathsPassThrough() throws Exception {
+        filter.doFilter(request(null, BODY), new MockHttpServletResponse(), chain(201));
+        filter.doFilter(request(null, BODY), new MockHttpServletResponse(), chain(201));
+        MockHttpServletRequest other = request("key-1", BODY);
+        other.setRequestURI("/api/v1/reviews");
+        filter.doFilter(other, new MockHttpServletResponse(), chain(201));
+
+        assertEquals(3, handled.get());
+        assertEquals(0, idempotencyKeyRepository.count());
+    }
+
+    @Test
+    void overlongKeyIsBadRequest() throws Exception {
+        MockHttpServletResponse response = send(filter, "k".repeat(101), BODY, 201);
+
+        assertEquals(400, response.getStatus());
+        assertEquals(0, handled.get());
+    }
+
+    @Test
+    void userIdHeaderMustBeNumericAndIsNormalized() throws Exception {
+        MockHttpServletRequest spoofed = request("key-1", BODY);
+        spoofed.removeHeader("user-id");
+        spoofed.addHeader("user-id", "x".repeat(60));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(spoofed, rejected, chain(201));
+
+        assertEquals(400, rejected.getStatus());
+        assertEquals(0, handled.get());
+        assertEquals(0, idempotencyKeyRepository.count());
+
+        send(filter, "key-1", BODY, 201);
+        MockHttpServletRequest padded = request("key-1", BODY);
+        padded.removeHeader("user-id");
+        padded.addHeader("user-id", " 007 ");
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(padded, retry, chain(201));
+
+        // " 007 " và "7" là cùng một user
+        assertEquals(1, handled.get());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void oversizedBodyIsRejectedBeforeBuffering() throws Exception {
+        IdempotencyFilter small = new IdempotencyFilter(idempotencyService, new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, List.of(BOOKINGS), DataSize.ofBytes(BODY.length() - 1));
+        MockHttpServletResponse declared = new MockHttpServletResponse();
+        small.doFilter(request("key-1", BODY), declared, chain(201));
+
+        // Không có Content-Length (chunked): dừng đọc ngay khi vượt giới hạn
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", BOOKINGS) {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        chunked.addHeader(IdempotencyFilter.HEADER, "key-2");
+        MockHttpServletResponse streamed = new MockHttpServletResponse();
+        small.doFilter(chunked, streamed, chain(201));
+
+        assertEquals(413, declared.getStatus());
+        assertEquals(413, streamed.getStatus());
+        assertEquals(0, handled.get());
+        assertEquals(0, idempotencyKeyRepository.count());
+    }
+
+    @Test
+    void cachedBodySupportsReadListener() throws Exception {
+        StringBuilder read = new StringBuilder();
+        boolean[] allRead = {false};
+        FilterChain asyncReader = (req, res) -> req.getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                read.append(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        });
+
+        filter.doFilter(request("key-1", BODY), new MockHttpServletResponse(), asyncReader);
+
+        assertEquals(BODY, read.toString());
+        assertTrue(allRead[0]);
+    }
+
+    @Test
+    void integrityErrorThatIsNotADuplicateIsThrown() {
+        // Hash dài hơn cột: không phải trùng key, không được coi là IN_PROGRESS
+        assertThrows(DataIntegrityViolationException.class,
+                () -> idempotencyService.begin("7", BOOKINGS, "key-1", "h".repeat(65)));
+        assertEquals(0, idempotencyKeyRepository.count());
+    }
+
+    @Test
+    void expiredKeysAreCleanedUp() throws Exception {
+        IdempotencyServiceImpl expiring = new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate,
+                Duration.ZERO, Duration.ofMinutes(1), 100);
+        expiring.begin("7", BOOKINGS, "key-1", "hash");
+        assertEquals(1, idempotencyKeyRepository.count());
+        Thread.sleep(5);
+
+        expiring.deleteExpired();
+
+        assertEquals(0, idempotencyKeyRepository.count());
+        assertEquals(IdempotencyService.Outcome.STARTED, expiring.begin("7", BOOKINGS, "key-1", "hash").outcome());
+    }
+
+    private IdempotencyServiceImpl service() {
+        return new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate,
+                Duration.ofHours(24), Duration.ofMinutes(1), 100);
+    }
+
+    private IdempotencyFilter filter(IdempotencyService service) {
+        return new IdempotencyFilter(service, new ObjectMapper().findAndRegisterModules(), meterRegistry,
+                List.of(BOOKINGS, "/api/v1/payments/pay"), DataSize.ofKilobytes(64));
+    }
+
+    private MockHttpServletResponse send(IdempotencyFilter target, String key, String body, int status) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            target.doFilter(request(key, body), response, chain(status));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        return response;
+    }
+
+    private FilterChain chain(int status) {
+        return (req, res) -> {
+            // Controller đọc body như bình thường
+            String body = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int count = handled.incrementAndGet();
+            ((jakarta.servlet.http.HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getWriter().write("{\"success\":true,\"data\":{\"bookingCode\":\"BK" + count + "\",\"length\":"
+                    + body.length() + "}}");
+        };
+    }
+
+    private MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", BOOKINGS);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.addHeader("user-id", "7");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package ra.api_project_react_native_booking.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hook Hibernate thật (qua MonitoringConfig) + filter: số câu SQL / entity được gắn đúng vào route
+@DataJpaTest
+@Import(MonitoringConfig.class)
+class RequestMetricsFilterTest {
+
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(meterRegistry, Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Hotel.builder()
+                    .name("Hotel " + i)
+                    .address(i + " Test Street")
+                    .city("Huế")
+                    .country("Việt Nam")
+                    .starRating(3)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void recordsLatencyAndSqlPerRoute() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            perform("/api/v1/hotels", "/api/v1/hotels", () -> hotelRepository.findAll());
+            entityManager.clear();
+        }
+        perform("/api/v1/hotels/1", "/api/v1/hotels/{id}", () -> hotelRepository.count());
+
+        List<Map<String, Object>> routes = new RouteMetricsEndpoint(meterRegistry).routes();
+        Map<String, Object> list = route(routes, "/api/v1/hotels");
+        assertEquals("GET", list.get("method"));
+        assertEquals("200", list.get("status"));
+        assertEquals(2L, list.get("count"));
+        assertEquals(1.0, list.get("sqlStatementsMean"));
+        assertEquals(3.0, list.get("entitiesLoadedMax"));
+        assertTrue(list.containsKey("p99Ms"));
+
+        Map<String, Object> detail = route(routes, "/api/v1/hotels/{id}");
+        assertEquals(1L, detail.get("count"));
+        assertEquals(0.0, detail.get("entitiesLoadedMax"));
+    }
+
+    @Test
+    void ignoresNonApiRequestsAndSqlOutsideRequests() throws Exception {
+        hotelRepository.findAll();
+        perform("/actuator/health", null, () -> hotelRepository.findAll());
+
+        assertTrue(meterRegistry.find(RequestMetricsFilter.LATENCY).timers().isEmpty());
+    }
+
+    private void perform(String uri, String pattern, Runnable handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                if (pattern != null) {
+                    req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                }
+                handler.run();
+            }
+        });
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    private Map<String, Object> route(List<Map<String, Object>> routes, String uri) {
+        return routes.stream().filter(row -> uri.equals(row.get("uri"))).findFirst().orElseThrow();
+    }
+}
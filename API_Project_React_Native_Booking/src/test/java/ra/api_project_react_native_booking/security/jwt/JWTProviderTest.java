@@ -0,0 +1,88 @@
+package ra.api_project_react_native_booking.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTProviderTest {
+
+    private static final String SECRET = "duong1301naduong1301naduong1301naduong1301na";
+
+    private JWTProvider jwtProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtProvider = provider(SECRET);
+    }
+
+    @Test
+    void parsesClaimsOfLoginToken() {
+        String token = jwtProvider.generateTokenWithClaims(42L, "guest@example.com", "USER", "ACTIVE", "device-1");
+
+        Claims claims = jwtProvider.parseClaims(token);
+
+        assertNotNull(claims);
+        assertEquals("42", claims.getSubject());
+        assertEquals("USER", claims.get("role"));
+        assertEquals("device-1", claims.get("deviceId"));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        String forged = provider("anothersecretanothersecretanothersecretanother1")
+                .generateTokenWithClaims(42L, "guest@example.com", "USER", "ACTIVE", null);
+
+        assertNull(jwtProvider.parseClaims(forged));
+        assertFalse(jwtProvider.validateToken(forged));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        long now = System.currentTimeMillis();
+        // Cùng khoá, còn hạn thì đọc được: null bên dưới là do hết hạn chứ không phải do sai chữ ký
+        assertNotNull(jwtProvider.parseClaims(signedToken(new Date(now), new Date(now + 60_000))));
+
+        assertNull(jwtProvider.parseClaims(signedToken(new Date(now - 120_000), new Date(now - 60_000))));
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedTokens() {
+        String token = jwtProvider.generateTokenWithClaims(42L, "guest@example.com", "USER", "ACTIVE", null);
+        String[] parts = token.split("\\.");
+        String otherUser = jwtProvider.generateTokenWithClaims(1L, "admin@example.com", "ADMIN", "ACTIVE", null);
+        // Payload của user khác ghép với chữ ký của token này
+        String tampered = parts[0] + "." + otherUser.split("\\.")[1] + "." + parts[2];
+
+        assertNull(jwtProvider.parseClaims(tampered));
+        assertNull(jwtProvider.parseClaims("not-a-jwt"));
+        assertNull(jwtProvider.parseClaims(""));
+    }
+
+    // JWTProvider truyền secret dạng String nên jjwt coi đó là Base64
+    private static String signedToken(Date issuedAt, Date expiration) {
+        return Jwts.builder()
+                .setSubject("42")
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static JWTProvider provider(String secret) {
+        JWTProvider provider = new JWTProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpire", 60_000);
+        ReflectionTestUtils.setField(provider, "jwtRefresh", 120_000);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,67 @@
+package ra.api_project_react_native_booking.security.principal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import ra.api_project_react_native_booking.model.User;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, UserDetails> loader = subject -> {
+        loads.incrementAndGet();
+        return CustomUserPrincipal.builder().id(7L).email("guest@example.com").build();
+    };
+
+    @Test
+    void loadsEachSubjectOnce() {
+        PrincipalCache cache = new PrincipalCache(100, Duration.ofMinutes(5));
+
+        UserDetails first = cache.get("7", loader);
+        UserDetails second = cache.get("7", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateEvictsBothIdAndEmailSubjects() {
+        PrincipalCache cache = new PrincipalCache(100, Duration.ofMinutes(5));
+        cache.get("7", loader);
+        cache.get("guest@example.com", loader);
+
+        cache.invalidate(User.builder().id(7L).email("guest@example.com").build());
+        cache.get("7", loader);
+        cache.get("guest@example.com", loader);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws InterruptedException {
+        PrincipalCache cache = new PrincipalCache(100, Duration.ofMillis(20));
+        cache.get("7", loader);
+
+        Thread.sleep(50);
+        cache.get("7", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        PrincipalCache cache = new PrincipalCache(100, Duration.ofMinutes(5));
+
+        assertThrows(RuntimeException.class, () -> cache.get("404", subject -> {
+            throw new RuntimeException("User not found");
+        }));
+        cache.get("404", loader);
+
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,257 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.dto.request.BookingRequest;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.RoomNightRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Nhiều luồng cùng đặt phòng: không được có hai booking giữ phòng chồng đêm lên nhau
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingServiceImpl.class, RoomAvailabilityServiceImpl.class, RoomLockStripes.class, PricingServiceImpl.class})
+class BookingServiceImplConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private RoomLockStripes roomLockStripes;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDate today = LocalDate.now();
+    private User user;
+    private Room room1;
+    private Room room2;
+
+    @BeforeEach
+    void setUp() {
+        // Dữ liệu mẫu phải commit thật để các luồng khác nhìn thấy
+        transactionTemplate.executeWithoutResult(status -> persistFixtures());
+    }
+
+    private void persistFixtures() {
+        user = entityManager.persist(User.builder()
+                .password("secret")
+                .fullName("Stress User")
+                .email("stress@example.com")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .gender(GenderName.OTHER)
+                .build());
+        Hotel hotel = entityManager.persist(Hotel.builder()
+                .name("Stress Hotel")
+                .address("1 Test Street")
+                .city("Đà Nẵng")
+                .country("Việt Nam")
+                .starRating(4)
+                .build());
+        RoomType roomType = entityManager.persist(RoomType.builder().name("Deluxe").build());
+        room1 = entityManager.persist(room(hotel, roomType, "101"));
+        room2 = entityManager.persist(room(hotel, roomType, "102"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String entity : List.of("RoomNight", "Booking", "Room", "RoomType", "Hotel", "User")) {
+                entityManager.getEntityManager().createQuery("DELETE FROM " + entity).executeUpdate();
+            }
+        });
+    }
+
+    @Test
+    void onlyOneOfManyIdenticalRequestsWins() throws Exception {
+        List<Boolean> results = runConcurrently(THREADS, i -> book(room1.getId(), today.plusDays(3), today.plusDays(6)));
+
+        assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(3, roomNightRepository.countByRoomId(room1.getId()));
+    }
+
+    @Test
+    void randomOverlappingRequestsNeverOverbook() throws Exception {
+        AtomicInteger successes = new AtomicInteger();
+        runConcurrently(THREADS, i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < 15; attempt++) {
+                Long roomId = random.nextBoolean() ? room1.getId() : room2.getId();
+                LocalDate checkIn = today.plusDays(1 + random.nextInt(20));
+                if (book(roomId, checkIn, checkIn.plusDays(1 + random.nextInt(4)))) {
+                    successes.incrementAndGet();
+                }
+            }
+            return true;
+        });
+
+        List<Booking> bookings = bookingRepository.findAll();
+        assertEquals(successes.get(), bookings.size());
+        Map<Long, List<Booking>> byRoom = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getRoom().getId()));
+        for (List<Booking> roomBookings : byRoom.values()) {
+            for (int a = 0; a < roomBookings.size(); a++) {
+                for (int b = a + 1; b < roomBookings.size(); b++) {
+                    Booking first = roomBookings.get(a);
+                    Booking second = roomBookings.get(b);
+                    assertFalse(first.getCheckInDate().isBefore(second.getCheckOutDate())
+                                    && second.getCheckInDate().isBefore(first.getCheckOutDate()),
+                            "Overbooked: " + first.getBookingCode() + " and " + second.getBookingCode());
+                }
+            }
+        }
+        long nights = bookings.stream()
+                .mapToLong(booking -> ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate()))
+                .sum();
+        assertEquals(nights, roomNightRepository.count());
+    }
+
+    @Test
+    void differentRoomsDoNotWaitForEachOther() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Giữ khoá phòng 1 trong khi đặt phòng 2 ở luồng khác
+            boolean bookedRoom2 = roomLockStripes.withRoomLock(room1.getId(), () -> {
+                try {
+                    return executor.submit(() -> book(room2.getId(), today.plusDays(1), today.plusDays(2)))
+                            .get(2, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(bookedRoom2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void cancellingReleasesNightsAndDatabaseRejectsDuplicates() {
+        assertTrue(book(room1.getId(), today.plusDays(1), today.plusDays(3)));
+        Booking booking = bookingRepository.findAll().get(0);
+
+        // Chốt chặn database: chèn trùng đêm bỏ qua khoá vẫn bị từ chối
+        assertThrows(DataIntegrityViolationException.class, () -> roomNightRepository.save(RoomNight.builder()
+                .room(room1)
+                .booking(booking)
+                .nightDate(today.plusDays(2))
+                .build()));
+
+        bookingService.cancelBooking(booking.getId(), "changed plans");
+        assertEquals(0, roomNightRepository.countByRoomId(room1.getId()));
+        assertTrue(book(room1.getId(), today.plusDays(1), today.plusDays(3)));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> bookingService.updateBookingStatus(booking.getId(), BookingStatus.CONFIRMED));
+        assertEquals("Room is not available for the selected dates", error.getMessage());
+    }
+
+    @Test
+    void concurrentStatusChangesKeepNightsInSync() throws Exception {
+        assertTrue(book(room1.getId(), today.plusDays(1), today.plusDays(4)));
+        Long bookingId = bookingRepository.findAll().get(0).getId();
+
+        // Huỷ và xác nhận đan xen: trạng thái cũ phải đọc trong transaction, không thì room_nights lệch với status
+        runConcurrently(THREADS, i -> {
+            for (int round = 0; round < 10; round++) {
+                try {
+                    if ((i + round) % 2 == 0) {
+                        bookingService.cancelBooking(bookingId, "race");
+                    } else {
+                        bookingService.updateBookingStatus(bookingId, BookingStatus.CONFIRMED);
+                    }
+                } catch (RuntimeException ignored) {
+                    // thua cuộc đua: booking đã bị request khác đổi trạng thái
+                }
+            }
+            return true;
+        });
+
+        BookingStatus finalStatus = bookingRepository.findById(bookingId).orElseThrow().getStatus();
+        long expectedNights = RoomAvailabilityServiceImpl.OCCUPYING_STATUSES.contains(finalStatus) ? 3 : 0;
+        assertEquals(expectedNights, roomNightRepository.countByRoomId(room1.getId()));
+    }
+
+    private boolean book(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        try {
+            bookingService.createBooking(BookingRequest.builder()
+                    .roomId(roomId)
+                    .checkInDate(checkIn)
+                    .checkOutDate(checkOut)
+                    .guests(2)
+                    .build(), user.getId());
+            return true;
+        } catch (RuntimeException e) {
+            assertEquals("Room is not available for the selected dates", e.getMessage());
+            return false;
+        }
+    }
+
+    private <T> List<T> runConcurrently(int threads, IntFunctionTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.apply(index);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Room room(Hotel hotel, RoomType roomType, String number) {
+        return Room.builder()
+                .roomNumber(number)
+                .hotel(hotel)
+                .roomType(roomType)
+                .price(BigDecimal.valueOf(1_000_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface IntFunctionTask<T> {
+        T apply(int index) throws Exception;
+    }
+}
@@ -0,0 +1,164 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.dto.request.BookingRequest;
+import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
+import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.RoomNightRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Booking PENDING quá hạn giữ phòng bị huỷ, nhả room_nights và bitmap
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingServiceImpl.class, RoomAvailabilityServiceImpl.class, RoomLockStripes.class, PricingServiceImpl.class})
+class BookingServiceImplHoldExpiryTest {
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private RoomAvailabilityServiceImpl roomAvailabilityService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(5);
+    private final LocalDate checkOut = checkIn.plusDays(2);
+    private User user;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            user = entityManager.persist(User.builder()
+                    .password("secret")
+                    .fullName("Hold User")
+                    .email("hold@example.com")
+                    .birthday(LocalDate.of(2000, 1, 1))
+                    .gender(GenderName.OTHER)
+                    .build());
+            Hotel hotel = entityManager.persist(Hotel.builder()
+                    .name("Hold Hotel")
+                    .address("4 Test Street")
+                    .city("Huế")
+                    .country("Việt Nam")
+                    .starRating(3)
+                    .build());
+            RoomType roomType = entityManager.persist(RoomType.builder().name("Standard").build());
+            room = entityManager.persist(Room.builder()
+                    .roomNumber("401")
+                    .hotel(hotel)
+                    .roomType(roomType)
+                    .price(BigDecimal.valueOf(500_000))
+                    .capacity(2)
+                    .isAvailable(true)
+                    .build());
+        });
+        roomAvailabilityService.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String entity : List.of("Payment", "RoomNight", "Booking", "Room", "RoomType", "Hotel", "User")) {
+                entityManager.getEntityManager().createQuery("DELETE FROM " + entity).executeUpdate();
+            }
+        });
+    }
+
+    @Test
+    void newBookingHoldsRoomUntilExpiry() {
+        BookingResponse created = book();
+
+        Booking booking = bookingRepository.findById(created.getId()).orElseThrow();
+        assertNotNull(booking.getExpiresAt());
+        assertTrue(booking.getExpiresAt().isAfter(LocalDateTime.now()));
+        assertEquals(0, bookingService.expireStaleHolds());
+        assertTrue(roomAvailabilityService.isRoomBooked(room.getId(), checkIn, checkOut));
+    }
+
+    @Test
+    void expiredHoldIsCancelledAndReleasesRoom() {
+        BookingResponse created = book();
+        expire(created.getId());
+
+        assertEquals(1, bookingService.expireStaleHolds());
+
+        Booking cancelled = bookingRepository.findById(created.getId()).orElseThrow();
+        assertEquals(BookingStatus.CANCELLED, cancelled.getStatus());
+        assertNull(cancelled.getExpiresAt());
+        assertNotNull(cancelled.getCancellationReason());
+        assertEquals(0, roomNightRepository.countByRoomId(room.getId()));
+        assertFalse(roomAvailabilityService.isRoomBooked(room.getId(), checkIn, checkOut));
+        // Phòng đặt lại được, và lượt quét sau không huỷ lần nữa
+        book();
+        assertEquals(0, bookingService.expireStaleHolds());
+    }
+
+    @Test
+    void confirmedBookingIsNeverExpired() {
+        BookingResponse created = book();
+        expire(created.getId());
+        bookingService.updateBookingStatus(created.getId(), BookingStatus.CONFIRMED);
+
+        assertNull(bookingRepository.findById(created.getId()).orElseThrow().getExpiresAt());
+        assertEquals(0, bookingService.expireStaleHolds());
+        assertTrue(roomAvailabilityService.isRoomBooked(room.getId(), checkIn, checkOut));
+    }
+
+    @Test
+    void holdWithPaymentAwaitingProviderIsKept() {
+        BookingResponse created = book();
+        expire(created.getId());
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(Payment.builder()
+                .user(entityManager.find(User.class, user.getId()))
+                .booking(entityManager.find(Booking.class, created.getId()))
+                .amount(created.getTotalPrice())
+                .currency("VND")
+                .status(PaymentStatus.PENDING)
+                .build()));
+
+        assertEquals(0, bookingService.expireStaleHolds());
+        assertEquals(BookingStatus.PENDING, bookingRepository.findById(created.getId()).orElseThrow().getStatus());
+    }
+
+    private BookingResponse book() {
+        return bookingService.createBooking(BookingRequest.builder()
+                .roomId(room.getId())
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .guests(2)
+                .build(), user.getId());
+    }
+
+    private void expire(Long bookingId) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.getEntityManager()
+                .createQuery("UPDATE Booking b SET b.expiresAt = :past WHERE b.id = :id")
+                .setParameter("past", LocalDateTime.now().minusMinutes(1))
+                .setParameter("id", bookingId)
+                .executeUpdate());
+    }
+}
@@ -0,0 +1,108 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Export lịch sử booking đi qua từng trang cursor: đủ mọi booking, không trùng, mới nhất trước
+@DataJpaTest
+@Import({BookingServiceImpl.class, RoomAvailabilityServiceImpl.class, RoomLockStripes.class, PricingServiceImpl.class})
+class BookingServiceImplStreamTest {
+
+    private static final int BOOKINGS = 60;
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .password("secret")
+                .fullName("Export User")
+                .email("export@example.com")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .gender(GenderName.OTHER)
+                .build());
+        Hotel hotel = entityManager.persist(Hotel.builder()
+                .name("Export Hotel")
+                .address("1 Test Street")
+                .city("Huế")
+                .country("Việt Nam")
+                .starRating(3)
+                .build());
+        RoomType roomType = entityManager.persist(RoomType.builder().name("Standard").build());
+        Room room = entityManager.persist(Room.builder()
+                .roomNumber("201")
+                .hotel(hotel)
+                .roomType(roomType)
+                .price(BigDecimal.valueOf(500_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            entityManager.persist(Booking.builder()
+                    .bookingCode("EXP" + i)
+                    .user(user)
+                    .room(room)
+                    .checkInDate(start.plusDays(i * 2L))
+                    .checkOutDate(start.plusDays(i * 2L + 1))
+                    .guests(1)
+                    .totalPrice(BigDecimal.valueOf(500_000))
+                    .status(BookingStatus.CHECKED_OUT)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void cursorPagesCoverEveryBookingOnceInOrder() {
+        List<String> codes = new ArrayList<>();
+        int pages = 0;
+        CursorPage<BookingResponse> page = bookingService.getBookingsByUserCursor(user.getId(), null, 25);
+        while (true) {
+            pages++;
+            page.getContent().forEach(booking -> codes.add(booking.getBookingCode()));
+            if (!page.isHasNext()) {
+                break;
+            }
+            page = bookingService.getBookingsByUserCursor(user.getId(), page.getNextCursor(), 25);
+        }
+
+        assertEquals(3, pages);
+        assertEquals(BOOKINGS, codes.size());
+        assertEquals(BOOKINGS, codes.stream().distinct().count());
+        // Mới nhất trước: booking tạo sau cùng đứng đầu
+        assertEquals("EXP" + (BOOKINGS - 1), codes.get(0));
+    }
+
+    @Test
+    void pageSizeIsCappedAtMaxPageSize() {
+        CursorPage<BookingResponse> page = bookingService.getBookingsByUserCursor(user.getId(), null, 1_000);
+
+        assertEquals(SeekCursor.MAX_PAGE_SIZE, page.getSize());
+        assertEquals(BOOKINGS, page.getContent().size());
+        assertFalse(page.isHasNext());
+    }
+}
@@ -0,0 +1,142 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ra.api_project_react_native_booking.dto.response.BookingResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Màn hình chính: booking PENDING / CONFIRMED có ngày nhận phòng từ `from`, gần nhất trước, tối đa 100
+@DataJpaTest
+@Import({BookingServiceImpl.class, RoomAvailabilityServiceImpl.class, RoomLockStripes.class, PricingServiceImpl.class})
+class BookingServiceImplUpcomingTest {
+
+    private static final LocalDate FROM = LocalDate.of(2031, 6, 1);
+
+    @Autowired
+    private BookingServiceImpl bookingService;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private User otherUser;
+    private Room room;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(user("upcoming@example.com"));
+        otherUser = entityManager.persist(user("other@example.com"));
+        Hotel hotel = entityManager.persist(Hotel.builder()
+                .name("Upcoming Hotel")
+                .address("6 Test Street")
+                .city("Đà Lạt")
+                .country("Việt Nam")
+                .starRating(3)
+                .build());
+        RoomType roomType = entityManager.persist(RoomType.builder().name("Standard").build());
+        room = entityManager.persist(Room.builder()
+                .roomNumber("601")
+                .hotel(hotel)
+                .roomType(roomType)
+                .price(BigDecimal.valueOf(400_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+    }
+
+    @Test
+    void fromDateIsInclusive() {
+        booking(user, FROM.minusDays(1), BookingStatus.CONFIRMED);
+        String onFrom = booking(user, FROM, BookingStatus.CONFIRMED);
+        String after = booking(user, FROM.plusDays(1), BookingStatus.PENDING);
+
+        assertEquals(List.of(onFrom, after), codes(bookingService.getUpcomingBookings(user.getId(), FROM, 20)));
+    }
+
+    @Test
+    void onlyPendingAndConfirmedOfThatUserAreReturned() {
+        String pending = booking(user, FROM.plusDays(1), BookingStatus.PENDING);
+        String confirmed = booking(user, FROM.plusDays(2), BookingStatus.CONFIRMED);
+        for (BookingStatus status : List.of(BookingStatus.CANCELLED, BookingStatus.CHECKED_IN, BookingStatus.CHECKED_OUT)) {
+            booking(user, FROM.plusDays(3), status);
+        }
+        booking(otherUser, FROM.plusDays(1), BookingStatus.CONFIRMED);
+
+        assertEquals(List.of(pending, confirmed), codes(bookingService.getUpcomingBookings(user.getId(), FROM, 20)));
+    }
+
+    @Test
+    void orderedByCheckInThenId() {
+        String late = booking(user, FROM.plusDays(10), BookingStatus.CONFIRMED);
+        String sameDayFirst = booking(user, FROM.plusDays(2), BookingStatus.CONFIRMED);
+        String sameDaySecond = booking(user, FROM.plusDays(2), BookingStatus.PENDING);
+        String soonest = booking(user, FROM, BookingStatus.PENDING);
+
+        assertEquals(List.of(soonest, sameDayFirst, sameDaySecond, late),
+                codes(bookingService.getUpcomingBookings(user.getId(), FROM, 20)));
+    }
+
+    @Test
+    void limitIsClampedBetweenOneAndHundred() {
+        for (int i = 0; i < 120; i++) {
+            booking(user, FROM.plusDays(i), BookingStatus.CONFIRMED);
+        }
+
+        List<BookingResponse> capped = bookingService.getUpcomingBookings(user.getId(), FROM, 1_000);
+        assertEquals(100, capped.size());
+        assertEquals(FROM.plusDays(99), capped.get(99).getCheckInDate());
+        assertEquals(5, bookingService.getUpcomingBookings(user.getId(), FROM, 5).size());
+        assertEquals(1, bookingService.getUpcomingBookings(user.getId(), FROM, 0).size());
+        assertEquals(1, bookingService.getUpcomingBookings(user.getId(), FROM, -3).size());
+    }
+
+    @Test
+    void missingFromDefaultsToToday() {
+        LocalDate today = LocalDate.now();
+        booking(user, today.minusDays(1), BookingStatus.CONFIRMED);
+        String checkInToday = booking(user, today, BookingStatus.CONFIRMED);
+
+        assertEquals(List.of(checkInToday), codes(bookingService.getUpcomingBookings(user.getId(), null, 20)));
+    }
+
+    private String booking(User owner, LocalDate checkIn, BookingStatus status) {
+        String code = "UP" + (++sequence);
+        entityManager.persist(Booking.builder()
+                .bookingCode(code)
+                .user(owner)
+                .room(room)
+                .checkInDate(checkIn)
+                .checkOutDate(checkIn.plusDays(1))
+                .guests(1)
+                .totalPrice(BigDecimal.valueOf(400_000))
+                .status(status)
+                .build());
+        return code;
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .password("secret")
+                .fullName("Upcoming User")
+                .email(email)
+                .birthday(LocalDate.of(2000, 1, 1))
+                .gender(GenderName.OTHER)
+                .build();
+    }
+
+    private static List<String> codes(List<BookingResponse> bookings) {
+        return bookings.stream().map(BookingResponse::getBookingCode).toList();
+    }
+}
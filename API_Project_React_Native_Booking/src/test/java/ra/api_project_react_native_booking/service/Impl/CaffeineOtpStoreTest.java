@@ -0,0 +1,116 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.Test;
+import ra.api_project_react_native_booking.service.interfaces.OtpStore.IssueStatus;
+import ra.api_project_react_native_booking.service.interfaces.OtpStore.Policy;
+import ra.api_project_react_native_booking.service.interfaces.OtpStore.Status;
+import ra.api_project_react_native_booking.service.interfaces.OtpStore.Verification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineOtpStoreTest {
+
+    private static final String KEY = "user:7";
+    private static final byte[] CODE = "123456".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] WRONG = "999999".getBytes(StandardCharsets.UTF_8);
+    private static final Policy POLICY = policy(Duration.ofMinutes(5), Duration.ZERO, 3, 5, Duration.ofHours(24));
+
+    private final CaffeineOtpStore store = new CaffeineOtpStore(1000);
+
+    @Test
+    void verifiesAndConsumesCode() {
+        assertEquals(IssueStatus.ISSUED, store.issue(KEY, CODE, POLICY));
+
+        // Chưa consume thì vẫn dùng tiếp được (bước verify-otp trước reset-password)
+        assertEquals(Status.VALID, store.verify(KEY, CODE, POLICY, false).status());
+        assertEquals(Status.VALID, store.verify(KEY, CODE, POLICY, true).status());
+        assertEquals(Status.EXPIRED, store.verify(KEY, CODE, POLICY, true).status());
+    }
+
+    @Test
+    void locksAfterMaxAttempts() {
+        store.issue(KEY, CODE, POLICY);
+
+        Verification first = store.verify(KEY, WRONG, POLICY, false);
+        assertEquals(Status.INVALID, first.status());
+        assertEquals(2, first.attemptsLeft());
+        assertEquals(Status.INVALID, store.verify(KEY, WRONG, POLICY, false).status());
+        assertEquals(Status.LOCKED, store.verify(KEY, WRONG, POLICY, false).status());
+        // Đã khoá thì mã đúng cũng bị từ chối
+        assertEquals(Status.LOCKED, store.verify(KEY, CODE, POLICY, false).status());
+
+        // Xin mã mới không mở khoá được trong cửa sổ
+        assertEquals(IssueStatus.LIMITED, store.issue(KEY, WRONG, POLICY));
+        assertEquals(Status.LOCKED, store.verify(KEY, WRONG, POLICY, false).status());
+    }
+
+    @Test
+    void failedAttemptsSurviveReissue() {
+        store.issue(KEY, CODE, POLICY);
+        store.verify(KEY, WRONG, POLICY, false);
+        store.verify(KEY, WRONG, POLICY, false);
+
+        assertEquals(IssueStatus.ISSUED, store.issue(KEY, WRONG, POLICY));
+
+        // Còn đúng một lần thử, không phải ba
+        Verification retry = store.verify(KEY, CODE, POLICY, false);
+        assertEquals(Status.LOCKED, retry.status());
+        assertEquals(0, retry.attemptsLeft());
+    }
+
+    @Test
+    void capsIssuesPerWindow() {
+        Policy twoPerDay = policy(Duration.ofMinutes(5), Duration.ZERO, 3, 2, Duration.ofHours(24));
+
+        assertEquals(IssueStatus.ISSUED, store.issue(KEY, CODE, twoPerDay));
+        assertEquals(IssueStatus.ISSUED, store.issue(KEY, CODE, twoPerDay));
+        assertEquals(IssueStatus.LIMITED, store.issue(KEY, WRONG, twoPerDay));
+        // Dùng mã thành công cũng không trả lại lượt cấp
+        assertEquals(Status.VALID, store.verify(KEY, CODE, twoPerDay, true).status());
+        assertEquals(IssueStatus.LIMITED, store.issue(KEY, WRONG, twoPerDay));
+        assertEquals(IssueStatus.ISSUED, store.issue("user:8", WRONG, twoPerDay));
+    }
+
+    @Test
+    void countersResetWhenWindowCloses() throws InterruptedException {
+        Policy shortWindow = policy(Duration.ofMillis(50), Duration.ZERO, 1, 1, Duration.ofMillis(100));
+        store.issue(KEY, CODE, shortWindow);
+        assertEquals(Status.LOCKED, store.verify(KEY, WRONG, shortWindow, false).status());
+
+        Thread.sleep(150);
+
+        assertEquals(IssueStatus.ISSUED, store.issue(KEY, CODE, shortWindow));
+        assertEquals(Status.VALID, store.verify(KEY, CODE, shortWindow, false).status());
+    }
+
+    @Test
+    void rejectsReissueWithinCooldown() {
+        Policy cooldown = policy(Duration.ofMinutes(5), Duration.ofMinutes(1), 3, 5, Duration.ofHours(24));
+
+        assertEquals(IssueStatus.ISSUED, store.issue(KEY, CODE, cooldown));
+        assertEquals(IssueStatus.COOLDOWN, store.issue(KEY, WRONG, cooldown));
+
+        // Mã cũ vẫn còn hiệu lực
+        assertEquals(Status.VALID, store.verify(KEY, CODE, cooldown, false).status());
+        assertEquals(IssueStatus.ISSUED, store.issue("user:8", WRONG, cooldown));
+    }
+
+    @Test
+    void expiresAfterTtlButKeepsFailures() throws InterruptedException {
+        store.issue(KEY, CODE, policy(Duration.ofMillis(50), Duration.ZERO, 3, 5, Duration.ofHours(24)));
+        store.verify(KEY, WRONG, POLICY, false);
+
+        Thread.sleep(80);
+
+        Verification expired = store.verify(KEY, CODE, POLICY, false);
+        assertEquals(Status.EXPIRED, expired.status());
+        assertEquals(2, expired.attemptsLeft());
+    }
+
+    private static Policy policy(Duration ttl, Duration cooldown, int maxAttempts, int maxIssues, Duration window) {
+        return new Policy(ttl, cooldown, maxAttempts, maxIssues, window);
+    }
+}
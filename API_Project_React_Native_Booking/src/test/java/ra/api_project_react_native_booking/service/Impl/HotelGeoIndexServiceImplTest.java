@@ -0,0 +1,93 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.service.interfaces.HotelGeoIndexService.NearbyHotel;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotelGeoIndexServiceImplTest {
+
+    // Nhà thờ Lớn Hà Nội
+    private static final double LAT = 21.0287;
+    private static final double LNG = 105.8490;
+
+    private HotelRepository hotelRepository;
+    private HotelGeoIndexServiceImpl geoIndex;
+
+    @BeforeEach
+    void setUp() {
+        hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(List.of(
+                hotel(1L, 21.0245, 105.8412),   // Hồ Hoàn Kiếm, < 1km
+                hotel(2L, 21.0368, 105.8347),   // Lăng Bác, ~1.7km
+                hotel(3L, 20.9517, 105.7484),   // Hà Đông, ~13km
+                hotel(4L, 16.0544, 108.2022),   // Đà Nẵng
+                hotel(5L, null, null),
+                hotel(6L, -16.5, 179.95)        // sát kinh tuyến 180
+        ));
+        geoIndex = new HotelGeoIndexServiceImpl(hotelRepository);
+        ReflectionTestUtils.setField(geoIndex, "cellDegrees", 0.1);
+        geoIndex.reload();
+    }
+
+    @Test
+    void returnsHotelsWithinRadiusSortedByDistance() {
+        List<NearbyHotel> nearby = geoIndex.findNearby(LAT, LNG, 5);
+
+        assertEquals(List.of(1L, 2L), nearby.stream().map(NearbyHotel::hotelId).toList());
+        assertTrue(nearby.get(0).distanceKm() < nearby.get(1).distanceKm());
+        assertEquals(3, geoIndex.findNearby(LAT, LNG, 20).size());
+    }
+
+    @Test
+    void matchesBruteForceHaversine() {
+        List<NearbyHotel> nearby = geoIndex.findNearby(LAT, LNG, 800);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), nearby.stream().map(NearbyHotel::hotelId).toList());
+        assertEquals(HotelGeoIndexServiceImpl.haversineKm(LAT, LNG, 16.0544, 108.2022), nearby.get(3).distanceKm(), 1e-9);
+    }
+
+    @Test
+    void refreshPicksUpRowsWrittenOutsideTheApp() {
+        // Khách sạn 1 dời sang Đà Nẵng, khách sạn 2 bị xoá, khách sạn 5 được gắn toạ độ
+        when(hotelRepository.findAll()).thenReturn(List.of(
+                hotel(1L, 16.0600, 108.2100),
+                hotel(3L, 20.9517, 105.7484),
+                hotel(4L, 16.0544, 108.2022),
+                hotel(5L, 21.0290, 105.8500),
+                hotel(6L, -16.5, 179.95)
+        ));
+
+        geoIndex.refresh();
+
+        assertEquals(List.of(5L), geoIndex.findNearby(LAT, LNG, 5).stream().map(NearbyHotel::hotelId).toList());
+        assertEquals(List.of(4L, 1L), geoIndex.findNearby(16.0544, 108.2022, 5).stream().map(NearbyHotel::hotelId).toList());
+    }
+
+    @Test
+    void wrapsAroundAntimeridian() {
+        assertEquals(List.of(6L), geoIndex.findNearby(-16.5, -179.95, 20).stream().map(NearbyHotel::hotelId).toList());
+    }
+
+    @Test
+    void reindexMovesHotelBetweenCells() {
+        when(hotelRepository.findById(3L)).thenReturn(Optional.of(hotel(3L, 21.0300, 105.8500)));
+
+        geoIndex.reindex(3L);
+
+        assertEquals(3L, geoIndex.findNearby(LAT, LNG, 5).get(0).hotelId());
+        assertEquals(3, geoIndex.findNearby(LAT, LNG, 20).size());
+    }
+
+    private Hotel hotel(Long id, Double latitude, Double longitude) {
+        return Hotel.builder().id(id).name("Hotel " + id).latitude(latitude).longitude(longitude).build();
+    }
+}
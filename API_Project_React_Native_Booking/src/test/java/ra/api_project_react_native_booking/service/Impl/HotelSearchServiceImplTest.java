@@ -0,0 +1,92 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ra.api_project_react_native_booking.event.HotelChangedEvent;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotelSearchServiceImplTest {
+
+    private HotelRepository hotelRepository;
+    private HotelSearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() {
+        hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(List.of(
+                hotel(1L, "Khách sạn Biển Xanh", "Đà Nẵng", "12 Võ Nguyên Giáp", "Gần biển Mỹ Khê", 4),
+                hotel(2L, "Sài Gòn Riverside", "Hồ Chí Minh", "8 Tôn Đức Thắng", "View sông Sài Gòn", 5),
+                hotel(3L, "Hanoi Old Quarter Inn", "Hà Nội", "5 Hàng Bạc", "Gần Đà Nẵng street food", 3)
+        ));
+        searchService = new HotelSearchServiceImpl(hotelRepository);
+        searchService.reload();
+    }
+
+    @Test
+    void foldsVietnameseAccents() {
+        assertEquals(List.of("da", "nang", "duong", "ho"), HotelSearchServiceImpl.tokenize("Đà Nẵng, đường Hồ"));
+        assertEquals(List.of(2L), searchService.search("sai gon"));
+        assertEquals(List.of(2L), searchService.search("SÀI GÒN"));
+    }
+
+    @Test
+    void matchesPrefixesAndRanksByField() {
+        // Khách sạn 1 khớp ở city, khách sạn 3 chỉ khớp ở description
+        assertEquals(List.of(1L, 3L), searchService.search("da nan"));
+        assertEquals(List.of(3L), searchService.search("hano"));
+        assertTrue(searchService.search("xyz").isEmpty());
+        assertTrue(searchService.search("  ").isEmpty());
+    }
+
+    @Test
+    void reindexesChangedHotel() {
+        Hotel renamed = hotel(2L, "Saigon Central", "Hồ Chí Minh", "8 Tôn Đức Thắng", null, 5);
+        when(hotelRepository.findById(2L)).thenReturn(Optional.of(renamed));
+
+        searchService.onHotelChanged(new HotelChangedEvent(2L));
+
+        assertTrue(searchService.search("riverside").isEmpty());
+        assertEquals(List.of(2L), searchService.search("central"));
+
+        when(hotelRepository.findById(1L)).thenReturn(Optional.empty());
+        searchService.reindex(1L);
+        assertEquals(List.of(3L), searchService.search("da nang"));
+    }
+
+    @Test
+    void refreshPicksUpRowsWrittenOutsideTheApp() {
+        // Script SQL đổi tên khách sạn 2, xoá khách sạn 3, thêm khách sạn 4; không có HotelChangedEvent
+        when(hotelRepository.findAll()).thenReturn(List.of(
+                hotel(1L, "Khách sạn Biển Xanh", "Đà Nẵng", "12 Võ Nguyên Giáp", "Gần biển Mỹ Khê", 4),
+                hotel(2L, "Saigon Central", "Hồ Chí Minh", "8 Tôn Đức Thắng", null, 5),
+                hotel(4L, "Hội An Garden", "Hội An", "1 Trần Phú", null, 4)
+        ));
+
+        searchService.refresh();
+
+        assertTrue(searchService.search("riverside").isEmpty());
+        assertEquals(List.of(2L), searchService.search("central"));
+        assertTrue(searchService.search("hanoi").isEmpty());
+        assertEquals(List.of(4L), searchService.search("hoi an"));
+        assertEquals(List.of(1L), searchService.search("da nang"));
+    }
+
+    private Hotel hotel(Long id, String name, String city, String address, String description, int stars) {
+        return Hotel.builder()
+                .id(id)
+                .name(name)
+                .city(city)
+                .address(address)
+                .country("Việt Nam")
+                .description(description)
+                .starRating(stars)
+                .build();
+    }
+}
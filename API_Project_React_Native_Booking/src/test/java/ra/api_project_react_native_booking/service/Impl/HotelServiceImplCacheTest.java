@@ -0,0 +1,124 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import ra.api_project_react_native_booking.event.HotelChangedEvent;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.service.interfaces.HotelGeoIndexService;
+import ra.api_project_react_native_booking.service.interfaces.HotelSearchService;
+import ra.api_project_react_native_booking.service.interfaces.HotelService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+class HotelServiceImplCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({HotelServiceImpl.class, HotelCatalogCacheEvictor.class})
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager();
+        }
+    }
+
+    @MockitoBean
+    private HotelRepository hotelRepository;
+
+    @MockitoBean
+    private HotelSearchService hotelSearchService;
+    @MockitoBean
+    private HotelGeoIndexService hotelGeoIndexService;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        clearInvocations(hotelRepository);
+        Hotel hotel = Hotel.builder().id(1L).name("Hotel A").city("Da Nang").starRating(5).build();
+        when(hotelRepository.findAll()).thenReturn(List.of(hotel));
+        when(hotelRepository.findById(1L)).thenReturn(Optional.of(hotel));
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        hotelService.getAllHotels();
+        hotelService.getAllHotels();
+        hotelService.getHotelById(1L);
+        hotelService.getHotelById(1L);
+
+        verify(hotelRepository, times(1)).findAll();
+        verify(hotelRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void blankSearchAndCityReuseTheAllHotelsCache() {
+        hotelService.getAllHotels();
+        hotelService.searchHotels(" ");
+        hotelService.getHotelsByCity("");
+        hotelService.getHotelsByCity(null);
+
+        verify(hotelRepository, times(1)).findAll();
+        assertEquals(0, nativeSize(HotelServiceImpl.CACHE_HOTELS_BY_CITY));
+    }
+
+    @Test
+    void cityIsQueriedWithTheNormalizedCacheKey() {
+        when(hotelRepository.findByCityContainingIgnoreCase(eq("da nang"), any())).thenReturn(new PageImpl<>(List.of()));
+
+        hotelService.getHotelsByCity("  Da Nang ");
+        hotelService.getHotelsByCity("da nang");
+
+        verify(hotelRepository, times(1)).findByCityContainingIgnoreCase(eq("da nang"), any());
+        verify(hotelRepository, never()).findByCityContainingIgnoreCase(eq("  Da Nang "), any());
+    }
+
+    private long nativeSize(String cacheName) {
+        return ((Cache<?, ?>) cacheManager.getCache(cacheName).getNativeCache()).estimatedSize();
+    }
+
+    @Test
+    void hotelChangedEventEvictsCatalog() {
+        hotelService.getAllHotels();
+        hotelService.getHotelById(1L);
+
+        eventPublisher.publishEvent(new HotelChangedEvent(1L));
+
+        assertEquals(1, hotelService.getAllHotels().size());
+        hotelService.getHotelById(1L);
+        verify(hotelRepository, times(2)).findAll();
+        verify(hotelRepository, times(2)).findById(1L);
+    }
+}
@@ -0,0 +1,87 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ra.api_project_react_native_booking.dto.response.HotelResponse;
+import ra.api_project_react_native_booking.model.Hotel;
+import ra.api_project_react_native_booking.service.interfaces.HotelGeoIndexService;
+import ra.api_project_react_native_booking.service.interfaces.HotelSearchService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import(HotelServiceImpl.class)
+class HotelServiceImplFilterTest {
+
+    @Autowired
+    private HotelServiceImpl hotelService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @MockitoBean
+    private HotelSearchService hotelSearchService;
+    @MockitoBean
+    private HotelGeoIndexService hotelGeoIndexService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            persistHotel("Da Nang " + i, "Đà Nẵng", i);
+            persistHotel("Ha Noi " + i, "Hà Nội", i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void filtersAndPagesInDatabase() {
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "starRating").and(Sort.by("id")));
+
+        Page<HotelResponse> page = hotelService.filterHotels(3, 4, "Đà", pageable);
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of(4, 3), page.getContent().stream().map(HotelResponse::getStarRating).toList());
+
+        Page<HotelResponse> all = hotelService.filterHotels(null, null, " ", pageable);
+        assertEquals(10, all.getTotalElements());
+        assertEquals(2, all.getContent().size());
+        assertEquals(5, all.getTotalPages());
+    }
+
+    @Test
+    void pageSizeIsCappedAtHundred() {
+        for (int i = 1; i <= 105; i++) {
+            persistHotel("Hue " + i, "Huế", 1 + i % 5);
+        }
+        entityManager.flush();
+        PageRequest huge = PageRequest.of(0, 100_000, Sort.by(Sort.Direction.DESC, "starRating").and(Sort.by("id")));
+
+        Page<HotelResponse> page = hotelService.filterHotels(null, null, "Huế", huge);
+
+        assertEquals(100, page.getContent().size());
+        assertEquals(100, page.getSize());
+        assertEquals(105, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        // Sắp xếp được giữ nguyên khi thu nhỏ trang
+        assertEquals(5, page.getContent().get(0).getStarRating());
+    }
+
+    private void persistHotel(String name, String city, int stars) {
+        entityManager.persist(Hotel.builder()
+                .name(name)
+                .address("1 Test Street")
+                .city(city)
+                .country("Việt Nam")
+                .starRating(stars)
+                .build());
+    }
+}
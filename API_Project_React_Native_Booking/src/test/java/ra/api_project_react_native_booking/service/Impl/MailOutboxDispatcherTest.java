@@ -0,0 +1,180 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.model.MailOutbox;
+import ra.api_project_react_native_booking.model.constants.MailStatus;
+import ra.api_project_react_native_booking.repository.MailOutboxRepository;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Gửi thật qua SMTP giả (GreenMail); dữ liệu phải commit vì các lô chạy trên luồng worker
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(MailServiceImpl.class)
+class MailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MailServiceImpl mailService;
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MailOutboxDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        mailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void sendsQueuedMailsInBatches() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            mailService.enqueue("guest" + i + "@example.com", "Booking #" + i, "<b>Xác nhận</b> đặt phòng", true);
+        }
+        dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), 2, Duration.ofSeconds(30));
+
+        // 2 worker x lô 3 = tối đa 6 email mỗi lượt quét
+        assertEquals(6, dispatch());
+        assertEquals(1, dispatch());
+        assertEquals(0, dispatch());
+
+        assertEquals(7, greenMail.getReceivedMessages().length);
+        assertEquals("Booking #0", greenMail.getReceivedMessagesForDomain("guest0@example.com")[0].getSubject());
+        assertTrue(mailOutboxRepository.findAll().stream().allMatch(mail ->
+                mail.getStatus() == MailStatus.SENT && mail.getSentAt() != null && mail.getClaimToken() == null));
+        assertEquals(7.0, meterRegistry.counter("mail.outbox.sent").count());
+        assertEquals(3, meterRegistry.timer("mail.outbox.batch").count());
+        assertEquals(0.0, meterRegistry.get("mail.outbox.pending").gauge().value());
+    }
+
+    @Test
+    void retriesWithBackoffThenGivesUp() throws Exception {
+        mailService.enqueue("guest@example.com", "OTP", "1234", false);
+        dispatcher = dispatcher(closedPort(), 2, Duration.ZERO);
+
+        assertEquals(1, dispatch());
+        MailOutbox retried = single();
+        assertEquals(MailStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertNotNull(retried.getLastError());
+        assertNull(retried.getClaimToken());
+
+        assertEquals(1, dispatch());
+        MailOutbox failed = single();
+        assertEquals(MailStatus.FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+
+        // FAILED không còn được quét lại
+        assertEquals(0, dispatch());
+        assertEquals(2, single().getAttempts());
+        assertEquals(1.0, meterRegistry.counter("mail.outbox.retried").count());
+        assertEquals(1.0, meterRegistry.counter("mail.outbox.failed").count());
+    }
+
+    @Test
+    void dispatchDoesNotWaitForSmtp() throws Exception {
+        mailService.enqueue("guest@example.com", "OTP", "1234", false);
+        // Nhận kết nối TCP nhưng không bao giờ chào: worker treo tới read timeout 1s
+        try (ServerSocket silentSmtp = new ServerSocket(0)) {
+            dispatcher = dispatcher(silentSmtp.getLocalPort(), 2, Duration.ofSeconds(30));
+
+            long started = System.nanoTime();
+            assertEquals(1, dispatcher.dispatch());
+            assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofMillis(500)) < 0);
+            // Lô trước còn đang gửi: lượt quét này bỏ qua
+            assertEquals(0, dispatcher.dispatch());
+
+            assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(10)));
+        }
+        assertEquals(MailStatus.PENDING, single().getStatus());
+        assertEquals(1, single().getAttempts());
+    }
+
+    @Test
+    void pendingGaugeIsCachedBetweenRefreshes() {
+        mailService.enqueue("guest@example.com", "OTP", "1234", false);
+        dispatcher = new MailOutboxDispatcher(mailOutboxRepository, new JavaMailSenderImpl(), transactionTemplate,
+                meterRegistry, 2, 3, 2, Duration.ZERO, Duration.ofHours(1), Duration.ofMinutes(5),
+                "no-reply@booking.local", Duration.ofHours(1));
+
+        // Scrape không chạm database: gauge chỉ đổi khi dispatch đếm lại
+        assertEquals(0.0, meterRegistry.get("mail.outbox.pending").gauge().value());
+        dispatcher.refreshPendingCount();
+        assertEquals(1.0, meterRegistry.get("mail.outbox.pending").gauge().value());
+        mailService.enqueue("other@example.com", "OTP", "5678", false);
+        dispatcher.refreshPendingCount();
+        assertEquals(1.0, meterRegistry.get("mail.outbox.pending").gauge().value());
+    }
+
+    @Test
+    void backoffGrowsExponentiallyUpToMax() {
+        dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), 6, Duration.ofSeconds(30));
+
+        assertBetween(Duration.ofSeconds(30), dispatcher.backoff(1));
+        assertBetween(Duration.ofSeconds(60), dispatcher.backoff(2));
+        assertBetween(Duration.ofSeconds(240), dispatcher.backoff(4));
+        assertBetween(Duration.ofHours(1), dispatcher.backoff(10));
+        assertBetween(Duration.ofHours(1), dispatcher.backoff(100));
+    }
+
+    private MailOutboxDispatcher dispatcher(int port, int maxAttempts, Duration backoffBase) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "1000");
+        return new MailOutboxDispatcher(mailOutboxRepository, mailSender, transactionTemplate, meterRegistry,
+                2, 3, maxAttempts, backoffBase, Duration.ofHours(1), Duration.ofMinutes(5), "no-reply@booking.local",
+                Duration.ZERO);
+    }
+
+    // dispatch chỉ giao lô cho worker; chờ worker gửi xong rồi mới kiểm tra
+    private int dispatch() throws InterruptedException {
+        int handedOff = dispatcher.dispatch();
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(10)));
+        return handedOff;
+    }
+
+    private MailOutbox single() {
+        List<MailOutbox> mails = mailOutboxRepository.findAll();
+        assertEquals(1, mails.size());
+        return mails.get(0);
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Jitter cộng thêm tối đa 20%
+    private static void assertBetween(Duration expected, Duration actual) {
+        assertTrue(actual.compareTo(expected) >= 0 && actual.toMillis() <= expected.toMillis() * 6 / 5,
+                () -> "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,269 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
+import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.PaymentRepository;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cổng giả không độ trễ; dữ liệu phải commit vì payment được gửi lên cổng trên luồng worker
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentProcessorTest {
+
+    private static final BigDecimal PRICE = BigDecimal.valueOf(250_000);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PaymentProcessor processor;
+    private Booking booking;
+    private Long paymentId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = entityManager.persist(User.builder()
+                    .password("secret")
+                    .fullName("PayPal Payer")
+                    .email("paypal@example.com")
+                    .birthday(LocalDate.of(1995, 5, 5))
+                    .gender(GenderName.OTHER)
+                    .build());
+            Hotel hotel = entityManager.persist(Hotel.builder()
+                    .name("Async Hotel")
+                    .address("2 Test Street")
+                    .city("Đà Nẵng")
+                    .country("Việt Nam")
+                    .starRating(4)
+                    .build());
+            RoomType roomType = entityManager.persist(RoomType.builder().name("Deluxe").build());
+            Room room = entityManager.persist(Room.builder()
+                    .roomNumber("201")
+                    .hotel(hotel)
+                    .roomType(roomType)
+                    .price(PRICE)
+                    .capacity(2)
+                    .isAvailable(true)
+                    .build());
+            booking = entityManager.persist(Booking.builder()
+                    .bookingCode("BKASYNC1")
+                    .user(user)
+                    .room(room)
+                    .checkInDate(LocalDate.of(2030, 3, 1))
+                    .checkOutDate(LocalDate.of(2030, 3, 2))
+                    .guests(2)
+                    .totalPrice(PRICE)
+                    .status(BookingStatus.PENDING)
+                    .build());
+            paymentId = entityManager.persist(Payment.builder()
+                    .user(user)
+                    .booking(booking)
+                    .amount(PRICE)
+                    .currency("VND")
+                    .status(PaymentStatus.PENDING)
+                    .nextCheckAt(LocalDateTime.now().minusSeconds(1))
+                    .build()).getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (processor != null) {
+            processor.shutdown();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            EntityManager em = entityManager.getEntityManager();
+            em.createQuery("UPDATE Booking b SET b.payment = null").executeUpdate();
+            for (String entity : List.of("Payment", "Booking", "Room", "RoomType", "Hotel", "User")) {
+                em.createQuery("DELETE FROM " + entity).executeUpdate();
+            }
+        });
+    }
+
+    @Test
+    void approvedPaymentConfirmsBooking() {
+        processor = processor(provider(0, 0, 0, Duration.ZERO), 3);
+
+        assertEquals(1, reconcile());
+
+        Payment payment = payment();
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertTrue(payment.getProviderRef().startsWith("MOCK-"));
+        assertNull(payment.getNextCheckAt());
+        Booking confirmed = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(BookingStatus.CONFIRMED, confirmed.getStatus());
+        assertEquals(paymentId, confirmed.getPayment().getId());
+        assertEquals(1.0, meterRegistry.counter("payment.provider.completed").count());
+        // Đã chốt thì không còn được quét lại
+        assertEquals(0, reconcile());
+    }
+
+    @Test
+    void reconcileHandsOffWithoutWaitingForProvider() throws InterruptedException {
+        processor = processor(new MockPaymentProvider(Duration.ofMillis(500), 0, 0, 0, Duration.ZERO), 3);
+
+        long started = System.nanoTime();
+        assertEquals(1, processor.reconcile());
+        // Luồng @Scheduled trả về ngay, cổng chậm chỉ giữ worker
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofMillis(400)) < 0);
+        assertEquals(PaymentStatus.PENDING, payment().getStatus());
+
+        assertTrue(processor.awaitIdle(Duration.ofSeconds(5)));
+        assertEquals(PaymentStatus.COMPLETED, payment().getStatus());
+    }
+
+    @Test
+    void pendingPaymentIsSettledByPolling() throws InterruptedException {
+        processor = processor(provider(0, 0, 1, Duration.ofSeconds(1)), 3);
+
+        assertEquals(1, reconcile());
+        Payment awaiting = payment();
+        assertEquals(PaymentStatus.PENDING, awaiting.getStatus());
+        assertNotNull(awaiting.getProviderRef());
+
+        // Cổng chưa xử lý xong: vẫn chờ, không tính là lỗi
+        assertEquals(1, reconcile());
+        assertEquals(PaymentStatus.PENDING, payment().getStatus());
+        assertEquals(0, payment().getAttempts());
+
+        Thread.sleep(1100);
+        assertEquals(1, reconcile());
+        assertEquals(PaymentStatus.COMPLETED, payment().getStatus());
+        assertEquals(awaiting.getProviderRef(), payment().getProviderRef());
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void declinedPaymentLeavesBookingPending() {
+        processor = processor(provider(0, 1, 0, Duration.ZERO), 3);
+
+        reconcile();
+
+        assertEquals(PaymentStatus.FAILED, payment().getStatus());
+        assertEquals(BookingStatus.PENDING, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        assertEquals(1.0, meterRegistry.counter("payment.provider.failed").count());
+    }
+
+    @Test
+    void providerErrorsAreRetriedThenGiveUp() {
+        processor = processor(provider(1, 0, 0, Duration.ZERO), 2);
+
+        reconcile();
+        Payment retried = payment();
+        assertEquals(PaymentStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertEquals("Payment provider is unavailable", retried.getMessage());
+
+        reconcile();
+        assertEquals(PaymentStatus.FAILED, payment().getStatus());
+        assertEquals(0, reconcile());
+        assertEquals(1.0, meterRegistry.counter("payment.provider.retried").count());
+        assertEquals(1.0, meterRegistry.counter("payment.provider.failed").count());
+    }
+
+    @Test
+    void callbackIsAppliedOnce() {
+        processor = processor(provider(0, 0, 1, Duration.ofHours(1)), 3);
+        reconcile();
+        String providerRef = payment().getProviderRef();
+        PaymentProvider.Result approved = new PaymentProvider.Result(providerRef, PaymentProvider.Outcome.APPROVED, "OK");
+
+        assertEquals(1, processor.handleCallbacks(List.of(approved)));
+        // Cổng gửi lại callback: payment đã chốt, không áp dụng lần hai
+        assertEquals(0, processor.handleCallbacks(List.of(approved)));
+        assertEquals(0, processor.handleCallbacks(List.of(
+                new PaymentProvider.Result("MOCK-unknown", PaymentProvider.Outcome.APPROVED, "OK"))));
+
+        assertEquals(PaymentStatus.COMPLETED, payment().getStatus());
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        assertEquals(1.0, meterRegistry.counter("payment.provider.completed").count());
+    }
+
+    @Test
+    void approvalForCancelledBookingIsFlaggedForRefund() {
+        processor = processor(provider(0, 0, 1, Duration.ofHours(1)), 3);
+        reconcile();
+        transactionTemplate.executeWithoutResult(status -> entityManager.getEntityManager()
+                .createQuery("UPDATE Booking b SET b.status = :status")
+                .setParameter("status", BookingStatus.CANCELLED)
+                .executeUpdate());
+
+        processor.handleCallbacks(List.of(new PaymentProvider.Result(
+                payment().getProviderRef(), PaymentProvider.Outcome.APPROVED, "OK")));
+
+        Payment payment = payment();
+        assertEquals(PaymentStatus.REFUND_REQUIRED, payment.getStatus());
+        assertTrue(payment.getMessage().contains("hoàn tiền"));
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        // Không tính là thanh toán thành công, đếm riêng để cảnh báo
+        assertEquals(0.0, meterRegistry.counter("payment.provider.completed").count());
+        assertEquals(1.0, meterRegistry.counter("payment.provider.refund-required").count());
+    }
+
+    @Test
+    void disabledProviderLeavesPaymentsPending() {
+        processor = processor(new DisabledPaymentProvider(), 3);
+
+        processor.enqueue(paymentId);
+        assertEquals(0, reconcile());
+
+        Payment payment = payment();
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        assertEquals(0, payment.getAttempts());
+        assertNull(payment.getProviderRef());
+    }
+
+    // reconcile chỉ giao việc cho worker; chờ worker chốt xong rồi mới kiểm tra
+    private int reconcile() {
+        int claimed = processor.reconcile();
+        try {
+            assertTrue(processor.awaitIdle(Duration.ofSeconds(5)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+        return claimed;
+    }
+
+    private MockPaymentProvider provider(double failureRate, double declineRate, double pendingRate, Duration settleAfter) {
+        return new MockPaymentProvider(Duration.ZERO, failureRate, declineRate, pendingRate, settleAfter);
+    }
+
+    private PaymentProcessor processor(PaymentProvider provider, int maxAttempts) {
+        return new PaymentProcessor(paymentRepository, bookingRepository, provider, transactionTemplate, meterRegistry,
+                2, 10, 10, maxAttempts, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(1));
+    }
+
+    private Payment payment() {
+        return paymentRepository.findById(paymentId).orElseThrow();
+    }
+}
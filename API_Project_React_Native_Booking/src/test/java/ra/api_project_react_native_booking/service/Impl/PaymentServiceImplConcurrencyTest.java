@@ -0,0 +1,231 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.api_project_react_native_booking.dto.request.PaymentRequest;
+import ra.api_project_react_native_booking.dto.response.PaymentResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.model.constants.PaymentMethod;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
+import ra.api_project_react_native_booking.repository.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Nhiều thanh toán song song trên cùng một thẻ; dữ liệu commit thật vì mỗi luồng có transaction riêng
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(PaymentServiceImpl.class)
+class PaymentServiceImplConcurrencyTest {
+
+    private static final BigDecimal PRICE = BigDecimal.valueOf(100_000);
+
+    // Đường PayPal không dùng trong test này
+    @MockitoBean
+    private PaymentProcessor paymentProcessor;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentServiceImpl paymentService;
+    @Autowired
+    private PaymentCardRepository paymentCardRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private Room room;
+    private PaymentCard card;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            user = userRepository.save(User.builder()
+                    .password("secret")
+                    .fullName("Payer")
+                    .email("payer@example.com")
+                    .birthday(LocalDate.of(1995, 5, 5))
+                    .gender(GenderName.OTHER)
+                    .build());
+            Hotel hotel = hotelRepository.save(Hotel.builder()
+                    .name("Hot Card Hotel")
+                    .address("1 Test Street")
+                    .city("Huế")
+                    .country("Việt Nam")
+                    .starRating(3)
+                    .build());
+            RoomType roomType = entityManager.persist(RoomType.builder().name("Standard").build());
+            room = roomRepository.save(Room.builder()
+                    .roomNumber("101")
+                    .hotel(hotel)
+                    .roomType(roomType)
+                    .price(PRICE)
+                    .capacity(2)
+                    .isAvailable(true)
+                    .build());
+            card = paymentCardRepository.save(PaymentCard.builder()
+                    .user(user)
+                    .cardHolderName("PAYER")
+                    .cardBrand("VISA")
+                    .cardNumber("**** **** **** 4242")
+                    .expMonth(12)
+                    .expYear(2099)
+                    .balance(BigDecimal.valueOf(1_000_000))
+                    .isDefault(true)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            EntityManager em = entityManager.getEntityManager();
+            em.createQuery("UPDATE Booking b SET b.payment = null").executeUpdate();
+            for (String entity : List.of("Payment", "Booking", "PaymentCard", "Room", "RoomType", "Hotel", "User")) {
+                em.createQuery("DELETE FROM " + entity).executeUpdate();
+            }
+        });
+    }
+
+    @Test
+    void hotCardNeverGoesNegative() throws Exception {
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookingIds.add(booking(i).getId());
+        }
+
+        List<PaymentResponse> results = runConcurrently(bookingIds);
+
+        // Thẻ 1.000.000 chỉ đủ cho 10 booking 100.000
+        assertEquals(10, results.stream().filter(p -> p.getStatus() == PaymentStatus.COMPLETED).count());
+        assertEquals(10, results.stream().filter(p -> p.getStatus() == PaymentStatus.FAILED).count());
+        PaymentCard after = paymentCardRepository.findById(card.getId()).orElseThrow();
+        assertEquals(0, after.getBalance().compareTo(BigDecimal.ZERO));
+        assertEquals(card.getVersion() + 10, after.getVersion());
+        assertEquals(10, bookingRepository.findAll().stream()
+                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED).count());
+    }
+
+    @Test
+    void sameBookingIsChargedOnce() throws Exception {
+        Long bookingId = booking(0).getId();
+
+        List<PaymentResponse> results = runConcurrently(List.of(bookingId, bookingId, bookingId, bookingId, bookingId, bookingId));
+
+        // Mọi lần gửi đều nhận về cùng một giao dịch
+        assertEquals(1, results.stream().map(PaymentResponse::getId).distinct().count());
+        assertTrue(results.stream().allMatch(p -> p.getStatus() == PaymentStatus.COMPLETED));
+        assertEquals(1, paymentRepository.count());
+        assertEquals(0, paymentCardRepository.findById(card.getId()).orElseThrow().getBalance()
+                .compareTo(BigDecimal.valueOf(900_000)));
+        Booking paid = transactionTemplate.execute(status -> {
+            Booking b = bookingRepository.findById(bookingId).orElseThrow();
+            assertEquals(results.get(0).getId(), b.getPayment().getId());
+            return b;
+        });
+        assertEquals(BookingStatus.CONFIRMED, paid.getStatus());
+    }
+
+    @Test
+    void staleCardEntityCannotOverwriteDebitedBalance() {
+        PaymentCard stale = paymentCardRepository.findById(card.getId()).orElseThrow();
+        paymentService.payBooking(user.getId(), request(booking(0).getId()));
+
+        stale.setCardHolderName("RENAMED");
+        assertThrows(OptimisticLockingFailureException.class, () -> paymentCardRepository.save(stale));
+        assertEquals(0, paymentCardRepository.findById(card.getId()).orElseThrow().getBalance()
+                .compareTo(BigDecimal.valueOf(900_000)));
+    }
+
+    @Test
+    void rejectsOtherUsersBookingAndUnknownCard() {
+        Long bookingId = booking(0).getId();
+
+        RuntimeException forbidden = assertThrows(RuntimeException.class,
+                () -> paymentService.payBooking(user.getId() + 1, request(bookingId)));
+        assertTrue(forbidden.getMessage().contains("không có quyền"));
+
+        PaymentRequest wrongCard = request(bookingId);
+        wrongCard.setCardNumber("0000 0000 0000 1111");
+        assertEquals("Card not found",
+                assertThrows(RuntimeException.class, () -> paymentService.payBooking(user.getId(), wrongCard)).getMessage());
+        assertEquals(0, paymentRepository.count());
+    }
+
+    private List<PaymentResponse> runConcurrently(List<Long> bookingIds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<PaymentResponse>> futures = new ArrayList<>();
+            for (Long bookingId : bookingIds) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return paymentService.payBooking(user.getId(), request(bookingId));
+                }));
+            }
+            start.countDown();
+            List<PaymentResponse> results = new ArrayList<>();
+            for (Future<PaymentResponse> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Booking booking(int index) {
+        return bookingRepository.save(Booking.builder()
+                .bookingCode("BKPAY" + index)
+                .user(user)
+                .room(room)
+                .checkInDate(LocalDate.of(2030, 1, 1).plusDays(index * 2L))
+                .checkOutDate(LocalDate.of(2030, 1, 2).plusDays(index * 2L))
+                .guests(2)
+                .totalPrice(PRICE)
+                .status(BookingStatus.PENDING)
+                .build());
+    }
+
+    private PaymentRequest request(Long bookingId) {
+        return PaymentRequest.builder()
+                .bookingId(bookingId)
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .cardNumber("0000 0000 0000 4242")
+                .cardHolderName("PAYER")
+                .expiryDate("12/99")
+                .cvv("123")
+                .build();
+    }
+}
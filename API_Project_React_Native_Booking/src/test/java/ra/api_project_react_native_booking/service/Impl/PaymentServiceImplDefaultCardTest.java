@@ -0,0 +1,157 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ra.api_project_react_native_booking.dto.request.PaymentCardRequest;
+import ra.api_project_react_native_booking.model.PaymentCard;
+import ra.api_project_react_native_booking.model.User;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.repository.PaymentCardRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Đổi thẻ mặc định phải tốn số câu SQL cố định, không phụ thuộc số thẻ của user
+@DataJpaTest
+@Import(PaymentServiceImpl.class)
+class PaymentServiceImplDefaultCardTest {
+
+    // Đường PayPal không dùng trong test này
+    @MockitoBean
+    private PaymentProcessor paymentProcessor;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentServiceImpl paymentService;
+    @Autowired
+    private PaymentCardRepository paymentCardRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void setDefaultCardUsesFixedNumberOfStatements() {
+        List<Long> few = cards(user("few@example.com"), 2);
+        List<Long> many = cards(user("many@example.com"), 10);
+        Long fewUser = ownerOf(few.get(0));
+        Long manyUser = ownerOf(many.get(0));
+
+        long fewStatements = count(() -> paymentService.setDefaultCard(fewUser, few.get(1)).getId());
+        long manyStatements = count(() -> paymentService.setDefaultCard(manyUser, many.get(7)).getId());
+
+        assertEquals(fewStatements, manyStatements);
+        assertEquals(List.of(few.get(1)), defaults(fewUser));
+        assertEquals(List.of(many.get(7)), defaults(manyUser));
+    }
+
+    @Test
+    void newDefaultCardReplacesPreviousDefault() {
+        User user = user("create@example.com");
+        List<Long> existing = cards(user, 5);
+
+        long statements = count(() -> paymentService.createCard(user.getId(), request(true)).getId());
+        Long created = paymentCardRepository.findByUserIdOrderByIsDefaultDescIdDesc(user.getId()).get(0).getId();
+
+        // select user + insert + 1 UPDATE bỏ cờ mặc định
+        assertEquals(3, statements);
+        assertFalse(existing.contains(created));
+        assertEquals(List.of(created), defaults(user.getId()));
+    }
+
+    @Test
+    void firstCardBecomesDefaultAndNonDefaultCardKeepsCurrentDefault() {
+        User user = user("first@example.com");
+
+        Long first = paymentService.createCard(user.getId(), request(false)).getId();
+        Long second = paymentService.createCard(user.getId(), request(false)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(List.of(first), defaults(user.getId()));
+        assertNotEquals(first, second);
+    }
+
+    private long count(LongSupplier action) {
+        entityManager.clear();
+        statistics.clear();
+        action.getAsLong();
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+
+    private List<Long> defaults(Long userId) {
+        return paymentCardRepository.findByUserIdOrderByIsDefaultDescIdDesc(userId).stream()
+                .filter(PaymentCard::getIsDefault)
+                .map(PaymentCard::getId)
+                .toList();
+    }
+
+    private Long ownerOf(Long cardId) {
+        return entityManager.find(PaymentCard.class, cardId).getUser().getId();
+    }
+
+    private User user(String email) {
+        return entityManager.persist(User.builder()
+                .password("secret")
+                .fullName("Card Owner")
+                .email(email)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .gender(GenderName.OTHER)
+                .build());
+    }
+
+    // Thẻ đầu tiên là mặc định
+    private List<Long> cards(User user, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(entityManager.persist(PaymentCard.builder()
+                    .user(user)
+                    .cardHolderName("OWNER")
+                    .cardBrand("VISA")
+                    .cardNumber("**** **** **** 10" + (10 + i))
+                    .expMonth(1 + i)
+                    .expYear(2099)
+                    .balance(BigDecimal.valueOf(1_000_000))
+                    .isDefault(i == 0)
+                    .build()).getId());
+        }
+        entityManager.flush();
+        return ids;
+    }
+
+    private PaymentCardRequest request(boolean isDefault) {
+        PaymentCardRequest request = new PaymentCardRequest();
+        request.setCardHolderName("OWNER");
+        request.setCardBrand("MASTERCARD");
+        request.setCardNumber("5555444433331111");
+        request.setExpMonth(6);
+        request.setExpYear(2099);
+        request.setIsDefault(isDefault);
+        return request;
+    }
+}
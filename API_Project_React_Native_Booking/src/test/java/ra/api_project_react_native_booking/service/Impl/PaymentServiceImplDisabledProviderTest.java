@@ -0,0 +1,40 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ra.api_project_react_native_booking.dto.request.PaymentRequest;
+import ra.api_project_react_native_booking.model.constants.PaymentMethod;
+import ra.api_project_react_native_booking.service.interfaces.PaymentProvider;
+import ra.api_project_react_native_booking.service.interfaces.PaymentService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cấu hình mặc định: không có cổng thanh toán, không có webhook secret; ứng dụng vẫn phải khởi động
+@SpringBootTest(properties = {"payment.provider=none", "payment.provider.webhook-secret="})
+class PaymentServiceImplDisabledProviderTest {
+
+    @Autowired
+    private PaymentProvider paymentProvider;
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void startsWithDisabledProvider() {
+        assertInstanceOf(DisabledPaymentProvider.class, paymentProvider);
+        assertFalse(paymentProvider.isEnabled());
+    }
+
+    @Test
+    void providerPaymentFailsOnlyOnItsOwnPath() {
+        PaymentRequest request = new PaymentRequest();
+        request.setBookingId(1L);
+        request.setPaymentMethod(PaymentMethod.PAYPAL);
+
+        RuntimeException rejected = assertThrows(RuntimeException.class, () -> paymentService.payBooking(1L, request));
+        assertTrue(rejected.getMessage().contains("chưa được cấu hình"));
+        RuntimeException callback = assertThrows(RuntimeException.class,
+                () -> paymentService.handleProviderCallback("{}", "deadbeef"));
+        assertTrue(callback.getMessage().contains("không có quyền"));
+    }
+}
@@ -0,0 +1,167 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+import ra.api_project_react_native_booking.dto.response.PaymentResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.model.constants.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Lịch sử thanh toán đọc bằng một câu SELECT dựng sẵn PaymentResponse, không lazy-load user / booking / thẻ
+@DataJpaTest
+@Import(PaymentServiceImpl.class)
+class PaymentServiceImplHistoryTest {
+
+    // Đường PayPal không dùng trong test này
+    @MockitoBean
+    private PaymentProcessor paymentProcessor;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentServiceImpl paymentService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Booking firstBooking;
+    private PaymentCard card;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .password("secret")
+                .fullName("History User")
+                .email("history@example.com")
+                .birthday(LocalDate.of(1992, 2, 2))
+                .gender(GenderName.OTHER)
+                .build());
+        Hotel hotel = entityManager.persist(Hotel.builder()
+                .name("History Hotel")
+                .address("2 Test Street")
+                .city("Hội An")
+                .country("Việt Nam")
+                .starRating(4)
+                .build());
+        Room room = entityManager.persist(Room.builder()
+                .roomNumber("201")
+                .hotel(hotel)
+                .roomType(entityManager.persist(RoomType.builder().name("Suite").build()))
+                .price(BigDecimal.valueOf(500_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+        card = entityManager.persist(PaymentCard.builder()
+                .user(user)
+                .cardHolderName("HISTORY")
+                .cardBrand("VISA")
+                .cardNumber("**** **** **** 9999")
+                .expMonth(12)
+                .expYear(2099)
+                .balance(BigDecimal.valueOf(10_000_000))
+                .isDefault(true)
+                .build());
+        for (int i = 0; i < 12; i++) {
+            Booking booking = entityManager.persist(Booking.builder()
+                    .bookingCode("BKHIST" + i)
+                    .user(user)
+                    .room(room)
+                    .checkInDate(LocalDate.of(2031, 1, 1).plusDays(i * 2L))
+                    .checkOutDate(LocalDate.of(2031, 1, 2).plusDays(i * 2L))
+                    .guests(1)
+                    .totalPrice(BigDecimal.valueOf(500_000))
+                    .status(BookingStatus.CONFIRMED)
+                    .build());
+            if (i == 0) {
+                firstBooking = booking;
+                // Lần thử thất bại trước lần thành công
+                payment(booking, PaymentStatus.FAILED);
+            }
+            payment(booking, PaymentStatus.COMPLETED);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void myPaymentsIsOneStatement() {
+        statistics.clear();
+        List<PaymentResponse> payments = paymentService.getMyPayments(user.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(13, payments.size());
+        PaymentResponse latest = payments.get(0);
+        assertEquals(user.getId(), latest.getUserId());
+        assertEquals("BKHIST11", latest.getBookingCode());
+        assertEquals(card.getId(), latest.getCardId());
+        assertEquals("**** **** **** 9999", latest.getCardNumber());
+        assertEquals("VISA", latest.getCardBrand());
+        assertNotNull(latest.getCreatedAt());
+    }
+
+    @Test
+    void cursorPagesWalkAllPayments() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPage<PaymentResponse> page = paymentService.getMyPaymentsCursor(user.getId(), cursor, 5);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            page.getContent().forEach(payment -> seen.add(payment.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(13, seen.size());
+        assertEquals(seen.stream().sorted(Comparator.reverseOrder()).toList(), seen);
+        assertThrows(RuntimeException.class, () -> paymentService.getMyPaymentsCursor(user.getId(), "???", 5));
+    }
+
+    @Test
+    void paymentByBookingReturnsLatestAttempt() {
+        statistics.clear();
+        PaymentResponse payment = paymentService.getPaymentByBookingId(firstBooking.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertEquals("BKHIST0", payment.getBookingCode());
+        assertThrows(RuntimeException.class, () -> paymentService.getPaymentByBookingId(-1L));
+    }
+
+    private void payment(Booking booking, PaymentStatus status) {
+        entityManager.persist(Payment.builder()
+                .user(user)
+                .booking(booking)
+                .card(card)
+                .amount(booking.getTotalPrice())
+                .currency("VND")
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,35 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentServiceImplWebhookTest {
+
+    private final PaymentServiceImpl paymentService =
+            new PaymentServiceImpl(null, null, null, null, null, null, new ObjectMapper());
+
+    @Test
+    void blankWebhookSecretRejectsEveryCallback() {
+        ReflectionTestUtils.setField(paymentService, "webhookSecret", " ");
+        String payload = "{\"providerRef\":\"MOCK-1\",\"status\":\"APPROVED\"}";
+
+        // Chữ ký tính bằng secret rỗng cũng không được chấp nhận
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> paymentService.handleProviderCallback(payload, "anything"));
+        assertTrue(rejected.getMessage().contains("không có quyền"));
+    }
+
+    @Test
+    void rejectsCallbackWithWrongSignature() {
+        ReflectionTestUtils.setField(paymentService, "webhookSecret", "test-webhook-secret");
+        String payload = "{\"providerRef\":\"MOCK-1\",\"status\":\"APPROVED\"}";
+
+        RuntimeException rejected = assertThrows(RuntimeException.class,
+                () -> paymentService.handleProviderCallback(payload, "deadbeef"));
+        assertTrue(rejected.getMessage().contains("không có quyền"));
+        assertThrows(RuntimeException.class, () -> paymentService.handleProviderCallback(payload, null));
+    }
+}
@@ -0,0 +1,169 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ra.api_project_react_native_booking.dto.response.PriceQuoteResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.repository.RoomRateOverrideRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Giá gốc 1.000.000, giá giảm 800.000; phụ thu 10% đêm thứ 6 / thứ 7, ở từ 7 đêm giảm 10%
+@DataJpaTest
+class PricingServiceImplTest {
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private RoomRateOverrideRepository rateOverrideRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private PricingServiceImpl pricingService;
+    private Room room;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        Hotel hotel = entityManager.persist(Hotel.builder()
+                .name("Rate Hotel")
+                .address("3 Test Street")
+                .city("Nha Trang")
+                .country("Việt Nam")
+                .starRating(4)
+                .build());
+        RoomType roomType = entityManager.persist(RoomType.builder().name("Suite").build());
+        room = entityManager.persist(Room.builder()
+                .roomNumber("301")
+                .hotel(hotel)
+                .roomType(roomType)
+                .price(BigDecimal.valueOf(1_000_000))
+                .discountPrice(BigDecimal.valueOf(800_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+        monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        pricingService = new PricingServiceImpl(roomRepository, rateOverrideRepository,
+                365, "FRIDAY,SATURDAY", 10, "7:10,28:20");
+    }
+
+    @Test
+    void weekdayStayUsesDiscountPriceAndSeasonalOverride() {
+        override(monday.plusDays(1), monday.plusDays(2), 1_500_000);
+        pricingService.reload();
+
+        PriceQuoteResponse quote = pricingService.quote(room.getId(), monday, monday.plusDays(3));
+
+        assertEquals(List.of(amount(800_000), amount(1_500_000), amount(800_000)), quote.getNightlyRates());
+        assertEquals(3, quote.getNights());
+        assertEquals(0, quote.getLengthOfStayDiscountPercent());
+        assertEquals(amount(3_100_000), quote.getTotalPrice());
+        assertEquals("VND", quote.getCurrency());
+    }
+
+    @Test
+    void weekendSurchargeAndLengthOfStayDiscount() {
+        pricingService.reload();
+
+        PriceQuoteResponse quote = pricingService.quote(room.getId(), monday, monday.plusDays(7));
+
+        // 5 đêm thường x 800.000 + thứ 6, thứ 7 x 880.000
+        assertEquals(amount(880_000), quote.getNightlyRates().get(4));
+        assertEquals(amount(880_000), quote.getNightlyRates().get(5));
+        assertEquals(amount(5_760_000), quote.getSubtotal());
+        assertEquals(10, quote.getLengthOfStayDiscountPercent());
+        assertEquals(amount(576_000), quote.getDiscountAmount());
+        assertEquals(amount(5_184_000), quote.getTotalPrice());
+    }
+
+    @Test
+    void laterOverrideWinsWhereOverridesOverlap() {
+        override(monday, monday.plusDays(3), 1_200_000);
+        override(monday.plusDays(1), monday.plusDays(2), 2_000_000);
+        pricingService.reload();
+
+        PriceQuoteResponse quote = pricingService.quote(room.getId(), monday, monday.plusDays(3));
+
+        assertEquals(List.of(amount(1_200_000), amount(2_000_000), amount(1_200_000)), quote.getNightlyRates());
+    }
+
+    @Test
+    void quoteInsideWindowRunsNoQueries() {
+        pricingService.reload();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 50; i++) {
+            pricingService.quote(room.getId(), monday.plusDays(i), monday.plusDays(i + 3));
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void stayOutsideWindowIsPricedFromDatabase() {
+        pricingService.reload();
+        LocalDate farMonday = monday.plusWeeks(60);
+        override(farMonday, farMonday.plusDays(1), 1_500_000);
+
+        PriceQuoteResponse quote = pricingService.quote(room.getId(), farMonday, farMonday.plusDays(2));
+
+        assertEquals(List.of(amount(1_500_000), amount(800_000)), quote.getNightlyRates());
+        assertEquals(amount(2_300_000), quote.getTotalPrice());
+    }
+
+    @Test
+    void roomAddedAfterReloadIsCompiledOnFirstQuote() {
+        pricingService.reload();
+        Room added = entityManager.persist(Room.builder()
+                .roomNumber("302")
+                .hotel(room.getHotel())
+                .roomType(room.getRoomType())
+                .price(BigDecimal.valueOf(600_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+
+        assertEquals(amount(1_200_000),
+                pricingService.quote(added.getId(), monday, monday.plusDays(2)).getTotalPrice());
+    }
+
+    @Test
+    void rejectsInvalidRangesAndUnknownRooms() {
+        pricingService.reload();
+
+        assertThrows(RuntimeException.class, () -> pricingService.quote(room.getId(), monday, monday));
+        assertThrows(RuntimeException.class, () -> pricingService.quote(room.getId(), monday, monday.plusYears(2)));
+        RuntimeException notFound = assertThrows(RuntimeException.class,
+                () -> pricingService.quote(-1L, monday, monday.plusDays(1)));
+        assertEquals("Room not found", notFound.getMessage());
+    }
+
+    private void override(LocalDate startDate, LocalDate endDate, long price) {
+        entityManager.persist(RoomRateOverride.builder()
+                .room(room)
+                .startDate(startDate)
+                .endDate(endDate)
+                .price(BigDecimal.valueOf(price))
+                .build());
+    }
+
+    private static BigDecimal amount(long value) {
+        return BigDecimal.valueOf(value).setScale(2);
+    }
+}
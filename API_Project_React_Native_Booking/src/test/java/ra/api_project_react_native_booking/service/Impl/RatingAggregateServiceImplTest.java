@@ -0,0 +1,153 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ra.api_project_react_native_booking.dto.request.ReviewRequest;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.repository.HotelRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.repository.projection.RatingAggregate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Tổng điểm / số review trên hotels, rooms đi qua ReviewServiceImpl như luồng thật
+@DataJpaTest
+@Import({ReviewServiceImpl.class, RatingAggregateServiceImpl.class})
+class RatingAggregateServiceImplTest {
+
+    @Autowired
+    private ReviewServiceImpl reviewService;
+    @Autowired
+    private RatingAggregateServiceImpl ratingAggregateService;
+    @Autowired
+    private HotelRepository hotelRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private Hotel hotel;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .password("secret")
+                .fullName("Reviewer")
+                .email("reviewer@example.com")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .gender(GenderName.OTHER)
+                .build());
+        hotel = entityManager.persist(Hotel.builder()
+                .name("Rating Hotel")
+                .address("5 Test Street")
+                .city("Hội An")
+                .country("Việt Nam")
+                .starRating(4)
+                .build());
+        RoomType roomType = entityManager.persist(RoomType.builder().name("Standard").build());
+        room = entityManager.persist(Room.builder()
+                .roomNumber("501")
+                .hotel(hotel)
+                .roomType(roomType)
+                .price(BigDecimal.valueOf(700_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void addedReviewsAreSummedOnHotelAndRoom() {
+        reviewService.addReview(review(5, true, true), user.getId());
+        reviewService.addReview(review(2, true, false), user.getId());
+
+        assertAggregate(hotelAggregate(), 7, 2);
+        assertAggregate(roomAggregate(), 5, 1);
+        assertEquals(3.5, reviewService.getAverageRatingByHotel(hotel.getId()));
+        assertEquals(5.0, reviewService.getAverageRatingByRoom(room.getId()));
+    }
+
+    @Test
+    void updateAppliesOnlyTheRatingDifference() {
+        Long reviewId = reviewService.addReview(review(2, true, true), user.getId()).getId();
+        reviewService.addReview(review(4, true, false), user.getId());
+
+        reviewService.updateReview(reviewId, review(5, true, true), user.getId());
+
+        assertAggregate(hotelAggregate(), 9, 2);
+        assertAggregate(roomAggregate(), 5, 1);
+    }
+
+    @Test
+    void deletingTheLastReviewResetsToZero() {
+        Long first = reviewService.addReview(review(3, true, true), user.getId()).getId();
+        Long second = reviewService.addReview(review(4, true, true), user.getId()).getId();
+
+        reviewService.deleteReview(first, user.getId());
+        assertAggregate(hotelAggregate(), 4, 1);
+
+        reviewService.deleteReview(second, user.getId());
+        assertAggregate(hotelAggregate(), 0, 0);
+        assertAggregate(roomAggregate(), 0, 0);
+        // Không còn review: trung bình 0 chứ không chia cho 0
+        assertEquals(0.0, reviewService.getAverageRatingByHotel(hotel.getId()));
+        assertEquals(0.0, reviewService.getAverageRatingByRoom(room.getId()));
+    }
+
+    @Test
+    void reconcileRepairsDriftedAggregates() {
+        reviewService.addReview(review(5, true, true), user.getId());
+        reviewService.addReview(review(1, true, false), user.getId());
+        // Lệch do ghi ngoài luồng review (sửa tay, lỗi cũ)
+        hotelRepository.applyRatingDelta(hotel.getId(), 40, 7);
+        roomRepository.applyRatingDelta(room.getId(), -5, -1);
+
+        ratingAggregateService.reconcile();
+
+        assertAggregate(hotelAggregate(), 6, 2);
+        assertAggregate(roomAggregate(), 5, 1);
+    }
+
+    @Test
+    void reconcileZeroesRowsWithoutReviews() {
+        hotelRepository.applyRatingDelta(hotel.getId(), 9, 2);
+        roomRepository.applyRatingDelta(room.getId(), 9, 2);
+
+        ratingAggregateService.reconcile();
+
+        assertAggregate(hotelAggregate(), 0, 0);
+        assertAggregate(roomAggregate(), 0, 0);
+    }
+
+    private ReviewRequest review(int rating, boolean onHotel, boolean onRoom) {
+        ReviewRequest request = new ReviewRequest();
+        request.setRating(rating);
+        request.setComment("Rating " + rating);
+        request.setHotelId(onHotel ? hotel.getId() : null);
+        request.setRoomId(onRoom ? room.getId() : null);
+        return request;
+    }
+
+    private RatingAggregate hotelAggregate() {
+        return hotelRepository.findRatingAggregateById(hotel.getId()).orElseThrow();
+    }
+
+    private RatingAggregate roomAggregate() {
+        return roomRepository.findRatingAggregateById(room.getId()).orElseThrow();
+    }
+
+    private static void assertAggregate(RatingAggregate aggregate, long ratingSum, long reviewCount) {
+        assertEquals(ratingSum, aggregate.getRatingSum());
+        assertEquals(reviewCount, aggregate.getReviewCount());
+    }
+}
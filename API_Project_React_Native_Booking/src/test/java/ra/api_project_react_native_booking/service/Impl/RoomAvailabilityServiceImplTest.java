@@ -0,0 +1,101 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ra.api_project_react_native_booking.model.Booking;
+import ra.api_project_react_native_booking.model.Room;
+import ra.api_project_react_native_booking.model.constants.BookingStatus;
+import ra.api_project_react_native_booking.repository.BookingRepository;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class RoomAvailabilityServiceImplTest {
+
+    private final LocalDate today = LocalDate.now();
+    private BookingRepository bookingRepository;
+    private RoomRepository roomRepository;
+    private RoomAvailabilityServiceImpl availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findAvailableRoomIds()).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findOccupiedRanges(any(), any())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, today.plusDays(2), today.plusDays(5)}
+        ));
+        availabilityService = new RoomAvailabilityServiceImpl(bookingRepository, roomRepository);
+        ReflectionTestUtils.setField(availabilityService, "horizonDays", 365);
+        availabilityService.reload();
+    }
+
+    @Test
+    void answersOverlapFromBitmapWithoutDatabase() {
+        assertTrue(availabilityService.isRoomBooked(1L, today.plusDays(4), today.plusDays(6)));
+        assertTrue(availabilityService.isRoomBooked(1L, today, today.plusDays(10)));
+        // Trả phòng và nhận phòng cùng ngày không bị coi là trùng
+        assertFalse(availabilityService.isRoomBooked(1L, today.plusDays(5), today.plusDays(7)));
+        assertFalse(availabilityService.isRoomBooked(1L, today, today.plusDays(2)));
+        assertFalse(availabilityService.isRoomBooked(2L, today.plusDays(2), today.plusDays(5)));
+
+        assertEquals(List.of(2L), availabilityService.getAvailableRoomIds(today.plusDays(3), today.plusDays(4)));
+        verify(bookingRepository, never()).isRoomBooked(anyLong(), any(), any());
+    }
+
+    @Test
+    void fallsBackToDatabaseOutsideHorizon() {
+        LocalDate farCheckIn = today.plusDays(400);
+        when(bookingRepository.isRoomBooked(1L, farCheckIn, farCheckIn.plusDays(1))).thenReturn(true);
+
+        assertFalse(availabilityService.covers(farCheckIn, farCheckIn.plusDays(1)));
+        assertTrue(availabilityService.isRoomBooked(1L, farCheckIn, farCheckIn.plusDays(1)));
+    }
+
+    @Test
+    void roomWritesApplyWithoutReload() {
+        // Phòng 1 bị tắt, phòng 3 mới thêm sau lần nạp bitmap
+        when(roomRepository.findAvailableRoomIds()).thenReturn(List.of(2L, 3L));
+
+        assertEquals(List.of(2L, 3L), availabilityService.getAvailableRoomIds(today.plusDays(3), today.plusDays(4)));
+        assertFalse(availabilityService.isRoomBooked(3L, today.plusDays(3), today.plusDays(4)));
+    }
+
+    @Test
+    void windowFromYesterdayFallsBackToDatabase() {
+        // Sau nửa đêm, trước khi cron reload chạy
+        availabilityService.reload(today.minusDays(1));
+        when(bookingRepository.isRoomBooked(2L, today, today.plusDays(1))).thenReturn(true);
+
+        assertFalse(availabilityService.covers(today, today.plusDays(1)));
+        assertTrue(availabilityService.isRoomBooked(2L, today, today.plusDays(1)));
+        assertThrows(IllegalStateException.class, () -> availabilityService.getAvailableRoomIds(today, today.plusDays(1)));
+
+        availabilityService.reload();
+        assertTrue(availabilityService.covers(today, today.plusDays(1)));
+    }
+
+    @Test
+    void updatesBitmapWhenBookingChanges() {
+        Booking booking = Booking.builder()
+                .room(Room.builder().id(2L).build())
+                .checkInDate(today.plusDays(10))
+                .checkOutDate(today.plusDays(12))
+                .status(BookingStatus.CONFIRMED)
+                .build();
+        availabilityService.onBookingChanged(booking);
+        assertTrue(availabilityService.isRoomBooked(2L, today.plusDays(11), today.plusDays(13)));
+
+        booking.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findOccupiedRangesByRoomId(eq(2L), any(), any())).thenReturn(List.of());
+        availabilityService.onBookingChanged(booking);
+        assertFalse(availabilityService.isRoomBooked(2L, today.plusDays(11), today.plusDays(13)));
+    }
+}
@@ -0,0 +1,179 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import ra.api_project_react_native_booking.dto.response.CursorPage;
+import ra.api_project_react_native_booking.dto.response.RoomResponse;
+import ra.api_project_react_native_booking.model.*;
+import ra.api_project_react_native_booking.model.constants.GenderName;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Chặn N+1 quay lại: số câu SQL để dựng một trang phòng không được phụ thuộc vào số phòng trong trang
+@DataJpaTest
+@Import({RoomServiceImpl.class, RoomAvailabilityServiceImpl.class})
+class RoomServiceImplQueryCountTest {
+
+    // 1 query trang + 1 count + ảnh + tiện ích
+    private static final long STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private RoomServiceImpl roomService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private RoomAvailabilityServiceImpl roomAvailabilityService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Hotel hotel;
+    private RoomType roomType;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .password("secret")
+                .fullName("Test User")
+                .email("query-count@example.com")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .gender(GenderName.OTHER)
+                .build());
+        hotel = entityManager.persist(Hotel.builder()
+                .name("Test Hotel")
+                .address("1 Test Street")
+                .city("Đà Nẵng")
+                .country("Việt Nam")
+                .starRating(4)
+                .build());
+        roomType = entityManager.persist(RoomType.builder().name("Deluxe").build());
+        Amenity wifi = entityManager.persist(Amenity.builder().name("Wifi").build());
+        Amenity pool = entityManager.persist(Amenity.builder().name("Pool").build());
+
+        for (int i = 0; i < 12; i++) {
+            Room room = entityManager.persist(Room.builder()
+                    .roomNumber("R" + i)
+                    .hotel(hotel)
+                    .roomType(roomType)
+                    .price(BigDecimal.valueOf(1_000_000))
+                    .capacity(2)
+                    .isAvailable(true)
+                    .amenities(List.of(wifi, pool))
+                    .build());
+            entityManager.persist(RoomImage.builder().room(room).imageUrl("https://img/" + i).isPrimary(true).build());
+            entityManager.persist(RoomImage.builder().room(room).imageUrl("https://img/" + i + "-2").isPrimary(false).build());
+            entityManager.persist(Review.builder().user(user).hotel(hotel).room(room).rating(4).build());
+            entityManager.persist(Review.builder().user(user).hotel(hotel).room(room).rating(5).build());
+        }
+        entityManager.flush();
+        roomRepository.reconcileRatingAggregates();
+        entityManager.clear();
+    }
+
+    @Test
+    void pageOfRoomsUsesFixedNumberOfStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        Page<RoomResponse> smallPage = roomService.getAllRooms(PageRequest.of(0, 3));
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        statistics.clear();
+        Page<RoomResponse> largePage = roomService.getAllRooms(PageRequest.of(0, 10));
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(3, smallPage.getContent().size());
+        assertEquals(10, largePage.getContent().size());
+        assertEquals(12, largePage.getTotalElements());
+        assertEquals(STATEMENTS_PER_PAGE, smallPageStatements);
+        assertEquals(STATEMENTS_PER_PAGE, largePageStatements);
+
+        RoomResponse room = largePage.getContent().get(0);
+        assertEquals("Deluxe", room.getRoomType().getName());
+        assertEquals(2, room.getImages().size());
+        assertEquals(2, room.getAmenities().size());
+        assertEquals(2L, room.getReviewCount());
+        assertEquals(4.5, room.getAverageRating());
+    }
+
+    @Test
+    void cursorPagesWalkAllRoomsWithoutCountQuery() {
+        // Cùng createdAt để kiểm tra id phân định thứ tự khi trùng thời điểm
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Room r SET r.createdAt = :createdAt")
+                .setParameter("createdAt", LocalDateTime.of(2025, 1, 1, 0, 0))
+                .executeUpdate();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPage<RoomResponse> page = roomService.getAllRoomsCursor(cursor, 5);
+            // 1 query trang + ảnh + tiện ích, không có COUNT(*)
+            assertEquals(3, statistics.getPrepareStatementCount());
+            page.getContent().forEach(room -> seen.add(room.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(12, seen.size());
+        assertEquals(seen.stream().sorted(Comparator.reverseOrder()).toList(), seen);
+        assertThrows(RuntimeException.class, () -> roomService.getAllRoomsCursor("not-a-cursor", 5));
+    }
+
+    @Test
+    void availableRoomsFollowRoomWritesInIdOrder() {
+        LocalDate checkIn = LocalDate.now().plusDays(3);
+        roomAvailabilityService.reload();
+        List<Long> ids = roomRepository.findAll().stream().map(Room::getId).sorted().toList();
+
+        // Tắt một phòng và thêm phòng mới sau khi bitmap đã nạp, không reload lại
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Room r SET r.isAvailable = false WHERE r.id = :id")
+                .setParameter("id", ids.get(0))
+                .executeUpdate();
+        Room added = entityManager.persist(Room.builder()
+                .roomNumber("NEW")
+                .hotel(entityManager.find(Hotel.class, hotel.getId()))
+                .roomType(entityManager.find(RoomType.class, roomType.getId()))
+                .price(BigDecimal.valueOf(1_000_000))
+                .capacity(2)
+                .isAvailable(true)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> expected = new ArrayList<>(ids.subList(1, ids.size()));
+        expected.add(added.getId());
+        assertEquals(expected, roomService.getAvailableRooms(checkIn, checkIn.plusDays(2)).stream()
+                .map(RoomResponse::getId).toList());
+
+        // Không còn phòng mở bán: danh sách rỗng, không lỗi với IN rỗng
+        entityManager.getEntityManager().createQuery("UPDATE Room r SET r.isAvailable = false").executeUpdate();
+        assertEquals(List.of(), roomService.getAvailableRooms(checkIn, checkIn.plusDays(2)));
+    }
+}
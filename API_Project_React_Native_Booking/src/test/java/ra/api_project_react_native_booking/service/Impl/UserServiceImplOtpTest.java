@@ -0,0 +1,163 @@
+package ra.api_project_react_native_booking.service.Impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ra.api_project_react_native_booking.dto.request.ForgotPasswordRequest;
+import ra.api_project_react_native_booking.dto.request.ResetPasswordRequest;
+import ra.api_project_react_native_booking.dto.request.VerifyOtpRequest;
+import ra.api_project_react_native_booking.dto.response.OtpResponse;
+import ra.api_project_react_native_booking.model.User;
+import ra.api_project_react_native_booking.repository.UserRepository;
+import ra.api_project_react_native_booking.security.jwt.JWTProvider;
+import ra.api_project_react_native_booking.security.principal.PrincipalCache;
+import ra.api_project_react_native_booking.service.interfaces.MailService;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserServiceImplOtpTest {
+
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private PrincipalCache principalCache;
+    private MailService mailService;
+    private UserServiceImpl userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        principalCache = mock(PrincipalCache.class);
+        mailService = mock(MailService.class);
+        userService = new UserServiceImpl(userRepository, passwordEncoder, mock(JWTProvider.class), principalCache,
+                new CaffeineOtpStore(1000), mailService);
+        ReflectionTestUtils.setField(userService, "otpLength", 6);
+        ReflectionTestUtils.setField(userService, "otpTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(userService, "otpResendCooldown", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(userService, "otpMaxAttempts", 3);
+        ReflectionTestUtils.setField(userService, "otpMaxIssues", 2);
+        ReflectionTestUtils.setField(userService, "otpWindow", Duration.ofHours(24));
+        ReflectionTestUtils.setField(userService, "otpSecret", "test-secret");
+
+        user = User.builder().id(7L).email("guest@example.com").phoneNumber("0901234567").password("old").build();
+        when(userRepository.findByEmail("guest@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByPhoneNumber("0901234567")).thenReturn(Optional.of(user));
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(passwordEncoder.encode("new-secret")).thenReturn("encoded");
+    }
+
+    @Test
+    void forgotVerifyAndResetPassword() {
+        OtpResponse sent = userService.forgotPassword(new ForgotPasswordRequest("guest@example.com"));
+        assertTrue(sent.isSuccess());
+        assertNull(sent.getMaskedContact());
+        assertEquals(300L, sent.getExpiresIn());
+        String otp = sentOtp();
+
+        assertTrue(userService.verifyOtp(new VerifyOtpRequest("guest@example.com", otp)).isSuccess());
+
+        assertTrue(userService.resetPassword(new ResetPasswordRequest("guest@example.com", otp, "new-secret")).isSuccess());
+        assertEquals("encoded", user.getPassword());
+        verify(principalCache).invalidate(user);
+
+        // Mã đã dùng để đặt lại mật khẩu thì hết giá trị
+        assertFalse(userService.resetPassword(new ResetPasswordRequest("guest@example.com", otp, "new-secret")).isSuccess());
+    }
+
+    @Test
+    void phoneContactSendsOtpToAccountEmail() {
+        OtpResponse sent = userService.forgotPassword(new ForgotPasswordRequest("0901234567"));
+
+        assertTrue(sent.isSuccess());
+        assertEquals("phone", sent.getContactType());
+        assertTrue(userService.verifyOtp(new VerifyOtpRequest("0901234567", sentOtp())).isSuccess());
+        verify(mailService).enqueue(eq("guest@example.com"), anyString(), anyString(), eq(false));
+    }
+
+    @Test
+    void wrongCodesLockTheOtp() {
+        userService.forgotPassword(new ForgotPasswordRequest("guest@example.com"));
+        String otp = sentOtp();
+        String wrong = wrongFor(otp);
+
+        assertFalse(userService.verifyOtp(new VerifyOtpRequest("guest@example.com", wrong)).isSuccess());
+        assertFalse(userService.verifyOtp(new VerifyOtpRequest("guest@example.com", wrong)).isSuccess());
+        assertFalse(userService.verifyOtp(new VerifyOtpRequest("guest@example.com", wrong)).isSuccess());
+        OtpResponse locked = userService.resetPassword(new ResetPasswordRequest("guest@example.com", otp, "new-secret"));
+
+        assertFalse(locked.isSuccess());
+        assertEquals("old", user.getPassword());
+        // Đã khoá thì xin mã mới không gửi thêm email, phản hồi vẫn như thường
+        assertTrue(userService.forgotPassword(new ForgotPasswordRequest("guest@example.com")).isSuccess());
+        verify(mailService, times(1)).enqueue(anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void unknownContactGetsSameResponse() {
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        OtpResponse known = userService.forgotPassword(new ForgotPasswordRequest("guest@example.com"));
+        OtpResponse unknown = userService.forgotPassword(new ForgotPasswordRequest("nobody@example.com"));
+
+        assertEquals(known.isSuccess(), unknown.isSuccess());
+        assertEquals(known.getMessage(), unknown.getMessage());
+        assertEquals(known.getExpiresIn(), unknown.getExpiresIn());
+        verify(mailService, times(1)).enqueue(eq("guest@example.com"), anyString(), anyString(), eq(false));
+
+        OtpResponse wrongCode = userService.verifyOtp(new VerifyOtpRequest("guest@example.com", wrongFor(sentOtp())));
+        OtpResponse noAccount = userService.verifyOtp(new VerifyOtpRequest("nobody@example.com", "123456"));
+        assertEquals(wrongCode.getMessage(), noAccount.getMessage());
+    }
+
+    @Test
+    void otpIsKeyedByUserAcrossContacts() {
+        userService.forgotPassword(new ForgotPasswordRequest("guest@example.com"));
+        String wrong = wrongFor(sentOtp());
+
+        // Email và số điện thoại của cùng tài khoản dùng chung bộ đếm lần sai
+        userService.verifyOtp(new VerifyOtpRequest("guest@example.com", wrong));
+        userService.verifyOtp(new VerifyOtpRequest("0901234567", wrong));
+
+        // Gửi lại qua contact khác không reset bộ đếm: lần sai thứ ba khoá luôn
+        ReflectionTestUtils.setField(userService, "otpResendCooldown", Duration.ZERO);
+        userService.forgotPassword(new ForgotPasswordRequest("0901234567"));
+        String reissued = sentOtp();
+        assertFalse(userService.verifyOtp(new VerifyOtpRequest("guest@example.com", wrongFor(reissued))).isSuccess());
+        assertFalse(userService.verifyOtp(new VerifyOtpRequest("0901234567", reissued)).isSuccess());
+    }
+
+    @Test
+    void issuesAreCappedPerWindow() {
+        ReflectionTestUtils.setField(userService, "otpResendCooldown", Duration.ZERO);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(userService.forgotPassword(new ForgotPasswordRequest("guest@example.com")).isSuccess());
+        }
+
+        // otpMaxIssues = 2
+        verify(mailService, times(2)).enqueue(anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    private String sentOtp() {
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(mailService, atLeastOnce()).enqueue(anyString(), anyString(), body.capture(), anyBoolean());
+        Matcher matcher = Pattern.compile("\\d{6}").matcher(body.getValue());
+        assertTrue(matcher.find());
+        return matcher.group();
+    }
+
+    private static String wrongFor(String otp) {
+        return otp.equals("000000") ? "111111" : "000000";
+    }
+}
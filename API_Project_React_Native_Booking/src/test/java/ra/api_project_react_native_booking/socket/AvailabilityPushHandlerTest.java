@@ -0,0 +1,137 @@
+package ra.api_project_react_native_booking.socket;
+
+import com.corundumstudio.socketio.BroadcastOperations;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.SocketIONamespace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ra.api_project_react_native_booking.dto.request.AvailabilitySubscribeRequest;
+import ra.api_project_react_native_booking.dto.response.AvailabilityDeltaResponse;
+import ra.api_project_react_native_booking.event.BookingChangedEvent;
+import ra.api_project_react_native_booking.repository.RoomRepository;
+import ra.api_project_react_native_booking.service.interfaces.RoomAvailabilityService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityPushHandlerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 1);
+
+    private SocketIONamespace namespace;
+    private RoomRepository roomRepository;
+    private RoomAvailabilityService availabilityService;
+    private AvailabilityPushHandler handler;
+    // Socket room -> client đã join
+    private final Map<String, List<SocketIOClient>> rooms = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        namespace = mock(SocketIONamespace.class);
+        roomRepository = mock(RoomRepository.class);
+        availabilityService = mock(RoomAvailabilityService.class);
+        when(namespace.getRoomOperations(anyString())).thenAnswer(invocation -> {
+            BroadcastOperations operations = mock(BroadcastOperations.class);
+            Collection<SocketIOClient> clients = rooms.getOrDefault(invocation.<String>getArgument(0), List.of());
+            when(operations.getClients()).thenReturn(clients);
+            return operations;
+        });
+        when(roomRepository.findHotelIdsByRoomIds(any())).thenReturn(List.of(
+                new Object[]{10L, 1L},
+                new Object[]{11L, 1L}
+        ));
+        handler = new AvailabilityPushHandler(namespace, roomRepository, availabilityService);
+    }
+
+    @Test
+    void coalescesManyChangesIntoOneEventPerClient() {
+        SocketIOClient roomWatcher = client();
+        SocketIOClient hotelWatcher = client();
+        handler.subscribe(roomWatcher, request(null, 10L, DAY, DAY.plusDays(10)), null);
+        handler.subscribe(hotelWatcher, request(1L, null, DAY, DAY.plusDays(10)), null);
+
+        // Đêm 1..2 và 3..4 của phòng 10 bị chiếm, phòng 11 bị chiếm rồi huỷ
+        when(availabilityService.isRoomBooked(eq(10L), any(), any())).thenReturn(true);
+        when(availabilityService.isRoomBooked(eq(11L), any(), any())).thenReturn(false);
+        handler.onBookingChanged(event(10L, DAY.plusDays(1), DAY.plusDays(3), true));
+        handler.onBookingChanged(event(10L, DAY.plusDays(2), DAY.plusDays(5), true));
+        handler.onBookingChanged(event(11L, DAY, DAY.plusDays(2), true));
+        handler.onBookingChanged(event(11L, DAY, DAY.plusDays(2), false));
+        handler.flush();
+
+        verify(roomRepository, times(1)).findHotelIdsByRoomIds(any());
+        assertEquals(List.of(delta(10L, DAY.plusDays(1), DAY.plusDays(5), false)), sent(roomWatcher));
+        List<AvailabilityDeltaResponse> hotelDeltas = sent(hotelWatcher);
+        assertEquals(2, hotelDeltas.size());
+        hotelDeltas.sort((a, b) -> a.getRoomId().compareTo(b.getRoomId()));
+        assertEquals(delta(10L, DAY.plusDays(1), DAY.plusDays(5), false), hotelDeltas.get(0));
+        assertEquals(delta(11L, DAY, DAY.plusDays(2), true), hotelDeltas.get(1));
+
+        // Hàng đợi đã được xả, flush tiếp không gửi gì
+        handler.flush();
+        verify(roomWatcher, times(1)).sendEvent(eq(AvailabilityPushHandler.EVENT_AVAILABILITY), any());
+    }
+
+    @Test
+    void skipsClientsWhoseDatesDoNotOverlap() {
+        SocketIOClient later = client();
+        handler.subscribe(later, request(null, 10L, DAY.plusDays(20), DAY.plusDays(25)), null);
+        when(availabilityService.isRoomBooked(eq(10L), any(), any())).thenReturn(true);
+
+        handler.onBookingChanged(event(10L, DAY, DAY.plusDays(3), true));
+        handler.flush();
+
+        verify(later, never()).sendEvent(anyString(), any());
+    }
+
+    @Test
+    void rejectsInvalidSubscription() {
+        SocketIOClient client = client();
+        handler.subscribe(client, request(null, 10L, DAY, DAY), null);
+        handler.subscribe(client, request(1L, 10L, DAY, DAY.plusDays(1)), null);
+
+        verify(client, never()).joinRoom(anyString());
+    }
+
+    private SocketIOClient client() {
+        SocketIOClient client = mock(SocketIOClient.class);
+        when(client.getSessionId()).thenReturn(UUID.randomUUID());
+        doAnswer(invocation -> rooms.computeIfAbsent(invocation.getArgument(0), key -> new ArrayList<>()).add(client))
+                .when(client).joinRoom(anyString());
+        return client;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AvailabilityDeltaResponse> sent(SocketIOClient client) {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(client, times(1)).sendEvent(eq(AvailabilityPushHandler.EVENT_AVAILABILITY), payload.capture());
+        return new ArrayList<>((List<AvailabilityDeltaResponse>) payload.getValue());
+    }
+
+    private AvailabilitySubscribeRequest request(Long hotelId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return AvailabilitySubscribeRequest.builder()
+                .hotelId(hotelId)
+                .roomId(roomId)
+                .checkIn(checkIn.toString())
+                .checkOut(checkOut.toString())
+                .build();
+    }
+
+    private BookingChangedEvent event(Long roomId, LocalDate checkIn, LocalDate checkOut, boolean occupying) {
+        return new BookingChangedEvent(1L, roomId, checkIn, checkOut, occupying);
+    }
+
+    private AvailabilityDeltaResponse delta(Long roomId, LocalDate checkIn, LocalDate checkOut, boolean available) {
+        return new AvailabilityDeltaResponse(roomId, 1L, checkIn.toString(), checkOut.toString(), available);
+    }
+}
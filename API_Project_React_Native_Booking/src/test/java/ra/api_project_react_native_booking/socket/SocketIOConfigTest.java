@@ -0,0 +1,42 @@
+package ra.api_project_react_native_booking.socket;
+
+import com.corundumstudio.socketio.AuthorizationListener;
+import com.corundumstudio.socketio.HandshakeData;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SocketIOConfigTest {
+
+    @Test
+    void handshakeOriginFollowsTheCorsPatterns() {
+        AuthorizationListener check = SocketIOConfig.originCheck(List.of("https://booking.example.com", "https://*.staging.example.com"));
+
+        assertTrue(check.isAuthorized(handshake("https://booking.example.com")));
+        assertTrue(check.isAuthorized(handshake("https://web.staging.example.com")));
+        assertFalse(check.isAuthorized(handshake("https://evil.example.org")));
+        // App mobile không gửi Origin
+        assertTrue(check.isAuthorized(handshake(null)));
+    }
+
+    @Test
+    void wildcardAcceptsAnyOrigin() {
+        assertTrue(SocketIOConfig.originCheck(List.of("*")).isAuthorized(handshake("http://localhost:8081")));
+    }
+
+    private static HandshakeData handshake(String origin) {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        if (origin != null) {
+            headers.set(HttpHeaderNames.ORIGIN, origin);
+        }
+        return new HandshakeData(headers, Map.of(), new InetSocketAddress(0), "/socket.io/", false);
+    }
+}
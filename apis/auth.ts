@@ -65,8 +65,9 @@ export async function updateUserProfile(
   userId: number,
   updateRequest: UserUpdateRequest
 ): Promise<UserResponse> {
+  // Cần JWT, server chỉ cho sửa tài khoản của chính mình
   const response = await axiosInstance.put<APIResponse<UserResponse>>(
-    `auth/user/${userId}`,
+    `users/${userId}`,
     updateRequest
   );
   return response.data.data;
@@ -121,8 +122,8 @@ export async function verifyOtp(
     // Nếu API chưa được bật (404), trả về mock response để test UI
     if (error.response?.status === 404) {
       console.warn("Verify OTP API not available, returning mock response");
-      // Mock: accept any 4-digit OTP
-      if (verifyOtpRequest.otp.length === 4) {
+      // Mock: accept any 6-digit OTP
+      if (verifyOtpRequest.otp.length === 6) {
         return {
           success: true,
           message: "OTP xác thực thành công (mock)",
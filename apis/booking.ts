@@ -1,32 +1,37 @@
 import AsyncStorage from "@react-native-async-storage/async-storage";
 import { BookingResponse } from "../types/hotel";
 import axiosInstance from "../utils/axiosInstance";
-import { APIResponse } from "@/types/auth";
+import { newIdempotencyKey, postIdempotent } from "../utils/idempotency";
+import { APIResponse, CursorPage } from "@/types/auth";
 
-// Tạo booking mới
-export async function createBooking(bookingRequest: {
-  roomId: number;
-  checkInDate: string;
-  checkOutDate: string;
-  guests: number;
-  specialRequests?: string;
-}): Promise<BookingResponse> {
+// Tạo booking mới (màn hình nên giữ idempotencyKey khi người dùng bấm lại sau lỗi mạng)
+export async function createBooking(
+  bookingRequest: {
+    roomId: number;
+    checkInDate: string;
+    checkOutDate: string;
+    guests: number;
+    specialRequests?: string;
+  },
+  idempotencyKey: string = newIdempotencyKey()
+): Promise<BookingResponse> {
   // Lấy userId từ token hoặc AsyncStorage
   const userId = await AsyncStorage.getItem("userId");
   if (!userId) {
     throw new Error("User not authenticated");
   }
 
-  const response = await axiosInstance.post<APIResponse<BookingResponse>>(
+  const response = await postIdempotent<APIResponse<BookingResponse>>(
     "bookings",
     bookingRequest,
+    idempotencyKey,
     {
       headers: {
         "user-id": userId,
       },
     }
   );
-  return response.data.data;
+  return response.data;
 }
 
 // Lấy booking theo ID
@@ -130,6 +135,27 @@ export async function getMyBookings(
   };
 }
 
+// Lấy my bookings theo cursor (infinite scroll, không đếm tổng)
+export async function getMyBookingsCursor(
+  cursor?: string | null,
+  size: number = 10
+): Promise<CursorPage<BookingResponse>> {
+  const userId = await AsyncStorage.getItem("userId");
+  if (!userId) {
+    throw new Error("User not authenticated");
+  }
+
+  const response = await axiosInstance.get<
+    APIResponse<CursorPage<BookingResponse>>
+  >("bookings/my-bookings/cursor", {
+    params: { cursor: cursor ?? undefined, size },
+    headers: {
+      "user-id": userId,
+    },
+  });
+  return response.data.data;
+}
+
 // Lấy upcoming bookings
 export async function getUpcomingBookings(): Promise<BookingResponse[]> {
   const userId = await AsyncStorage.getItem("userId");
@@ -61,19 +61,74 @@ export async function getTopRatedHotels(): Promise<HotelResponse[]> {
   return response.data.data;
 }
 
-// Lọc hotels theo rating và city
+// Lọc hotels theo rating và city (phân trang)
 export async function filterHotels(params: {
   minRating?: number;
   maxRating?: number;
   city?: string;
-}): Promise<HotelResponse[]> {
-  const response = await axiosInstance.get<APIResponse<HotelResponse[]>>(
-    "hotels/filter",
-    {
-      params,
-    }
-  );
-  return response.data.data;
+  page?: number;
+  size?: number;
+}): Promise<{
+  content: HotelResponse[];
+  totalElements: number;
+  totalPages: number;
+  page: number;
+  size: number;
+}> {
+  const response = await axiosInstance.get<
+    APIResponse<{
+      content: HotelResponse[];
+      totalElements: number;
+      totalPages: number;
+      number: number;
+      size: number;
+    }>
+  >("hotels/filter", {
+    params: { page: 0, size: 10, ...params },
+  });
+  const data = response.data.data;
+  return {
+    content: data.content,
+    totalElements: data.totalElements,
+    totalPages: data.totalPages,
+    page: data.number,
+    size: data.size,
+  };
+}
+
+// Tìm hotels quanh vị trí, sắp theo khoảng cách (phân trang)
+export async function getNearbyHotels(params: {
+  lat: number;
+  lng: number;
+  radiusKm?: number;
+  page?: number;
+  size?: number;
+}): Promise<{
+  content: HotelResponse[];
+  totalElements: number;
+  totalPages: number;
+  page: number;
+  size: number;
+}> {
+  const response = await axiosInstance.get<
+    APIResponse<{
+      content: HotelResponse[];
+      totalElements: number;
+      totalPages: number;
+      number: number;
+      size: number;
+    }>
+  >("hotels/nearby", {
+    params: { radiusKm: 5, page: 0, size: 20, ...params },
+  });
+  const data = response.data.data;
+  return {
+    content: data.content,
+    totalElements: data.totalElements,
+    totalPages: data.totalPages,
+    page: data.number,
+    size: data.size,
+  };
 }
 
 // Lấy danh sách các cities có hotels (từ danh sách hotels)
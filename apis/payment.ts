@@ -1,10 +1,13 @@
 import axiosInstance from "../utils/axiosInstance";
+import { newIdempotencyKey, postIdempotent } from "../utils/idempotency";
 import { APIResponse } from "../types/api";
+import { CursorPage } from "../types/auth";
 import {
   PaymentCardRequest,
   PaymentCardResponse,
   PaymentRequest,
   PaymentResponse,
+  PaymentStatus,
 } from "../types/payment";
 import AsyncStorage from "@react-native-async-storage/async-storage";
 
@@ -119,26 +122,28 @@ export async function setDefaultCard(
 // ==================== Payment APIs ====================
 
 /**
- * Thanh toán booking
+ * Thanh toán booking; gửi lại với cùng idempotencyKey không bị trừ tiền lần hai
  */
 export async function payBooking(
-  request: PaymentRequest
+  request: PaymentRequest,
+  idempotencyKey: string = newIdempotencyKey()
 ): Promise<PaymentResponse> {
   const userId = await AsyncStorage.getItem("userId");
   if (!userId) {
     throw new Error("User not logged in");
   }
 
-  const response = await axiosInstance.post<APIResponse<PaymentResponse>>(
+  const response = await postIdempotent<APIResponse<PaymentResponse>>(
     `payments/pay`,
     request,
+    idempotencyKey,
     {
       headers: {
         "user-id": userId,
       },
     }
   );
-  return response.data.data;
+  return response.data;
 }
 
 /**
@@ -161,6 +166,29 @@ export async function getMyPayments(): Promise<PaymentResponse[]> {
   return response.data.data;
 }
 
+/**
+ * Lấy lịch sử thanh toán theo cursor (infinite scroll, không đếm tổng)
+ */
+export async function getMyPaymentsCursor(
+  cursor?: string | null,
+  size: number = 10
+): Promise<CursorPage<PaymentResponse>> {
+  const userId = await AsyncStorage.getItem("userId");
+  if (!userId) {
+    throw new Error("User not logged in");
+  }
+
+  const response = await axiosInstance.get<
+    APIResponse<CursorPage<PaymentResponse>>
+  >(`payments/my-payments/cursor`, {
+    params: { cursor: cursor ?? undefined, size },
+    headers: {
+      "user-id": userId,
+    },
+  });
+  return response.data.data;
+}
+
 /**
  * Lấy thông tin thanh toán theo booking ID
  */
@@ -173,3 +201,19 @@ export async function getPaymentByBookingId(
   return response.data.data;
 }
 
+/**
+ * PAYPAL: payBooking trả về PENDING (HTTP 202), hỏi lại tới khi cổng thanh toán trả kết quả
+ */
+export async function waitForPayment(
+  bookingId: number,
+  intervalMs: number = 2000,
+  timeoutMs: number = 60000
+): Promise<PaymentResponse> {
+  const deadline = Date.now() + timeoutMs;
+  let payment = await getPaymentByBookingId(bookingId);
+  while (payment.status === PaymentStatus.PENDING && Date.now() < deadline) {
+    await new Promise((resolve) => setTimeout(resolve, intervalMs));
+    payment = await getPaymentByBookingId(bookingId);
+  }
+  return payment;
+}
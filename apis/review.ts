@@ -1,4 +1,4 @@
-import { APIResponse } from "@/types/auth";
+import { APIResponse, CursorPage } from "@/types/auth";
 import { ReviewResponse } from "../types/hotel";
 import axiosInstance from "../utils/axiosInstance";
 import AsyncStorage from "@react-native-async-storage/async-storage";
@@ -60,6 +60,34 @@ export async function getReviewsByRoom(
   };
 }
 
+// Lấy reviews theo room ID theo cursor (infinite scroll)
+export async function getReviewsByRoomCursor(
+  roomId: number,
+  cursor?: string | null,
+  size: number = 10
+): Promise<CursorPage<ReviewResponse>> {
+  const response = await axiosInstance.get<
+    APIResponse<CursorPage<ReviewResponse>>
+  >(`reviews/room/${roomId}/cursor`, {
+    params: { cursor: cursor ?? undefined, size },
+  });
+  return response.data.data;
+}
+
+// Lấy reviews theo hotel ID theo cursor (infinite scroll)
+export async function getReviewsByHotelCursor(
+  hotelId: number,
+  cursor?: string | null,
+  size: number = 10
+): Promise<CursorPage<ReviewResponse>> {
+  const response = await axiosInstance.get<
+    APIResponse<CursorPage<ReviewResponse>>
+  >(`reviews/hotel/${hotelId}/cursor`, {
+    params: { cursor: cursor ?? undefined, size },
+  });
+  return response.data.data;
+}
+
 // Lấy reviews theo hotel ID
 export async function getReviewsByHotel(
   hotelId: number,
@@ -1,5 +1,5 @@
 import { APIResponse } from "@/types/auth";
-import { RoomResponse } from "../types/hotel";
+import { PriceQuoteResponse, RoomResponse } from "../types/hotel";
 import axiosInstance from "../utils/axiosInstance";
 
 // Tìm kiếm rooms
@@ -85,6 +85,21 @@ export async function getRoomById(id: number): Promise<RoomResponse> {
   return response.data.data;
 }
 
+// Báo giá kỳ lưu trú (giá từng đêm, giảm giá ở dài ngày)
+export async function getRoomQuote(
+  id: number,
+  checkIn: string,
+  checkOut: string
+): Promise<PriceQuoteResponse> {
+  const response = await axiosInstance.get<APIResponse<PriceQuoteResponse>>(
+    `rooms/${id}/quote`,
+    {
+      params: { checkIn, checkOut },
+    }
+  );
+  return response.data.data;
+}
+
 // Lấy available rooms
 export async function getAvailableRooms(
   checkIn: string,
@@ -21,10 +21,13 @@ import ErrorNotification from "../../components/ErrorNotification";
 import SuccessNotification from "../../components/SuccessNotification";
 import { VerifyOtpRequest } from "../../types/auth";
 
+const OTP_LENGTH = 6;
+const EMPTY_OTP = Array(OTP_LENGTH).fill("");
+
 export default function OTPVerificationScreen() {
   const params = useLocalSearchParams();
   const router = useRouter();
-  const [otp, setOtp] = useState(["", "", "", ""]);
+  const [otp, setOtp] = useState<string[]>(EMPTY_OTP);
   const [timer, setTimer] = useState(60);
   const [canResend, setCanResend] = useState(false);
   const [loading, setLoading] = useState(false);
@@ -82,15 +85,15 @@ export default function OTPVerificationScreen() {
   const handleOtpChange = (value: string, index: number) => {
     if (value.length > 1) {
       // Handle paste
-      const pastedOtp = value.slice(0, 4).split("");
+      const pastedOtp = value.slice(0, OTP_LENGTH).split("");
       const newOtp = [...otp];
       pastedOtp.forEach((digit, i) => {
-        if (index + i < 4) {
+        if (index + i < OTP_LENGTH) {
           newOtp[index + i] = digit;
         }
       });
       setOtp(newOtp);
-      const nextIndex = Math.min(index + pastedOtp.length, 3);
+      const nextIndex = Math.min(index + pastedOtp.length, OTP_LENGTH - 1);
       inputRefs.current[nextIndex]?.focus();
       return;
     }
@@ -100,7 +103,7 @@ export default function OTPVerificationScreen() {
     setOtp(newOtp);
 
     // Auto-focus next input
-    if (value && index < 3) {
+    if (value && index < OTP_LENGTH - 1) {
       inputRefs.current[index + 1]?.focus();
     }
   };
@@ -113,8 +116,8 @@ export default function OTPVerificationScreen() {
 
   const handleVerify = async () => {
     const otpCode = otp.join("");
-    if (otpCode.length !== 4) {
-      setErrorMessage("Vui lòng nhập đầy đủ 4 chữ số OTP");
+    if (otpCode.length !== OTP_LENGTH) {
+      setErrorMessage(`Vui lòng nhập đầy đủ ${OTP_LENGTH} chữ số OTP`);
       setShowErrorNotification(true);
       return;
     }
@@ -152,7 +155,7 @@ export default function OTPVerificationScreen() {
         setErrorMessage(response.message || "OTP không đúng. Vui lòng thử lại.");
         setShowErrorNotification(true);
         // Clear OTP on error
-        setOtp(["", "", "", ""]);
+        setOtp(EMPTY_OTP);
         inputRefs.current[0]?.focus();
       }
     } catch (error: any) {
@@ -166,7 +169,7 @@ export default function OTPVerificationScreen() {
       setErrorMessage(errorMsg);
       setShowErrorNotification(true);
       // Clear OTP on error
-      setOtp(["", "", "", ""]);
+      setOtp(EMPTY_OTP);
       inputRefs.current[0]?.focus();
     } finally {
       setVerifying(false);
@@ -193,7 +196,7 @@ export default function OTPVerificationScreen() {
       if (response.success) {
         setTimer(60);
         setCanResend(false);
-        setOtp(["", "", "", ""]);
+        setOtp(EMPTY_OTP);
         inputRefs.current[0]?.focus();
         setShowSuccessNotification(true);
       } else {
@@ -327,10 +330,10 @@ export default function OTPVerificationScreen() {
           <TouchableOpacity
             style={[
               styles.verifyButton,
-              (otp.join("").length !== 4 || verifying) && styles.verifyButtonDisabled,
+              (otp.join("").length !== OTP_LENGTH || verifying) && styles.verifyButtonDisabled,
             ]}
             onPress={handleVerify}
-            disabled={otp.join("").length !== 4 || verifying}
+            disabled={otp.join("").length !== OTP_LENGTH || verifying}
             activeOpacity={0.8}
           >
             {verifying ? (
@@ -418,7 +421,7 @@ const styles = StyleSheet.create({
     flexDirection: "row",
     justifyContent: "space-between",
     marginBottom: 24,
-    gap: 12,
+    gap: 8,
   },
   otpInput: {
     flex: 1,
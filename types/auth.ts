@@ -7,6 +7,14 @@ export interface APIResponse<T> {
   timestamp: string;
 }
 
+// Trang theo cursor (infinite scroll), truyền nextCursor vào lần gọi sau
+export interface CursorPage<T> {
+  content: T[];
+  nextCursor: string | null;
+  hasNext: boolean;
+  size: number;
+}
+
 // Register Request (matching backend)
 export interface RegisterRequest {
   fullName: string;
@@ -54,7 +62,11 @@ export interface LoginResponse {
 export interface OtpResponse {
   success: boolean;
   message: string;
-  otp?: string;
+  contact?: string;
+  contactType?: "email" | "phone";
+  maskedContact?: string; // forgot-password không trả về để tránh dò tài khoản
+  expiresIn?: number; // giây
+  otp?: string; // chỉ có ở response mock
 }
 
 // Forgot Password Request (matching backend)
@@ -39,6 +39,7 @@ export interface HotelResponse {
   imageUrl?: string;
   averageRating?: number;
   reviewCount?: number;
+  distanceKm?: number;
   rooms?: RoomResponse[];
   images?: HotelImage[];
 }
@@ -60,6 +61,20 @@ export interface RoomResponse {
   reviewCount?: number;
 }
 
+// GET /rooms/{id}/quote: cùng con số với totalPrice khi tạo booking
+export interface PriceQuoteResponse {
+  roomId: number;
+  checkInDate: string;
+  checkOutDate: string;
+  nights: number;
+  nightlyRates: number[]; // Giá từng đêm, bắt đầu từ checkInDate
+  subtotal: number;
+  lengthOfStayDiscountPercent: number;
+  discountAmount: number;
+  totalPrice: number;
+  currency: string;
+}
+
 export interface BookingResponse {
   id: number;
   bookingCode: string;
@@ -26,17 +26,24 @@ export interface PaymentCardResponse {
 // Payment Types
 export interface PaymentRequest {
   bookingId: number;
-  paymentMethod: "CREDIT_CARD" | "DEBIT_CARD" | "BANK_TRANSFER" | "EWALLET";
-  cardNumber: string;
-  cardHolderName: string;
-  expiryDate: string; // Format: "MM/YY" or "MM/YYYY"
-  cvv: string;
+  paymentMethod:
+    | "CREDIT_CARD"
+    | "DEBIT_CARD"
+    | "PAYPAL"
+    | "BANK_TRANSFER"
+    | "EWALLET";
+  // Bắt buộc với CREDIT_CARD / DEBIT_CARD, bỏ trống với PAYPAL
+  cardNumber?: string;
+  cardHolderName?: string;
+  expiryDate?: string; // Format: "MM/YY" or "MM/YYYY"
+  cvv?: string;
 }
 
 export enum PaymentStatus {
   PENDING = "PENDING",
   COMPLETED = "COMPLETED",
   FAILED = "FAILED",
+  REFUND_REQUIRED = "REFUND_REQUIRED",
   REFUNDED = "REFUNDED",
   CANCELLED = "CANCELLED",
 }
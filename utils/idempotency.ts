@@ -0,0 +1,43 @@
+import { AxiosRequestConfig } from "axios";
+import axiosInstance from "./axiosInstance";
+
+const MAX_RETRIES = 2;
+const RETRY_DELAY_MS = 1000;
+
+/**
+ * Tạo Idempotency-Key cho một lần bấm "Đặt phòng" / "Thanh toán".
+ * Giữ nguyên key khi gửi lại để server trả về kết quả cũ thay vì tạo booking / thanh toán mới.
+ */
+export function newIdempotencyKey(): string {
+  return "xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx".replace(/[xy]/g, (c) => {
+    const r = (Math.random() * 16) | 0;
+    return (c === "x" ? r : (r & 0x3) | 0x8).toString(16);
+  });
+}
+
+// POST kèm Idempotency-Key, tự gửi lại (cùng key) khi mất mạng / timeout hoặc server báo lần trước chưa xong (409)
+export async function postIdempotent<T>(
+  url: string,
+  data: unknown,
+  idempotencyKey: string,
+  config: AxiosRequestConfig = {}
+): Promise<T> {
+  for (let attempt = 0; ; attempt++) {
+    try {
+      const response = await axiosInstance.post<T>(url, data, {
+        ...config,
+        headers: { ...config.headers, "Idempotency-Key": idempotencyKey },
+      });
+      return response.data;
+    } catch (error: any) {
+      const retryable =
+        error?.isNetworkError || error?.response?.status === 409;
+      if (!retryable || attempt >= MAX_RETRIES) {
+        throw error;
+      }
+      await new Promise((resolve) =>
+        setTimeout(resolve, RETRY_DELAY_MS * (attempt + 1))
+      );
+    }
+  }
+}